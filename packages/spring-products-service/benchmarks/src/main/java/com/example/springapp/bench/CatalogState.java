@@ -0,0 +1,59 @@
+package com.example.springapp.bench;
+
+import com.example.springapp.DemoApplication;
+import com.example.springapp.service.NameSearchIndex;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * The application context without a web server, over an embedded H2 catalog seeded with
+ * {@code rows} generated products (ids from {@link #FIRST_ID}, names {@code "Item <n>"}).
+ */
+@State(Scope.Benchmark)
+public class CatalogState {
+    static final long FIRST_ID = 10_000_001L;
+
+    @Param({"10000"})
+    public int rows;
+
+    ConfigurableApplicationContext context;
+
+    @Setup(Level.Trial)
+    public void start() {
+        context = new SpringApplicationBuilder(DemoApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties("spring.datasource.url=jdbc:h2:mem:bench;DB_CLOSE_DELAY=-1",
+                        "spring.jpa.show-sql=false",
+                        "logging.level.root=WARN")
+                .run();
+        context.getBean(JdbcTemplate.class).update(
+                "INSERT INTO products (id, name, description, price, created_at, updated_at, deleted, version) "
+                        + "SELECT X + ?, 'Item ' || X, 'Row ' || X, 9.99, CURRENT_TIMESTAMP(), CURRENT_TIMESTAMP(), FALSE, 0 "
+                        + "FROM SYSTEM_RANGE(0, ?)", FIRST_ID, rows - 1);
+        // the index loaded before the seed rows existed
+        context.getBean(NameSearchIndex.class).load();
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        context.close();
+    }
+
+    <T> T bean(Class<T> type) {
+        return context.getBean(type);
+    }
+
+    long randomId() {
+        return FIRST_ID + ThreadLocalRandom.current().nextInt(rows);
+    }
+}
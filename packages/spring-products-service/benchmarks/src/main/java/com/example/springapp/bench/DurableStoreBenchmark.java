@@ -0,0 +1,157 @@
+package com.example.springapp.bench;
+
+import com.example.springapp.model.Product;
+import com.example.springapp.store.DurableProductStore;
+import com.example.springapp.store.ProductStore;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * The {@code offheap} profile's durable store: durable writes per second by fsync interval (with
+ * concurrent writers sharing fsyncs; change the writer count with {@code -t}), and the time to
+ * recover {@code rows} products from a snapshot plus {@code tail} log records written after it.
+ * Both run against the working directory's file system, which is what they measure.
+ */
+@Fork(1)
+public class DurableStoreBenchmark {
+    private static final long FIRST_ID = 1000;
+
+    @State(Scope.Benchmark)
+    public static class Writes {
+        @Param({"0", "10"})
+        public long fsyncIntervalMillis;
+
+        @Param({"10000"})
+        public int rows;
+
+        Path dir;
+        DurableProductStore durable;
+
+        @Setup(Level.Trial)
+        public void open() throws IOException {
+            dir = Files.createTempDirectory(Path.of("."), "bench-writes");
+            durable = new DurableProductStore(dir, rows, Duration.ofMillis(fsyncIntervalMillis), 64L << 20);
+            seed(durable.store(), rows);
+        }
+
+        @TearDown(Level.Trial)
+        public void close() throws IOException {
+            durable.close();
+            FileSystemUtils.deleteRecursively(dir);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class Recovery {
+        @Param({"1000000"})
+        public int rows;
+
+        @Param({"0", "100000"})
+        public int tail;
+
+        Path image;
+        Path dir;
+        DurableProductStore recovered;
+
+        // What a crash leaves behind, built once: a snapshot of every row, then the tail as log records.
+        @Setup(Level.Trial)
+        public void build() throws IOException {
+            Path source = Files.createTempDirectory(Path.of("."), "bench-source");
+            DurableProductStore durable = new DurableProductStore(source, rows, Duration.ofMillis(10), Long.MAX_VALUE);
+            ProductStore store = durable.store();
+            seed(store, rows);
+            durable.checkpoint();
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            for (int i = 0; i < tail; i++) {
+                store.update(FIRST_ID + random.nextInt(rows), null, "Renamed " + i, "Row " + i, BigDecimal.TEN, OffsetDateTime.now());
+            }
+            store.awaitDurable();
+            image = Files.createTempDirectory(Path.of("."), "bench-image");
+            copy(source, image);
+            durable.close();
+            FileSystemUtils.deleteRecursively(source);
+        }
+
+        @Setup(Level.Invocation)
+        public void restore() throws IOException {
+            dir = Files.createTempDirectory(Path.of("."), "bench-recover");
+            copy(image, dir);
+        }
+
+        @TearDown(Level.Invocation)
+        public void close() throws IOException {
+            recovered.close();
+            FileSystemUtils.deleteRecursively(dir);
+        }
+
+        @TearDown(Level.Trial)
+        public void delete() throws IOException {
+            FileSystemUtils.deleteRecursively(image);
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    @Warmup(iterations = 2, time = 2)
+    @Measurement(iterations = 5, time = 2)
+    @Threads(8)
+    public int durableUpdate(Writes writes) {
+        ProductStore store = writes.durable.store();
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int updated = store.update(FIRST_ID + random.nextInt(writes.rows), null,
+                "Item " + random.nextInt(), "Updated by DurableStoreBenchmark", BigDecimal.TEN, OffsetDateTime.now());
+        store.awaitDurable();
+        return updated;
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 2)
+    @Measurement(iterations = 5)
+    public int recover(Recovery recovery) throws IOException {
+        recovery.recovered = new DurableProductStore(recovery.dir, 1024, Duration.ZERO, Long.MAX_VALUE);
+        return recovery.recovered.store().count();
+    }
+
+    private static void seed(ProductStore store, int rows) {
+        for (int i = 0; i < rows; i++) {
+            Product p = new Product();
+            p.setName("Item " + i);
+            p.setDescription("Row " + i);
+            p.setPrice(new BigDecimal("9.99"));
+            store.save(p);
+        }
+        store.awaitDurable();
+    }
+
+    private static void copy(Path from, Path to) throws IOException {
+        try (Stream<Path> files = Files.list(from)) {
+            for (Path f : files.toList()) Files.copy(f, to.resolve(f.getFileName()));
+        }
+    }
+}
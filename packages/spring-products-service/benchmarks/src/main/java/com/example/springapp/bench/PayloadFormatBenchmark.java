@@ -0,0 +1,106 @@
+package com.example.springapp.bench;
+
+import com.example.springapp.config.ProductProtobuf;
+import com.example.springapp.model.Product;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.CodedOutputStream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encode and decode cost of a product list in each format the API negotiates, with the mapper
+ * settings PayloadFormatsConfig uses. Setup prints the payload size of each format.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PayloadFormatBenchmark {
+    @Param({"json", "cbor", "smile", "protobuf"})
+    public String format;
+
+    @Param({"1000"})
+    public int listSize;
+
+    private ObjectWriter writer;
+    private ObjectReader reader;
+    private List<Product> products;
+    private byte[] encoded;
+
+    @Setup
+    public void setUp() throws IOException {
+        products = new ArrayList<>(listSize);
+        for (int i = 0; i < listSize; i++) products.add(product(i));
+        ObjectMapper mapper = switch (format) {
+            case "json" -> Jackson2ObjectMapperBuilder.json().build();
+            case "cbor" -> binary(new CBORFactory());
+            case "smile" -> binary(new SmileFactory());
+            default -> null;
+        };
+        if (mapper != null) {
+            writer = mapper.writerFor(mapper.getTypeFactory().constructCollectionType(List.class, Product.class));
+            reader = mapper.readerFor(mapper.getTypeFactory().constructCollectionType(List.class, Product.class));
+        }
+        encoded = encode();
+        System.out.printf("%n%s: %d products = %d bytes%n", format, listSize, encoded.length);
+    }
+
+    private static ObjectMapper binary(JsonFactory factory) {
+        return Jackson2ObjectMapperBuilder.json().build().copyWith(factory).enable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    }
+
+    @Benchmark
+    public byte[] encode() throws IOException {
+        if (writer != null) return writer.writeValueAsBytes(products);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64 * listSize);
+        CodedOutputStream out = CodedOutputStream.newInstance(bytes);
+        ProductProtobuf.writeProducts(products, out);
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    @Benchmark
+    public List<Product> decode() throws IOException {
+        if (reader != null) return reader.readValue(encoded);
+        return ProductProtobuf.readProducts(CodedInputStream.newInstance(encoded));
+    }
+
+    private static Product product(long id) {
+        Product p = new Product();
+        p.setId(id);
+        p.setName("Item " + id);
+        p.setDescription("Row " + id);
+        p.setPrice(new BigDecimal("1234.56"));
+        p.setCreatedAt(OffsetDateTime.now());
+        p.setUpdatedAt(p.getCreatedAt());
+        p.setVersion(3L);
+        return p;
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.springapp.bench;
+
+import com.example.springapp.dto.ProductDto;
+import com.example.springapp.model.Product;
+import com.example.springapp.repository.ProductRepository;
+import com.example.springapp.service.ProductService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/** Service and repository read/write paths against the seeded catalog. */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProductServiceBenchmark {
+    private ProductService service;
+    private ProductRepository repository;
+    private ProductDto dto;
+
+    @Setup
+    public void setUp(CatalogState catalog) {
+        service = catalog.bean(ProductService.class);
+        repository = catalog.bean(ProductRepository.class);
+        dto = new ProductDto();
+        dto.setName("Bench product");
+        dto.setDescription("Created by ProductServiceBenchmark");
+        dto.setPrice(new BigDecimal("19.99"));
+    }
+
+    @Benchmark
+    public List<Product> listAll() {
+        return service.listAll(null);
+    }
+
+    // answered from the trigram index plus one findAllById
+    @Benchmark
+    public List<Product> listAllWithQuery() {
+        return service.listAll("Item 4242");
+    }
+
+    // shorter than a trigram, so this falls back to the LIKE scan
+    @Benchmark
+    public List<Product> listAllWithShortQuery() {
+        return service.listAll("m 9");
+    }
+
+    // read-through cache: after warm-up this is the hit path
+    @Benchmark
+    public Product get(CatalogState catalog) {
+        return service.get(catalog.randomId());
+    }
+
+    @Benchmark
+    public Optional<Product> repositoryFindById(CatalogState catalog) {
+        return repository.findById(catalog.randomId());
+    }
+
+    @Benchmark
+    public Product create() {
+        return service.create(dto);
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.springapp.bench;
+
+import com.example.springapp.model.Product;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jackson serialization of products, BigDecimal and OffsetDateTime fields included, with the
+ * same mapper configuration Spring MVC uses. No application context needed.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SerializationBenchmark {
+    @Param({"100"})
+    public int listSize;
+
+    private ObjectWriter productWriter;
+    private ObjectWriter listWriter;
+    private Product product;
+    private List<Product> products;
+
+    @Setup
+    public void setUp() {
+        ObjectMapper mapper = Jackson2ObjectMapperBuilder.json().build();
+        productWriter = mapper.writerFor(Product.class);
+        listWriter = mapper.writerFor(mapper.getTypeFactory().constructCollectionType(List.class, Product.class));
+        product = product(1);
+        products = new ArrayList<>(listSize);
+        for (int i = 0; i < listSize; i++) products.add(product(i));
+    }
+
+    @Benchmark
+    public byte[] serializeProduct() throws Exception {
+        return productWriter.writeValueAsBytes(product);
+    }
+
+    @Benchmark
+    public byte[] serializeProductList() throws Exception {
+        return listWriter.writeValueAsBytes(products);
+    }
+
+    private static Product product(long id) {
+        Product p = new Product();
+        p.setId(id);
+        p.setName("Item " + id);
+        p.setDescription("Row " + id);
+        p.setPrice(new BigDecimal("1234.56"));
+        p.setCreatedAt(OffsetDateTime.now());
+        p.setUpdatedAt(p.getCreatedAt());
+        p.setVersion(3L);
+        return p;
+    }
+}
@@ -0,0 +1,84 @@
+package com.example.springapp.load;
+
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/** Throughput and latency percentiles per operation, as a table, a CSV summary and HDR distributions. */
+final class LoadReport {
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9};
+
+    private final OpenLoop loop;
+    private final Workload workload;
+    private final long seconds;
+
+    LoadReport(OpenLoop loop, Workload workload, long seconds) {
+        this.loop = loop;
+        this.workload = workload;
+        this.seconds = seconds;
+    }
+
+    void print(PrintStream out) {
+        out.printf("%-8s %9s %9s %9s %9s %9s %9s %9s %7s%n",
+                "op", "requests", "req/s", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms", "errors");
+        for (Row row : rows()) {
+            out.printf(Locale.ROOT, "%-8s %9d %9.1f %9.2f %9.2f %9.2f %9.2f %9.2f %7d%n",
+                    row.name, row.histogram.getTotalCount(), row.histogram.getTotalCount() / (double) seconds,
+                    millis(row.histogram, 50), millis(row.histogram, 90), millis(row.histogram, 99),
+                    millis(row.histogram, 99.9), row.histogram.getMaxValue() / 1e3, row.errors);
+        }
+    }
+
+    /** {@code load-result.csv} for diffing runs, and one {@code .hgrm} per operation for the HdrHistogram plotter. */
+    void write(Path dir) throws IOException {
+        Files.createDirectories(dir.resolve("hdr"));
+        StringBuilder csv = new StringBuilder("op,requests,rps,p50_ms,p90_ms,p99_ms,p999_ms,max_ms,errors\n");
+        for (Row row : rows()) {
+            csv.append(row.name).append(',').append(row.histogram.getTotalCount()).append(',')
+                    .append(String.format(Locale.ROOT, "%.1f", row.histogram.getTotalCount() / (double) seconds));
+            for (double p : PERCENTILES) csv.append(String.format(Locale.ROOT, ",%.3f", millis(row.histogram, p)));
+            csv.append(String.format(Locale.ROOT, ",%.3f", row.histogram.getMaxValue() / 1e3)).append(',').append(row.errors).append('\n');
+            try (PrintStream hgrm = new PrintStream(Files.newOutputStream(dir.resolve("hdr").resolve(row.name + ".hgrm")))) {
+                // recorded in microseconds; scale so the file reads in milliseconds
+                row.histogram.outputPercentileDistribution(hgrm, 1_000.0);
+            }
+        }
+        Files.writeString(dir.resolve("load-result.csv"), csv);
+    }
+
+    private List<Row> rows() {
+        List<Row> rows = new ArrayList<>();
+        Histogram all = new Histogram(3);
+        long allErrors = 0;
+        for (Operation op : workload.weights().keySet()) {
+            Histogram h = loop.latency(op);
+            rows.add(new Row(op.key(), h, loop.errors(op)));
+            all.add(h);
+            allErrors += loop.errors(op);
+        }
+        rows.add(new Row("all", all, allErrors));
+        return rows;
+    }
+
+    private static double millis(Histogram h, double percentile) {
+        return h.getValueAtPercentile(percentile) / 1e3;
+    }
+
+    private static final class Row {
+        final String name;
+        final Histogram histogram;
+        final long errors;
+
+        Row(String name, Histogram histogram, long errors) {
+            this.name = name;
+            this.histogram = histogram;
+            this.errors = errors;
+        }
+    }
+}
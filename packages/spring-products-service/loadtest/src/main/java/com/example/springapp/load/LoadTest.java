@@ -0,0 +1,94 @@
+package com.example.springapp.load;
+
+import com.example.springapp.DemoApplication;
+import com.example.springapp.service.NameSearchIndex;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+
+/**
+ * Starts the application on a random port over an in-memory H2 catalog of {@code rows} generated
+ * products, drives it with an open-model workload and prints throughput and latency percentiles per
+ * operation. Everything runs in this JVM, with no network access needed.
+ * <p>
+ * Arguments are {@code key=value}: {@code rate} (requests/s, default 500), {@code seconds} (measured,
+ * 60), {@code warmup} (seconds, 10), {@code rows} (10000), {@code mix} (default
+ * {@value Workload#DEFAULT_MIX}), {@code profile} (Spring profile, e.g. {@code virtual-threads}) and
+ * {@code out} (report directory). Arguments starting with {@code --} go to the application as
+ * properties, e.g. {@code --spring.datasource.hikari.maximum-pool-size=50}.
+ */
+public final class LoadTest {
+
+    private LoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>();
+        List<String> appArgs = new ArrayList<>();
+        for (String arg : args) {
+            if (arg.startsWith("--")) appArgs.add(arg);
+            else if (arg.contains("=")) options.put(arg.substring(0, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+            else throw new IllegalArgumentException("expected key=value or --property=value, got " + arg);
+        }
+        double rate = Double.parseDouble(options.getOrDefault("rate", "500"));
+        long seconds = Long.parseLong(options.getOrDefault("seconds", "60"));
+        long warmup = Long.parseLong(options.getOrDefault("warmup", "10"));
+        int rows = Integer.parseInt(options.getOrDefault("rows", "10000"));
+        String mix = options.getOrDefault("mix", Workload.DEFAULT_MIX);
+        String profile = options.getOrDefault("profile", "default");
+        Path out = Path.of(options.getOrDefault("out", "target"));
+
+        try (ConfigurableApplicationContext app = start(profile, appArgs)) {
+            int port = ((WebServerApplicationContext) app).getWebServer().getPort();
+            Workload workload = new Workload(mix, rows, (long) Math.ceil(rate * (warmup + seconds)),
+                    URI.create("http://localhost:" + port));
+            seed(app, workload);
+
+            HttpClient client = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .connectTimeout(Duration.ofSeconds(10))
+                    .executor(Executors.newVirtualThreadPerTaskExecutor())
+                    .build();
+            System.out.printf("rate=%s/s warmup=%ds seconds=%ds rows=%d mix=%s profile=%s%n", rate, warmup, seconds, rows, mix, profile);
+            OpenLoop loop = new OpenLoop(workload, client);
+            loop.run(rate, warmup, seconds);
+
+            LoadReport report = new LoadReport(loop, workload, seconds);
+            report.print(System.out);
+            report.write(out);
+        }
+    }
+
+    private static ConfigurableApplicationContext start(String profile, List<String> appArgs) {
+        return new SpringApplicationBuilder(DemoApplication.class)
+                .profiles(profile)
+                .properties("server.port=0",
+                        "spring.datasource.url=jdbc:h2:mem:load;DB_CLOSE_DELAY=-1",
+                        // the harness measures; per-request logging would only add noise and I/O
+                        "products.request-timing.statement-budget=0",
+                        "products.request-timing.slow-threshold=1h",
+                        "logging.level.root=WARN")
+                .run(appArgs.toArray(String[]::new));
+    }
+
+    /** Read rows first, then the reserve that deletes consume. */
+    private static void seed(ConfigurableApplicationContext app, Workload workload) {
+        app.getBean(JdbcTemplate.class).update(
+                "INSERT INTO products (id, name, description, price, created_at, updated_at, deleted, version) "
+                        + "SELECT X + ?, 'Item ' || X, 'Row ' || X, 9.99, CURRENT_TIMESTAMP(), CURRENT_TIMESTAMP(), FALSE, 0 "
+                        + "FROM SYSTEM_RANGE(0, ?)", Workload.FIRST_ID, workload.rows() + workload.deleteReserve() - 1);
+        // the index loaded before the seed rows existed
+        app.getBean(NameSearchIndex.class).load();
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.springapp.load;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Open-model load: request {@code i} is due at {@code start + i / rate} whether or not earlier ones
+ * have finished, and its latency is measured from that due time rather than from when it was
+ * actually sent. A stalled server therefore shows up as queueing delay in every request that should
+ * have been sent during the stall (no coordinated omission), not as a single slow sample.
+ */
+final class OpenLoop {
+    private final Workload workload;
+    private final HttpClient client;
+    private final Map<Operation, Histogram> latencies = new EnumMap<>(Operation.class);
+    private final Map<Operation, AtomicLong> errors = new EnumMap<>(Operation.class);
+
+    OpenLoop(Workload workload, HttpClient client) {
+        this.workload = workload;
+        this.client = client;
+        for (Operation op : Operation.values()) {
+            // microseconds, 3 significant digits, grows as needed
+            latencies.put(op, new ConcurrentHistogram(3));
+            errors.put(op, new AtomicLong());
+        }
+    }
+
+    /** Runs warm-up then measurement at {@code rate} requests per second; only the measurement is recorded. */
+    void run(double rate, long warmupSeconds, long seconds) throws InterruptedException {
+        long interval = Math.round(1_000_000_000L / rate);
+        long start = System.nanoTime();
+        long measureFrom = start + TimeUnit.SECONDS.toNanos(warmupSeconds);
+        long end = measureFrom + TimeUnit.SECONDS.toNanos(seconds);
+        try (ExecutorService senders = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (long i = 0; ; i++) {
+                long due = start + i * interval;
+                if (due >= end) break;
+                for (long wait; (wait = due - System.nanoTime()) > 0; ) LockSupport.parkNanos(wait);
+                Operation op = workload.next();
+                HttpRequest request = workload.request(op);
+                boolean measured = due >= measureFrom;
+                senders.execute(() -> send(op, request, due, measured));
+            }
+        }
+    }
+
+    private void send(Operation op, HttpRequest request, long due, boolean measured) {
+        boolean ok;
+        try {
+            int status = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+            ok = status >= 200 && status < 300;
+        } catch (IOException e) {
+            ok = false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        if (!measured) return;
+        latencies.get(op).recordValue(Math.max(1, (System.nanoTime() - due) / 1_000));
+        if (!ok) errors.get(op).incrementAndGet();
+    }
+
+    Histogram latency(Operation op) { return latencies.get(op); }
+    long errors(Operation op) { return errors.get(op).get(); }
+}
@@ -0,0 +1,16 @@
+package com.example.springapp.load;
+
+import java.util.Locale;
+
+/** The requests in a workload mix; names are the keys used in {@code mix=}. */
+enum Operation {
+    LIST, SEARCH, GET, CREATE, UPDATE, DELETE;
+
+    String key() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+
+    static Operation of(String key) {
+        return valueOf(key.trim().toUpperCase(Locale.ROOT));
+    }
+}
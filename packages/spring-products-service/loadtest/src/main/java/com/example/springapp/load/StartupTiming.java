@@ -0,0 +1,162 @@
+package com.example.springapp.load;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.ConnectException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Starts the packaged application as a separate JVM, {@code runs} times per variant, and measures
+ * the time from launch to the first successful {@code GET /api/products}, and the process RSS at
+ * that point (from /proc, so Linux only). Prints the median and best of each variant, and the
+ * slowest startup steps of the first run from {@code /actuator/startup}, which only that run enables
+ * ({@code products.startup.record-steps}). AOT settles the endpoint at build time, so the
+ * {@code aot} variants have no steps to print.
+ * <p>
+ * Variants, all run in {@code target} (the app's build directory, after {@code mvn -Pcds package}):
+ * {@code jar} is the exec jar as the plain Dockerfile runs it; {@code aot} the plain jar with
+ * {@code spring.aot.enabled}; {@code aot-cds} that plus the training run's CDS archive.
+ * Arguments are {@code key=value}: {@code runs} (default 5), {@code variants} (comma-separated,
+ * default all), {@code port} (18080), {@code target} ({@code ../target}) and {@code out}; arguments
+ * starting with {@code --} are passed to the application.
+ */
+public final class StartupTiming {
+    private static final Map<String, List<String>> VARIANTS = new LinkedHashMap<>();
+
+    static {
+        VARIANTS.put("jar", List.of("-jar", "spring-app-0.0.1-SNAPSHOT-exec.jar"));
+        VARIANTS.put("aot", List.of("-Dspring.aot.enabled=true", "-jar", "spring-app-0.0.1-SNAPSHOT.jar"));
+        VARIANTS.put("aot-cds", List.of("-XX:SharedArchiveFile=application.jsa", "-Dspring.aot.enabled=true",
+                "-jar", "spring-app-0.0.1-SNAPSHOT.jar"));
+    }
+
+    private static final Duration START_TIMEOUT = Duration.ofMinutes(2);
+    private static final int SLOWEST_STEPS = 10;
+
+    private StartupTiming() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>();
+        List<String> appArgs = new ArrayList<>();
+        for (String arg : args) {
+            if (arg.startsWith("--")) appArgs.add(arg);
+            else if (arg.contains("=")) options.put(arg.substring(0, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+            else throw new IllegalArgumentException("expected key=value or --property=value, got " + arg);
+        }
+        int runs = Integer.parseInt(options.getOrDefault("runs", "5"));
+        int port = Integer.parseInt(options.getOrDefault("port", "18080"));
+        Path target = Path.of(options.getOrDefault("target", "../target")).toAbsolutePath();
+        Path out = Path.of(options.getOrDefault("out", "target"));
+        List<String> variants = Arrays.asList(options.getOrDefault("variants", String.join(",", VARIANTS.keySet())).split(","));
+
+        HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(1)).build();
+        StringBuilder csv = new StringBuilder("variant,run,first_request_ms,rss_mb\n");
+        Map<String, List<long[]>> results = new LinkedHashMap<>();
+        for (String variant : variants) {
+            List<String> jvm = VARIANTS.get(variant);
+            if (jvm == null) throw new IllegalArgumentException("unknown variant " + variant + ", expected one of " + VARIANTS.keySet());
+            List<long[]> samples = new ArrayList<>();
+            for (int run = 0; run < runs; run++) {
+                List<String> command = new ArrayList<>();
+                command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+                command.addAll(jvm);
+                command.add("--server.port=" + port);
+                // the first run records its steps, to print the slowest; the others start as in production
+                if (run == 0) command.add("--products.startup.record-steps=true");
+                command.addAll(appArgs);
+                long[] sample = measure(command, target, client, port, run == 0 ? variant : null);
+                samples.add(sample);
+                csv.append(variant).append(',').append(run).append(',').append(sample[0]).append(',').append(sample[1]).append('\n');
+            }
+            results.put(variant, samples);
+        }
+        print(results, System.out);
+        Files.createDirectories(out);
+        Files.writeString(out.resolve("startup-result.csv"), csv);
+    }
+
+    /** {first request ms, RSS MB}; prints the slowest startup steps when {@code stepsOf} is set. */
+    private static long[] measure(List<String> command, Path dir, HttpClient client, int port, String stepsOf) throws Exception {
+        URI products = URI.create("http://localhost:" + port + "/api/products");
+        long started = System.nanoTime();
+        Process app = new ProcessBuilder(command).directory(dir.toFile())
+                .redirectErrorStream(true)
+                .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                .start();
+        try {
+            while (true) {
+                if (!app.isAlive()) throw new IllegalStateException(String.join(" ", command) + " exited with " + app.exitValue());
+                if (System.nanoTime() - started > START_TIMEOUT.toNanos()) throw new IllegalStateException("no response within " + START_TIMEOUT);
+                try {
+                    HttpResponse<Void> response = client.send(HttpRequest.newBuilder(products).build(), HttpResponse.BodyHandlers.discarding());
+                    if (response.statusCode() == 200) break;
+                } catch (ConnectException e) {
+                    // not listening yet
+                }
+                Thread.sleep(5);
+            }
+            long firstRequestMs = (System.nanoTime() - started) / 1_000_000;
+            long rssMb = rssKb(app.pid()) / 1024;
+            if (stepsOf != null) printSlowestSteps(stepsOf, client, port);
+            return new long[] {firstRequestMs, rssMb};
+        } finally {
+            app.destroy();
+            if (!app.waitFor(30, TimeUnit.SECONDS)) app.destroyForcibly().waitFor();
+        }
+    }
+
+    private static long rssKb(long pid) throws IOException {
+        for (String line : Files.readAllLines(Path.of("/proc", Long.toString(pid), "status"))) {
+            if (line.startsWith("VmRSS:")) return Long.parseLong(line.replaceAll("\\D", ""));
+        }
+        return -1;
+    }
+
+    private static void printSlowestSteps(String variant, HttpClient client, int port) throws Exception {
+        HttpResponse<String> response = client.send(
+                HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/actuator/startup")).build(),
+                HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200) return;
+        List<JsonNode> events = new ArrayList<>();
+        new ObjectMapper().readTree(response.body()).path("timeline").path("events").forEach(events::add);
+        events.sort(Comparator.comparing((JsonNode e) -> Duration.parse(e.path("duration").asText())).reversed());
+        System.out.printf("%s: slowest of %d startup steps%n", variant, events.size());
+        for (JsonNode e : events.subList(0, Math.min(SLOWEST_STEPS, events.size()))) {
+            StringBuilder tags = new StringBuilder();
+            for (JsonNode tag : e.path("startupStep").path("tags")) {
+                tags.append(' ').append(tag.path("key").asText()).append('=').append(tag.path("value").asText());
+            }
+            System.out.printf(Locale.ROOT, "  %8.1f ms  %s%s%n",
+                    Duration.parse(e.path("duration").asText()).toNanos() / 1e6, e.path("startupStep").path("name").asText(), tags);
+        }
+    }
+
+    private static void print(Map<String, List<long[]>> results, PrintStream out) {
+        out.printf("%-8s %5s %16s %16s %12s %12s%n", "variant", "runs", "median first ms", "best first ms", "median RSS MB", "best RSS MB");
+        for (Map.Entry<String, List<long[]>> e : results.entrySet()) {
+            long[] first = e.getValue().stream().mapToLong(s -> s[0]).sorted().toArray();
+            long[] rss = e.getValue().stream().mapToLong(s -> s[1]).sorted().toArray();
+            out.printf("%-8s %5d %16d %16d %12d %12d%n", e.getKey(), first.length,
+                    first[first.length / 2], first[0], rss[rss.length / 2], rss[0]);
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.example.springapp.load;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A weighted mix of operations over a seeded catalog. Reads and updates pick random ids among the
+ * {@code rows} read rows; deletes walk a separate reserve so they never turn reads into 404s.
+ */
+final class Workload {
+    static final String DEFAULT_MIX = "list:10,search:10,get:50,create:10,update:15,delete:5";
+    static final long FIRST_ID = 10_000_001L;
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(30);
+
+    private final Map<Operation, Integer> weights;
+    private final Operation[] byTicket;
+    private final int rows;
+    private final long deleteReserve;
+    private final AtomicLong nextDelete;
+    private final URI base;
+
+    Workload(String mix, int rows, long expectedRequests, URI base) {
+        this.weights = parse(mix);
+        int total = weights.values().stream().mapToInt(Integer::intValue).sum();
+        if (total == 0) throw new IllegalArgumentException("mix has no weight: " + mix);
+        this.byTicket = new Operation[total];
+        int i = 0;
+        for (Map.Entry<Operation, Integer> e : weights.entrySet()) {
+            for (int w = 0; w < e.getValue(); w++) byTicket[i++] = e.getKey();
+        }
+        this.rows = rows;
+        // enough rows for every delete the run can issue, plus headroom
+        this.deleteReserve = expectedRequests * weights.getOrDefault(Operation.DELETE, 0) / total + 1_000;
+        this.nextDelete = new AtomicLong(FIRST_ID + rows);
+        this.base = base;
+    }
+
+    private static Map<Operation, Integer> parse(String mix) {
+        Map<Operation, Integer> weights = new EnumMap<>(Operation.class);
+        for (String part : mix.split(",")) {
+            String[] kv = part.split(":");
+            if (kv.length != 2) throw new IllegalArgumentException("mix entries are op:weight, got " + part);
+            weights.put(Operation.of(kv[0]), Integer.parseInt(kv[1].trim()));
+        }
+        return weights;
+    }
+
+    Map<Operation, Integer> weights() { return weights; }
+    int rows() { return rows; }
+    long deleteReserve() { return deleteReserve; }
+
+    Operation next() {
+        return byTicket[ThreadLocalRandom.current().nextInt(byTicket.length)];
+    }
+
+    HttpRequest request(Operation op) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return switch (op) {
+            case LIST -> get("/api/products?limit=50");
+            case SEARCH -> get("/api/products?limit=50&q=Item%20" + (1 + random.nextInt(999)));
+            case GET -> get("/api/products/" + randomId());
+            case CREATE -> HttpRequest.newBuilder(base.resolve("/api/products")).timeout(TIMEOUT)
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(body("Created " + random.nextInt()))).build();
+            case UPDATE -> HttpRequest.newBuilder(base.resolve("/api/products/" + randomId())).timeout(TIMEOUT)
+                    .header("Content-Type", "application/json")
+                    .PUT(HttpRequest.BodyPublishers.ofString(body("Updated " + random.nextInt()))).build();
+            case DELETE -> HttpRequest.newBuilder(base.resolve("/api/products/" + nextDelete.getAndIncrement()))
+                    .timeout(TIMEOUT).DELETE().build();
+        };
+    }
+
+    private HttpRequest get(String path) {
+        return HttpRequest.newBuilder(base.resolve(path)).timeout(TIMEOUT).GET().build();
+    }
+
+    private long randomId() {
+        return FIRST_ID + ThreadLocalRandom.current().nextInt(rows);
+    }
+
+    private static String body(String name) {
+        return "{\"name\":\"" + name + "\",\"description\":\"load test\",\"price\":12.50}";
+    }
+}
@@ -2,10 +2,26 @@ package com.example.springapp;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
+import org.springframework.core.env.SimpleCommandLinePropertySource;
+import org.springframework.core.env.StandardEnvironment;
 
 @SpringBootApplication
 public class DemoApplication {
+    // enough for every step of a full start (bean instantiations, JPA bootstrap, runners)
+    private static final int STARTUP_STEPS = 10_000;
+    private static final String RECORD_STARTUP = "products.startup.record-steps";
+
     public static void main(String[] args) {
-        SpringApplication.run(DemoApplication.class, args);
+        SpringApplication app = new SpringApplication(DemoApplication.class);
+        // Recorded startup steps are served by /actuator/startup, slowest beans and phases included.
+        // Off by default: the buffer holds every step for the life of the process. Read before
+        // application.yml is, so it comes from the command line, a system property or the environment.
+        StandardEnvironment env = new StandardEnvironment();
+        env.getPropertySources().addFirst(new SimpleCommandLinePropertySource(args));
+        if (env.getProperty(RECORD_STARTUP, Boolean.class, false)) {
+            app.setApplicationStartup(new BufferingApplicationStartup(STARTUP_STEPS));
+        }
+        app.run(args);
     }
 }
@@ -0,0 +1,20 @@
+package com.example.springapp.config;
+
+import org.springframework.boot.autoconfigure.cache.CacheManagerCustomizer;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableCaching
+public class CacheConfig {
+    public static final String PRODUCTS = "products";
+
+    // Backs each cache with an AsyncCache: a miss parks a future in the map and runs the loader
+    // outside the map's bin lock, so a virtual thread loading from JDBC doesn't pin its carrier.
+    @Bean
+    public CacheManagerCustomizer<CaffeineCacheManager> asyncCaffeineCaches() {
+        return cacheManager -> cacheManager.setAsyncCacheMode(true);
+    }
+}
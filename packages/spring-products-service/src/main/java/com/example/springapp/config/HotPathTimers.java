@@ -0,0 +1,100 @@
+package com.example.springapp.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.support.StaticMethodMatcherPointcut;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.web.bind.annotation.RequestMapping;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Times controller, service and repository methods. Every timer is registered up front, one per
+ * method, so a timed call costs two {@code nanoTime} reads and a map lookup: no tags or samples
+ * are built per request. Controller and service time is also added to the current request's
+ * {@link RequestTimings}, when there is one.
+ * <p>
+ * The methods are picked when the advisor is built, which is before the {@link MeterRegistry} may
+ * be created: the timers are only registered by {@link #bind}, once the application is ready. A
+ * registry created earlier, for the advisor, would miss Boot's meter filters and binders.
+ */
+final class HotPathTimers extends StaticMethodMatcherPointcut implements MethodInterceptor {
+    // written only while the advisor is being built, read-only afterwards
+    private final Map<Method, Probe> probes = new HashMap<>();
+
+    /** Handler methods of a controller, as {@code products.controller{class,method}}. */
+    HotPathTimers controller(Class<?> type) {
+        for (Method m : type.getDeclaredMethods()) {
+            if (AnnotatedElementUtils.hasAnnotation(m, RequestMapping.class)) register(m, "products.controller", type, RequestTimings.CONTROLLER);
+        }
+        return this;
+    }
+
+    /** Public methods declared by a service class, as {@code products.service{class,method}}. */
+    HotPathTimers service(Class<?> type) {
+        for (Method m : type.getDeclaredMethods()) {
+            if (Modifier.isPublic(m.getModifiers()) && !m.isSynthetic()) register(m, "products.service", type, RequestTimings.SERVICE);
+        }
+        return this;
+    }
+
+    /** Every method of a repository interface, inherited ones included, as {@code products.repository{class,method}}. */
+    HotPathTimers repository(Class<?> type) {
+        for (Method m : type.getMethods()) {
+            if (!m.isDefault() && !Modifier.isStatic(m.getModifiers())) register(m, "products.repository", type, -1);
+        }
+        return this;
+    }
+
+    private void register(Method m, String name, Class<?> owner, int phase) {
+        probes.put(m, new Probe(Timer.builder(name)
+                .tag("class", owner.getSimpleName())
+                .tag("method", m.getName())
+                .publishPercentileHistogram(), phase));
+    }
+
+    /** Registers every timer with {@code registry}; calls made before this are not recorded. */
+    void bind(MeterRegistry registry) {
+        for (Probe probe : probes.values()) probe.timer = probe.builder.register(registry);
+    }
+
+    @Override
+    public boolean matches(Method method, Class<?> targetClass) {
+        return probes.containsKey(method);
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        Probe probe = probes.get(invocation.getMethod());
+        if (probe == null) return invocation.proceed();
+        RequestTimings request = probe.phase < 0 ? null : RequestTimings.current();
+        if (request != null) request.enter(probe.phase);
+        long start = System.nanoTime();
+        try {
+            return invocation.proceed();
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            Timer timer = probe.timer;
+            if (timer != null) timer.record(elapsed, TimeUnit.NANOSECONDS);
+            if (request != null) request.exit(probe.phase, elapsed);
+        }
+    }
+
+    private static final class Probe {
+        final Timer.Builder builder;
+        // RequestTimings phase, or -1 when the time only goes to the timer
+        final int phase;
+        volatile Timer timer;
+
+        Probe(Timer.Builder builder, int phase) {
+            this.builder = builder;
+            this.phase = phase;
+        }
+    }
+}
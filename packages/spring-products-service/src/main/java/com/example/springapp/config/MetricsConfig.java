@@ -0,0 +1,57 @@
+package com.example.springapp.config;
+
+import com.example.springapp.controller.ProductBatchController;
+import com.example.springapp.controller.ProductController;
+import com.example.springapp.controller.ProductExportController;
+import com.example.springapp.controller.ProductFeedController;
+import com.example.springapp.controller.ProductSyncController;
+import com.example.springapp.repository.ProductRepository;
+import com.example.springapp.service.CatalogSnapshots;
+import com.example.springapp.service.ProductBatchService;
+import com.example.springapp.service.ProductService;
+import com.example.springapp.service.ProductSyncService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.aop.Advisor;
+import org.springframework.aop.support.DefaultPointcutAdvisor;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Role;
+
+@Configuration
+public class MetricsConfig {
+
+    // Servlet stack only: timing a method that returns a Mono or Flux would measure assembly, not the work.
+    // Hikari pool and cache gauges come from Boot's own binders (hikaricp.*, cache.*).
+    // Static and registry-free: the advisor is built while BeanPostProcessors are still being set up.
+    @Bean
+    @Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+    static HotPathTimers hotPathTimers() {
+        return new HotPathTimers()
+                .controller(ProductController.class)
+                .controller(ProductBatchController.class)
+                .controller(ProductExportController.class)
+                .controller(ProductFeedController.class)
+                .controller(ProductSyncController.class)
+                .service(ProductService.class)
+                .service(CatalogSnapshots.class)
+                .service(ProductBatchService.class)
+                .service(ProductSyncService.class)
+                .repository(ProductRepository.class);
+    }
+
+    @Bean
+    @Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+    static Advisor hotPathTimingAdvisor(HotPathTimers timers) {
+        return new DefaultPointcutAdvisor(timers, timers);
+    }
+
+    // Bound once the application is ready, after the startup runners: the calls ProductWarmup makes
+    // are the application's own, and would otherwise show as the first, slowest requests.
+    @Bean
+    ApplicationListener<ApplicationReadyEvent> hotPathTimerBinding(HotPathTimers timers, MeterRegistry registry) {
+        return event -> timers.bind(registry);
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.springapp.config;
+
+import com.example.springapp.store.DurableProductStore;
+import com.example.springapp.store.ProductStore;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * The {@link ProductStore} behind {@code OffHeapProductRepository}: in memory only, or with
+ * {@code products.offheap.storage=log} recovered from and logged to {@code products.offheap.log.dir}.
+ */
+@Profile("offheap")
+@Configuration
+public class OffHeapStoreConfig {
+
+    // Recovery runs here, so the context (and readiness) waits for the catalog to be back.
+    // Closed with the context, which checkpoints: a clean restart has no log to replay.
+    @Bean
+    @ConditionalOnProperty(name = "products.offheap.storage", havingValue = "log")
+    public DurableProductStore durableProductStore(
+            @Value("${products.offheap.initial-capacity:1024}") int initialCapacity,
+            @Value("${products.offheap.log.dir:data/products}") Path dir,
+            @Value("${products.offheap.log.fsync-interval:0ms}") Duration fsyncInterval,
+            @Value("${products.offheap.log.checkpoint-size:64MB}") DataSize checkpointSize) throws IOException {
+        return new DurableProductStore(dir, initialCapacity, fsyncInterval, checkpointSize.toBytes());
+    }
+
+    @Bean
+    public ProductStore productStore(ObjectProvider<DurableProductStore> durable,
+                                     @Value("${products.offheap.initial-capacity:1024}") int initialCapacity) {
+        DurableProductStore d = durable.getIfAvailable();
+        return d != null ? d.store() : new ProductStore(initialCapacity);
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.springapp.config;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.ContentNegotiationConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+/**
+ * Binary alternatives to JSON, chosen by {@code Accept} / {@code Content-Type}: CBOR
+ * ({@code application/cbor}), Smile ({@code application/x-jackson-smile}) and Protobuf
+ * ({@code application/x-protobuf}, see {@code proto/products.proto}). They are appended after the
+ * JSON converter so JSON stays the default for {@code Accept: *}{@code /*} or no Accept at all.
+ */
+@Profile("!reactive")
+@Configuration
+public class PayloadFormatsConfig implements WebMvcConfigurer {
+    private final Jackson2ObjectMapperBuilder builder;
+
+    public PayloadFormatsConfig(Jackson2ObjectMapperBuilder builder) {
+        this.builder = builder;
+    }
+
+    // Without a default, no Accept and */* match every produces condition equally, and a handler
+    // mapped for the binary formats could win over the JSON one.
+    @Override
+    public void configureContentNegotiation(ContentNegotiationConfigurer configurer) {
+        configurer.defaultContentType(MediaType.APPLICATION_JSON);
+    }
+
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        // Spring adds CBOR and Smile by itself once they're on the classpath, with an unconfigured mapper
+        converters.removeIf(c -> c instanceof MappingJackson2CborHttpMessageConverter || c instanceof MappingJackson2SmileHttpMessageConverter);
+        converters.add(new MappingJackson2CborHttpMessageConverter(binaryMapper(new CBORFactory())));
+        converters.add(new MappingJackson2SmileHttpMessageConverter(binaryMapper(new SmileFactory())));
+        converters.add(new ProductProtobufConverter());
+    }
+
+    // Same modules and features as the JSON mapper, except that dates go out as numeric
+    // timestamps: the binary formats encode those natively instead of as ISO-8601 text.
+    private ObjectMapper binaryMapper(JsonFactory factory) {
+        return builder.build().copyWith(factory).enable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    }
+}
@@ -0,0 +1,195 @@
+package com.example.springapp.config;
+
+import com.example.springapp.dto.ProductDto;
+import com.example.springapp.model.Product;
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.CodedOutputStream;
+import com.google.protobuf.WireFormat;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Hand-written codec for the messages in {@code proto/products.proto}. Prices travel as an
+ * unscaled integer and a scale and timestamps as seconds and nanos, so neither is formatted or
+ * parsed as text. Unset (null) fields are omitted, as proto3 does with defaults.
+ */
+public final class ProductProtobuf {
+    private ProductProtobuf() {}
+
+    public static void writeProduct(Product p, CodedOutputStream out) throws IOException {
+        if (p.getId() != null) out.writeInt64(1, p.getId());
+        if (p.getName() != null) out.writeString(2, p.getName());
+        if (p.getDescription() != null) out.writeString(3, p.getDescription());
+        if (p.getPrice() != null) {
+            out.writeTag(4, WireFormat.WIRETYPE_LENGTH_DELIMITED);
+            out.writeUInt32NoTag(decimalSize(p.getPrice()));
+            writeDecimal(p.getPrice(), out);
+        }
+        writeTimestamp(5, p.getCreatedAt(), out);
+        writeTimestamp(6, p.getUpdatedAt(), out);
+        if (p.getVersion() != null) out.writeInt64(7, p.getVersion());
+    }
+
+    /** As a {@code ProductList}. */
+    public static void writeProducts(List<Product> products, CodedOutputStream out) throws IOException {
+        for (Product p : products) {
+            out.writeTag(1, WireFormat.WIRETYPE_LENGTH_DELIMITED);
+            out.writeUInt32NoTag(productSize(p));
+            writeProduct(p, out);
+        }
+    }
+
+    public static Product readProduct(CodedInputStream in) throws IOException {
+        Product p = new Product();
+        for (int tag; (tag = in.readTag()) != 0; ) {
+            switch (WireFormat.getTagFieldNumber(tag)) {
+                case 1 -> p.setId(in.readInt64());
+                case 2 -> p.setName(in.readStringRequireUtf8());
+                case 3 -> p.setDescription(in.readStringRequireUtf8());
+                case 4 -> p.setPrice(readNested(in, ProductProtobuf::readDecimal));
+                case 5 -> p.setCreatedAt(readNested(in, ProductProtobuf::readTimestamp));
+                case 6 -> p.setUpdatedAt(readNested(in, ProductProtobuf::readTimestamp));
+                case 7 -> p.setVersion(in.readInt64());
+                default -> in.skipField(tag);
+            }
+        }
+        return p;
+    }
+
+    /** From a {@code ProductList}. */
+    public static List<Product> readProducts(CodedInputStream in) throws IOException {
+        List<Product> products = new ArrayList<>();
+        for (int tag; (tag = in.readTag()) != 0; ) {
+            if (WireFormat.getTagFieldNumber(tag) == 1) products.add(readNested(in, ProductProtobuf::readProduct));
+            else in.skipField(tag);
+        }
+        return products;
+    }
+
+    /** As a {@code ProductInput}. */
+    public static void writeDto(ProductDto dto, CodedOutputStream out) throws IOException {
+        if (dto.getId() != null) out.writeInt64(1, dto.getId());
+        if (dto.getName() != null) out.writeString(2, dto.getName());
+        if (dto.getDescription() != null) out.writeString(3, dto.getDescription());
+        if (dto.getPrice() != null) {
+            out.writeTag(4, WireFormat.WIRETYPE_LENGTH_DELIMITED);
+            out.writeUInt32NoTag(decimalSize(dto.getPrice()));
+            writeDecimal(dto.getPrice(), out);
+        }
+        if (dto.getVersion() != null) out.writeInt64(5, dto.getVersion());
+    }
+
+    /** From a {@code ProductInput}. */
+    public static ProductDto readDto(CodedInputStream in) throws IOException {
+        ProductDto dto = new ProductDto();
+        for (int tag; (tag = in.readTag()) != 0; ) {
+            switch (WireFormat.getTagFieldNumber(tag)) {
+                case 1 -> dto.setId(in.readInt64());
+                case 2 -> dto.setName(in.readStringRequireUtf8());
+                case 3 -> dto.setDescription(in.readStringRequireUtf8());
+                case 4 -> dto.setPrice(readNested(in, ProductProtobuf::readDecimal));
+                case 5 -> dto.setVersion(in.readInt64());
+                default -> in.skipField(tag);
+            }
+        }
+        return dto;
+    }
+
+    static int productSize(Product p) {
+        int size = 0;
+        if (p.getId() != null) size += CodedOutputStream.computeInt64Size(1, p.getId());
+        if (p.getName() != null) size += CodedOutputStream.computeStringSize(2, p.getName());
+        if (p.getDescription() != null) size += CodedOutputStream.computeStringSize(3, p.getDescription());
+        if (p.getPrice() != null) size += nestedSize(4, decimalSize(p.getPrice()));
+        if (p.getCreatedAt() != null) size += nestedSize(5, timestampSize(p.getCreatedAt()));
+        if (p.getUpdatedAt() != null) size += nestedSize(6, timestampSize(p.getUpdatedAt()));
+        if (p.getVersion() != null) size += CodedOutputStream.computeInt64Size(7, p.getVersion());
+        return size;
+    }
+
+    private static int nestedSize(int field, int size) {
+        return CodedOutputStream.computeTagSize(field) + CodedOutputStream.computeUInt32SizeNoTag(size) + size;
+    }
+
+    private static boolean fitsLong(BigDecimal d) {
+        return d.unscaledValue().bitLength() < 64;
+    }
+
+    private static int decimalSize(BigDecimal d) {
+        int size = d.scale() == 0 ? 0 : CodedOutputStream.computeInt32Size(2, d.scale());
+        return size + (fitsLong(d)
+                ? CodedOutputStream.computeSInt64Size(1, d.unscaledValue().longValue())
+                : CodedOutputStream.computeByteArraySize(3, d.unscaledValue().toByteArray()));
+    }
+
+    private static void writeDecimal(BigDecimal d, CodedOutputStream out) throws IOException {
+        if (fitsLong(d)) out.writeSInt64(1, d.unscaledValue().longValue());
+        else out.writeByteArray(3, d.unscaledValue().toByteArray());
+        if (d.scale() != 0) out.writeInt32(2, d.scale());
+    }
+
+    private static BigDecimal readDecimal(CodedInputStream in) throws IOException {
+        BigInteger unscaled = BigInteger.ZERO;
+        int scale = 0;
+        for (int tag; (tag = in.readTag()) != 0; ) {
+            switch (WireFormat.getTagFieldNumber(tag)) {
+                case 1 -> unscaled = BigInteger.valueOf(in.readSInt64());
+                case 2 -> scale = in.readInt32();
+                case 3 -> unscaled = new BigInteger(in.readBytes().toByteArray());
+                default -> in.skipField(tag);
+            }
+        }
+        return new BigDecimal(unscaled, scale);
+    }
+
+    private static int timestampSize(OffsetDateTime t) {
+        int size = CodedOutputStream.computeInt64Size(1, t.toEpochSecond());
+        if (t.getNano() != 0) size += CodedOutputStream.computeInt32Size(2, t.getNano());
+        if (t.getOffset().getTotalSeconds() != 0) size += CodedOutputStream.computeInt32Size(3, t.getOffset().getTotalSeconds());
+        return size;
+    }
+
+    private static void writeTimestamp(int field, OffsetDateTime t, CodedOutputStream out) throws IOException {
+        if (t == null) return;
+        out.writeTag(field, WireFormat.WIRETYPE_LENGTH_DELIMITED);
+        out.writeUInt32NoTag(timestampSize(t));
+        out.writeInt64(1, t.toEpochSecond());
+        if (t.getNano() != 0) out.writeInt32(2, t.getNano());
+        if (t.getOffset().getTotalSeconds() != 0) out.writeInt32(3, t.getOffset().getTotalSeconds());
+    }
+
+    private static OffsetDateTime readTimestamp(CodedInputStream in) throws IOException {
+        long seconds = 0;
+        int nanos = 0;
+        int offset = 0;
+        for (int tag; (tag = in.readTag()) != 0; ) {
+            switch (WireFormat.getTagFieldNumber(tag)) {
+                case 1 -> seconds = in.readInt64();
+                case 2 -> nanos = in.readInt32();
+                case 3 -> offset = in.readInt32();
+                default -> in.skipField(tag);
+            }
+        }
+        return OffsetDateTime.ofInstant(Instant.ofEpochSecond(seconds, nanos), ZoneOffset.ofTotalSeconds(offset));
+    }
+
+    private static <T> T readNested(CodedInputStream in, Reader<T> reader) throws IOException {
+        int limit = in.pushLimit(in.readRawVarint32());
+        T value = reader.read(in);
+        in.checkLastTagWas(0);
+        in.popLimit(limit);
+        return value;
+    }
+
+    @FunctionalInterface
+    private interface Reader<T> {
+        T read(CodedInputStream in) throws IOException;
+    }
+}
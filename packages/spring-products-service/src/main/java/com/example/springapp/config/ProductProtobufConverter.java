@@ -0,0 +1,79 @@
+package com.example.springapp.config;
+
+import com.example.springapp.dto.ProductDto;
+import com.example.springapp.model.Product;
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.CodedOutputStream;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractGenericHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.lang.Nullable;
+
+import java.io.IOException;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.List;
+
+/**
+ * {@code application/x-protobuf} for a product, a plain product list and {@code ProductDto}
+ * request bodies, using {@link ProductProtobuf}. Other payloads (pages, lookups, error bodies)
+ * have no message in the schema and are not writable in this format.
+ */
+public class ProductProtobufConverter extends AbstractGenericHttpMessageConverter<Object> {
+    public static final String PROTOBUF_VALUE = "application/x-protobuf";
+    public static final MediaType PROTOBUF = MediaType.parseMediaType(PROTOBUF_VALUE);
+
+    public ProductProtobufConverter() {
+        super(PROTOBUF);
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return clazz == Product.class || clazz == ProductDto.class || List.class.isAssignableFrom(clazz);
+    }
+
+    @Override
+    public boolean canRead(Type type, @Nullable Class<?> contextClass, @Nullable MediaType mediaType) {
+        return (type == ProductDto.class || type == Product.class || isProductList(type)) && canRead(mediaType);
+    }
+
+    @Override
+    public boolean canWrite(@Nullable Type type, Class<?> clazz, @Nullable MediaType mediaType) {
+        boolean writable = List.class.isAssignableFrom(clazz) ? isProductList(type) : clazz == Product.class || clazz == ProductDto.class;
+        return writable && canWrite(mediaType);
+    }
+
+    private static boolean isProductList(@Nullable Type type) {
+        return type instanceof ParameterizedType pt && pt.getRawType() instanceof Class<?> raw && List.class.isAssignableFrom(raw)
+                && pt.getActualTypeArguments()[0] == Product.class;
+    }
+
+    @Override
+    public Object read(Type type, @Nullable Class<?> contextClass, HttpInputMessage inputMessage) throws IOException {
+        CodedInputStream in = CodedInputStream.newInstance(inputMessage.getBody());
+        try {
+            if (type == ProductDto.class) return ProductProtobuf.readDto(in);
+            if (type == Product.class) return ProductProtobuf.readProduct(in);
+            return ProductProtobuf.readProducts(in);
+        } catch (IOException e) {
+            throw new HttpMessageNotReadableException("Malformed protobuf body: " + e.getMessage(), e, inputMessage);
+        }
+    }
+
+    @Override
+    protected Object readInternal(Class<?> clazz, HttpInputMessage inputMessage) throws IOException {
+        return read(clazz, null, inputMessage);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    protected void writeInternal(Object value, @Nullable Type type, HttpOutputMessage outputMessage) throws IOException {
+        CodedOutputStream out = CodedOutputStream.newInstance(outputMessage.getBody());
+        if (value instanceof Product p) ProductProtobuf.writeProduct(p, out);
+        else if (value instanceof ProductDto dto) ProductProtobuf.writeDto(dto, out);
+        else ProductProtobuf.writeProducts((List<Product>) value, out);
+        out.flush();
+    }
+}
@@ -0,0 +1,28 @@
+package com.example.springapp.config;
+
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.r2dbc.core.DatabaseClient;
+
+@Configuration
+@Profile("reactive")
+public class ReactiveConfig {
+
+    // The ConnectionFactory is deliberately not a bean of its own: Boot would then run data.sql
+    // through R2DBC instead of the JPA DataSource, which still owns the schema and seed data.
+    // It logs in as the DataSource does; the URL carries no credentials.
+    @Bean
+    public DatabaseClient databaseClient(@Value("${products.reactive.r2dbc-url}") String url,
+                                         @Value("${spring.datasource.username:sa}") String username,
+                                         @Value("${spring.datasource.password:}") String password) {
+        ConnectionFactoryOptions options = ConnectionFactoryOptions.parse(url).mutate()
+                .option(ConnectionFactoryOptions.USER, username)
+                .option(ConnectionFactoryOptions.PASSWORD, password)
+                .build();
+        return DatabaseClient.create(ConnectionFactories.get(options));
+    }
+}
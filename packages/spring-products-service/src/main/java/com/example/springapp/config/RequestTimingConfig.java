@@ -0,0 +1,51 @@
+package com.example.springapp.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.Ordered;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/** Per-request Server-Timing breakdown and SQL statement budget; see {@link RequestTimings}. */
+@Profile("!reactive")
+@Configuration
+public class RequestTimingConfig {
+
+    @Bean
+    public FilterRegistrationBean<RequestTimingFilter> requestTimingFilter(
+            @Value("${products.request-timing.statement-budget:20}") int statementBudget,
+            @Value("${products.request-timing.slow-threshold:500ms}") Duration slowThreshold,
+            @Value("${products.request-timing.expose-header:false}") boolean exposeHeader,
+            @Value("${products.request-timing.sql.enabled:false}") boolean traceSql) {
+        FilterRegistrationBean<RequestTimingFilter> registration =
+                new FilterRegistrationBean<>(new RequestTimingFilter(statementBudget, slowThreshold, exposeHeader, traceSql));
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registration;
+    }
+
+    @Bean
+    public MappingJackson2HttpMessageConverter mappingJackson2HttpMessageConverter(ObjectMapper objectMapper) {
+        return new TimedJsonConverter(objectMapper);
+    }
+
+    // Off by default: the tracing proxies every connection, statement and result set, so each JDBC
+    // call of every request (each next() and column read included) goes through reflection. A flag
+    // rather than a bean condition, so an AOT-processed build (the pom's cds profile) still decides.
+    @Bean
+    public static BeanPostProcessor sqlTracingDataSource(@Value("${products.request-timing.sql.enabled:false}") boolean enabled) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                return enabled && bean instanceof DataSource dataSource && !(bean instanceof SqlTracingDataSource)
+                        ? new SqlTracingDataSource(dataSource) : bean;
+            }
+        };
+    }
+}
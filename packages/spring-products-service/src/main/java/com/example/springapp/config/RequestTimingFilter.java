@@ -0,0 +1,55 @@
+package com.example.springapp.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+
+/**
+ * Opens a {@link RequestTimings} for each request and reports it: in the log with the captured
+ * SQL when the request is slow or ran more statements than the budget allows, and, when
+ * {@code products.request-timing.expose-header} is set, as a {@code Server-Timing} header (for
+ * responses with a body, {@link ServerTimingAdvice} and the JSON converter set it, since it must
+ * go out before the body). SQL is only broken down with {@code products.request-timing.sql.enabled};
+ * without it the statement budget is not checked either.
+ */
+class RequestTimingFilter extends OncePerRequestFilter {
+    private static final Logger log = LoggerFactory.getLogger(RequestTimingFilter.class);
+
+    private final int statementBudget;
+    private final long slowNanos;
+    private final boolean exposeHeader;
+    private final boolean traceSql;
+
+    RequestTimingFilter(int statementBudget, Duration slowThreshold, boolean exposeHeader, boolean traceSql) {
+        this.statementBudget = statementBudget;
+        this.slowNanos = slowThreshold.toNanos();
+        this.exposeHeader = exposeHeader;
+        this.traceSql = traceSql;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        RequestTimings timings = RequestTimings.start(statementBudget, exposeHeader, traceSql);
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            RequestTimings.clear();
+            if (exposeHeader && !response.isCommitted() && !response.containsHeader(RequestTimings.HEADER)) {
+                response.setHeader(RequestTimings.HEADER, timings.header());
+            }
+            boolean slow = timings.elapsedNanos() >= slowNanos;
+            if ((slow || timings.overBudget()) && log.isWarnEnabled()) {
+                log.warn("{} {} {}: {}\n{}", request.getMethod(), request.getRequestURI(),
+                        timings.overBudget() ? "exceeded the statement budget" : "was slow", timings.header(), timings.capturedSql());
+            }
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package com.example.springapp.config;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Where one request's time went: controller, service, SQL (statements and rows read) and JSON
+ * writing. Bound to the request thread by {@link RequestTimingFilter}; the timing advisor, the SQL
+ * tracing data source (when enabled) and the JSON converter add to it. Streamed and async work done on other
+ * threads is not included.
+ */
+public final class RequestTimings {
+    public static final String HEADER = "Server-Timing";
+
+    static final int CONTROLLER = 0;
+    static final int SERVICE = 1;
+
+    // distinct statements kept for the slow-request log; an N+1 shows up as one line with a high count
+    private static final int MAX_CAPTURED = 50;
+
+    private static final ThreadLocal<RequestTimings> CURRENT = new ThreadLocal<>();
+
+    private final long start = System.nanoTime();
+    private final int statementBudget;
+    private final boolean exposed;
+    private final boolean sqlTraced;
+    private final long[] phaseNanos = new long[2];
+    // nested calls in one phase (a service calling a service) are only counted by the outermost
+    private final int[] depth = new int[2];
+    private long sqlNanos;
+    private int statements;
+    private long rows;
+    private long jsonNanos;
+    private final Map<String, long[]> captured = new LinkedHashMap<>();
+
+    private RequestTimings(int statementBudget, boolean exposed, boolean sqlTraced) {
+        this.statementBudget = statementBudget;
+        this.exposed = exposed;
+        this.sqlTraced = sqlTraced;
+    }
+
+    static RequestTimings start(int statementBudget, boolean exposed, boolean sqlTraced) {
+        RequestTimings timings = new RequestTimings(statementBudget, exposed, sqlTraced);
+        CURRENT.set(timings);
+        return timings;
+    }
+
+    static void clear() {
+        CURRENT.remove();
+    }
+
+    /** The timings of the request running on this thread, or null outside one. */
+    public static RequestTimings current() {
+        return CURRENT.get();
+    }
+
+    void enter(int phase) {
+        depth[phase]++;
+    }
+
+    void exit(int phase, long nanos) {
+        if (--depth[phase] == 0) phaseNanos[phase] += nanos;
+    }
+
+    void statement(String sql, long nanos) {
+        statements++;
+        sqlNanos += nanos;
+        if (sql == null) return;
+        long[] stat = captured.get(sql);
+        if (stat == null && captured.size() < MAX_CAPTURED) captured.put(sql, stat = new long[2]);
+        if (stat != null) {
+            stat[0]++;
+            stat[1] += nanos;
+        }
+    }
+
+    void row() {
+        rows++;
+    }
+
+    void json(long nanos) {
+        jsonNanos += nanos;
+    }
+
+    public int statements() { return statements; }
+    public long rows() { return rows; }
+    public int statementBudget() { return statementBudget; }
+
+    /** Whether the breakdown goes out as a response header; otherwise it is only logged. */
+    public boolean exposed() { return exposed; }
+
+    public boolean overBudget() {
+        return sqlTraced && statementBudget > 0 && statements > statementBudget;
+    }
+
+    long elapsedNanos() {
+        return System.nanoTime() - start;
+    }
+
+    /** The {@code Server-Timing} value, with {@code total} as of now. */
+    public String header() {
+        StringBuilder sb = new StringBuilder(160);
+        metric(sb, "controller", phaseNanos[CONTROLLER]).append(", ");
+        metric(sb, "service", phaseNanos[SERVICE]).append(", ");
+        // left out rather than reported as 0 statements when nothing traces them
+        if (sqlTraced) {
+            metric(sb, "sql", sqlNanos).append(";desc=\"").append(statements).append(" statements, ")
+                    .append(rows).append(" rows\", ");
+        }
+        metric(sb, "json", jsonNanos).append(", ");
+        metric(sb, "total", elapsedNanos());
+        if (overBudget()) {
+            sb.append(", statement-budget;desc=\"exceeded: ").append(statements).append(" > ").append(statementBudget).append('"');
+        }
+        return sb.toString();
+    }
+
+    /** Captured statements, one per line as {@code <count>x <ms> ms <sql>}, slowest total first. */
+    String capturedSql() {
+        StringBuilder sb = new StringBuilder();
+        captured.entrySet().stream()
+                .sorted((a, b) -> Long.compare(b.getValue()[1], a.getValue()[1]))
+                .forEach(e -> sb.append(String.format(Locale.ROOT, "  %dx %.1f ms %s%n",
+                        e.getValue()[0], e.getValue()[1] / 1e6, e.getKey())));
+        if (statements > 0 && captured.size() == MAX_CAPTURED) sb.append("  (only the first ").append(MAX_CAPTURED).append(" distinct statements are kept)\n");
+        return sb.toString();
+    }
+
+    private static StringBuilder metric(StringBuilder sb, String name, long nanos) {
+        return sb.append(name).append(";dur=").append(String.format(Locale.ROOT, "%.1f", nanos / 1e6));
+    }
+}
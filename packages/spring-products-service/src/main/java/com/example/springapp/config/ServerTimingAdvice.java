@@ -0,0 +1,34 @@
+package com.example.springapp.config;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+/**
+ * Sets {@code Server-Timing} on every body about to be written, whatever the converter: byte-array
+ * snapshots and binary formats commit the response before {@link RequestTimingFilter} could add it.
+ * {@link TimedJsonConverter} replaces it once the JSON write time is known.
+ */
+@Profile("!reactive")
+@ControllerAdvice
+class ServerTimingAdvice implements ResponseBodyAdvice<Object> {
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return true;
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType contentType,
+                                  Class<? extends HttpMessageConverter<?>> converterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        RequestTimings timings = RequestTimings.current();
+        if (timings != null && timings.exposed()) response.getHeaders().set(RequestTimings.HEADER, timings.header());
+        return body;
+    }
+}
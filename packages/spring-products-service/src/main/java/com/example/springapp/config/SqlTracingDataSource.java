@@ -0,0 +1,91 @@
+package com.example.springapp.config;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Reports every statement run inside a timed request to its {@link RequestTimings}: execution time,
+ * SQL text and rows read. Statements prepared outside a request are not wrapped at all.
+ */
+final class SqlTracingDataSource extends DelegatingDataSource {
+
+    SqlTracingDataSource(DataSource target) {
+        super(target);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return connection(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return connection(super.getConnection(username, password));
+    }
+
+    private static Connection connection(Connection target) {
+        return proxy(Connection.class, (method, args) -> {
+            Object result = invoke(target, method, args);
+            if (!(result instanceof Statement statement) || RequestTimings.current() == null) return result;
+            String sql = method.getName().startsWith("prepare") ? (String) args[0] : null;
+            if (statement instanceof CallableStatement callable) return statement(CallableStatement.class, callable, sql);
+            if (statement instanceof PreparedStatement prepared) return statement(PreparedStatement.class, prepared, sql);
+            return statement(Statement.class, statement, sql);
+        });
+    }
+
+    private static <T extends Statement> T statement(Class<T> type, T target, String preparedSql) {
+        return proxy(type, (method, args) -> {
+            String name = method.getName();
+            if (!name.startsWith("execute")) {
+                Object result = invoke(target, method, args);
+                return name.equals("getResultSet") && result != null ? resultSet((ResultSet) result) : result;
+            }
+            String sql = args != null && args.length > 0 && args[0] instanceof String s ? s : preparedSql;
+            long start = System.nanoTime();
+            Object result = invoke(target, method, args);
+            RequestTimings timings = RequestTimings.current();
+            if (timings != null) timings.statement(sql, System.nanoTime() - start);
+            return result instanceof ResultSet rs ? resultSet(rs) : result;
+        });
+    }
+
+    private static ResultSet resultSet(ResultSet target) {
+        return proxy(ResultSet.class, (method, args) -> {
+            Object result = invoke(target, method, args);
+            if (Boolean.TRUE.equals(result) && method.getName().equals("next")) {
+                RequestTimings timings = RequestTimings.current();
+                if (timings != null) timings.row();
+            }
+            return result;
+        });
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, Handler handler) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] {type}, (p, method, args) -> handler.handle(method, args));
+    }
+
+    @FunctionalInterface
+    private interface Handler {
+        Object handle(Method method, Object[] args) throws Throwable;
+    }
+}
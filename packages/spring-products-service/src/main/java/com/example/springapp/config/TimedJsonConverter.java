@@ -0,0 +1,53 @@
+package com.example.springapp.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.lang.Nullable;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.Type;
+
+/**
+ * Jackson converter that times JSON writing inside a timed request. When the request's
+ * {@code Server-Timing} header is exposed, it serializes into a buffer first so that time can go
+ * into the header before the body is sent.
+ */
+class TimedJsonConverter extends MappingJackson2HttpMessageConverter {
+
+    TimedJsonConverter(ObjectMapper objectMapper) {
+        super(objectMapper);
+    }
+
+    @Override
+    protected void writeInternal(Object object, @Nullable Type type, HttpOutputMessage outputMessage)
+            throws IOException, HttpMessageNotWritableException {
+        RequestTimings timings = RequestTimings.current();
+        if (timings == null) {
+            super.writeInternal(object, type, outputMessage);
+            return;
+        }
+        long start = System.nanoTime();
+        if (!timings.exposed()) {
+            super.writeInternal(object, type, outputMessage);
+            timings.json(System.nanoTime() - start);
+            return;
+        }
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(1024);
+        super.writeInternal(object, type, new HttpOutputMessage() {
+            @Override
+            public OutputStream getBody() { return buffer; }
+
+            @Override
+            public HttpHeaders getHeaders() { return outputMessage.getHeaders(); }
+        });
+        timings.json(System.nanoTime() - start);
+        outputMessage.getHeaders().set(RequestTimings.HEADER, timings.header());
+        outputMessage.getHeaders().setContentLength(buffer.size());
+        buffer.writeTo(outputMessage.getBody());
+    }
+}
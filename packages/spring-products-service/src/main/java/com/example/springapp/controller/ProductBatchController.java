@@ -0,0 +1,33 @@
+package com.example.springapp.controller;
+
+import com.example.springapp.dto.BatchItemResult;
+import com.example.springapp.dto.ProductDto;
+import com.example.springapp.service.ProductBatchService;
+import org.springframework.context.annotation.Profile;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@Profile("!reactive & !offheap")
+@RestController
+@RequestMapping("/api/products/batch")
+public class ProductBatchController {
+    private final ProductBatchService batchService;
+
+    public ProductBatchController(ProductBatchService batchService) { this.batchService = batchService; }
+
+    // items are validated one by one by the service so that each gets its own result
+    @PostMapping
+    public List<BatchItemResult> createAll(@RequestBody List<ProductDto> dtos) {
+        return batchService.createAll(dtos);
+    }
+
+    @PutMapping
+    public List<BatchItemResult> updateAll(@RequestBody List<ProductDto> dtos) {
+        return batchService.updateAll(dtos);
+    }
+}
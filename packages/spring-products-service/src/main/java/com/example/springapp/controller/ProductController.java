@@ -1,41 +1,166 @@
 package com.example.springapp.controller;
 
+import com.example.springapp.config.ProductProtobufConverter;
 import com.example.springapp.dto.ProductDto;
+import com.example.springapp.dto.ProductFields;
+import com.example.springapp.dto.ProductLookup;
+import com.example.springapp.dto.ProductPage;
+import com.example.springapp.exception.BadRequestException;
+import com.example.springapp.exception.ConflictException;
+import com.example.springapp.exception.PreconditionFailedException;
 import com.example.springapp.model.Product;
+import com.example.springapp.service.CatalogSnapshots;
 import com.example.springapp.service.ProductService;
 import jakarta.validation.Valid;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.net.URI;
 import java.util.List;
+import java.util.Map;
 
+@Profile("!reactive")
 @RestController
 @RequestMapping("/api/products")
 public class ProductController {
     private final ProductService service;
+    private final CatalogSnapshots snapshots;
 
-    public ProductController(ProductService service) { this.service = service; }
+    public ProductController(ProductService service, CatalogSnapshots snapshots) {
+        this.service = service;
+        this.snapshots = snapshots;
+    }
+
+    // Conditional GETs are checked before the service is called, so a 304 costs no query and no serialization.
+    // JSON lists are written from a pre-serialized snapshot; the tag follows the snapshot's own version,
+    // which trails the catalog only while a rebuild is in flight.
+    // No Accept and */* resolve to JSON (PayloadFormatsConfig), so they land here rather than in listAs.
+    @GetMapping(produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<byte[]> list(@RequestParam(required = false) String q,
+                                       @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+                                       WebRequest request) {
+        boolean gzip = acceptsGzip(acceptEncoding);
+        // a client already holding the current version needs no snapshot at all (checkNotModified
+        // may only be called once per request, hence the plain header test first)
+        String current = listEtag(service.catalogVersion(), gzip);
+        String ifNoneMatch = request.getHeader(HttpHeaders.IF_NONE_MATCH);
+        if (ifNoneMatch != null && ifNoneMatch.contains(current) && request.checkNotModified(current)) return null;
+        CatalogSnapshots.Snapshot snapshot = snapshots.get(q);
+        gzip &= snapshot.gzip() != null;
+        String etag = listEtag(snapshot.version(), gzip);
+        if (request.checkNotModified(etag)) return null;
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok().eTag(etag)
+                .contentType(MediaType.APPLICATION_JSON)
+                .varyBy(HttpHeaders.ACCEPT, HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        return response.body(gzip ? snapshot.gzip() : snapshot.json());
+    }
+
+    // Other representations (CBOR, Smile, Protobuf) are serialized per request.
+    @GetMapping(produces = {MediaType.APPLICATION_CBOR_VALUE, "application/x-jackson-smile", ProductProtobufConverter.PROTOBUF_VALUE})
+    public ResponseEntity<List<Product>> listAs(@RequestParam(required = false) String q, WebRequest request) {
+        String etag = etagFor(ProductEtags.ofCatalog(service.catalogVersion()), request);
+        if (request.checkNotModified(etag)) return null;
+        return ResponseEntity.ok().eTag(etag).varyBy(HttpHeaders.ACCEPT).body(service.listAll(q));
+    }
 
-    @GetMapping
-    public List<Product> list(@RequestParam(required = false) String q) {
-        return service.listAll(q);
+    private static String etagFor(String tag, WebRequest request) {
+        return ProductEtags.forAccept(tag, request.getHeader(HttpHeaders.ACCEPT));
+    }
+
+    // the compressed body is a different representation, so it gets a tag of its own
+    private static String listEtag(String catalogVersion, boolean gzip) {
+        return ProductEtags.ofCatalog(gzip ? catalogVersion + "-gz" : catalogVersion);
+    }
+
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) return false;
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.trim().split(";");
+            if (parts[0].trim().equalsIgnoreCase("gzip")) {
+                return parts.length == 1 || !parts[1].trim().replace(" ", "").matches("q=0(\\.0*)?");
+            }
+        }
+        return false;
+    }
+
+    // Only the selected columns are queried, and rows are never loaded as entities.
+    @GetMapping(params = {"fields", "!limit", "!ids"})
+    public ResponseEntity<List<Map<String, Object>>> listFields(@RequestParam(required = false) String q,
+                                                              @RequestParam String fields, WebRequest request) {
+        ProductFields selected = ProductFields.parse(fields);
+        String etag = etagFor(ProductEtags.ofCatalog(service.catalogVersion()), request);
+        if (request.checkNotModified(etag)) return null;
+        return ResponseEntity.ok().eTag(etag).varyBy(HttpHeaders.ACCEPT).body(service.listFields(q, selected));
+    }
+
+    @GetMapping(params = "limit")
+    public ResponseEntity<ProductPage> listPage(@RequestParam(required = false) String q,
+                                                @RequestParam int limit,
+                                                @RequestParam(required = false) String after,
+                                                WebRequest request) {
+        // a page of everything is not what a client naming ids asked for
+        if (request.getParameter("ids") != null) throw new BadRequestException("ids cannot be combined with limit");
+        rejectFields(request, "limit");
+        String etag = etagFor(ProductEtags.ofCatalog(service.catalogVersion()), request);
+        if (request.checkNotModified(etag)) return null;
+        return ResponseEntity.ok().eTag(etag).varyBy(HttpHeaders.ACCEPT).body(service.listPage(q, limit, after));
+    }
+
+    @GetMapping(params = {"ids", "!limit"})
+    public ResponseEntity<ProductLookup> lookup(@RequestParam List<Long> ids, WebRequest request) {
+        rejectFields(request, "ids");
+        String etag = etagFor(ProductEtags.ofCatalog(service.catalogVersion()), request);
+        if (request.checkNotModified(etag)) return null;
+        return ResponseEntity.ok().eTag(etag).varyBy(HttpHeaders.ACCEPT).body(service.getAll(ids));
+    }
+
+    // Pages and lookups only come as full rows; answering them in full would cost the client the
+    // bandwidth it asked to save, without telling it.
+    private static void rejectFields(WebRequest request, String param) {
+        if (request.getParameter("fields") != null) throw new BadRequestException("fields cannot be combined with " + param);
     }
 
     @GetMapping("/{id}")
-    public Product get(@PathVariable Long id) {
-        return service.get(id);
+    public ResponseEntity<Product> get(@PathVariable Long id, WebRequest request) {
+        // served from the products cache when warm, so a 304 usually touches no database either
+        Product p = service.get(id);
+        String etag = etagFor(ProductEtags.of(p), request);
+        if (request.checkNotModified(etag)) return null;
+        return ResponseEntity.ok().eTag(etag).varyBy(HttpHeaders.ACCEPT).body(p);
+    }
+
+    @GetMapping(value = "/{id}", params = "fields")
+    public ResponseEntity<Map<String, Object>> getFields(@PathVariable Long id, @RequestParam String fields, WebRequest request) {
+        Map<String, Object> p = service.getFields(id, ProductFields.parse(fields));
+        // same tag as the full representation: version is always selected
+        String etag = etagFor(ProductEtags.ofVersion((Long) p.get("version")), request);
+        if (request.checkNotModified(etag)) return null;
+        return ResponseEntity.ok().eTag(etag).varyBy(HttpHeaders.ACCEPT).body(p);
     }
 
     @PostMapping
     public ResponseEntity<Product> create(@Valid @RequestBody ProductDto dto) {
         Product created = service.create(dto);
-        return ResponseEntity.created(URI.create("/api/products/" + created.getId())).body(created);
+        return ResponseEntity.created(URI.create("/api/products/" + created.getId())).eTag(ProductEtags.of(created)).body(created);
     }
 
     @PutMapping("/{id}")
-    public Product update(@PathVariable Long id, @Valid @RequestBody ProductDto dto) {
-        return service.update(id, dto);
+    public ResponseEntity<Product> update(@PathVariable Long id, @Valid @RequestBody ProductDto dto,
+                                          @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        if (ifMatch != null) dto.setVersion(ProductEtags.versionFromIfMatch(ifMatch));
+        Product updated;
+        try {
+            updated = service.update(id, dto);
+        } catch (ConflictException e) {
+            if (ifMatch == null) throw e;
+            throw new PreconditionFailedException("If-Match does not match the current product version");
+        }
+        return ResponseEntity.ok().eTag(ProductEtags.of(updated)).body(updated);
     }
 
     @DeleteMapping("/{id}")
@@ -0,0 +1,84 @@
+package com.example.springapp.controller;
+
+import com.example.springapp.config.ProductProtobufConverter;
+import com.example.springapp.exception.PreconditionFailedException;
+import com.example.springapp.model.Product;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.util.MimeTypeUtils;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Strong ETags for product responses: a single product is tagged with its {@code @Version}, lists
+ * and searches with the {@link com.example.springapp.service.CatalogVersion catalog version}.
+ * JSON carries the bare tag; the binary formats are other bytes for the same version, so each
+ * gets a suffix ({@code "v3-cbor"}) and responses vary by {@code Accept}.
+ */
+final class ProductEtags {
+    // in the order the message converters are registered, after JSON
+    private static final List<Map.Entry<MediaType, String>> BINARY_FORMATS = List.of(
+            Map.entry(MediaType.APPLICATION_CBOR, "cbor"),
+            Map.entry(new MediaType("application", "x-jackson-smile"), "smile"),
+            Map.entry(ProductProtobufConverter.PROTOBUF, "pb"));
+
+    private ProductEtags() {}
+
+    static String of(Product p) {
+        return ofVersion(p.getVersion());
+    }
+
+    static String ofVersion(Long version) {
+        return "\"v" + version + "\"";
+    }
+
+    static String ofCatalog(String catalogVersion) {
+        return "\"c" + catalogVersion + "\"";
+    }
+
+    /** {@code tag} for the format {@link #formatFor} picks. */
+    static String forAccept(String tag, String accept) {
+        String format = formatFor(accept);
+        return format == null ? tag : tag.substring(0, tag.length() - 1) + "-" + format + "\"";
+    }
+
+    /**
+     * The binary format content negotiation will pick for {@code accept}, or null for JSON, which
+     * is what no Accept or a wildcard gets, as with the converters. An Accept that doesn't parse
+     * counts as JSON; Spring answers it with a 406 before anything is written.
+     */
+    static String formatFor(String accept) {
+        if (accept == null || accept.isBlank()) return null;
+        List<MediaType> accepted;
+        try {
+            accepted = MediaType.parseMediaTypes(accept);
+        } catch (InvalidMediaTypeException e) {
+            return null;
+        }
+        MimeTypeUtils.sortBySpecificity(accepted);
+        for (MediaType type : accepted) {
+            if (type.isCompatibleWith(MediaType.APPLICATION_JSON)) return null;
+            for (Map.Entry<MediaType, String> format : BINARY_FORMATS) {
+                if (type.isCompatibleWith(format.getKey())) return format.getValue();
+            }
+        }
+        return null;
+    }
+
+    /** The version named by an {@code If-Match} value, {@code null} for {@code *}; any format suffix is ignored. */
+    static Long versionFromIfMatch(String ifMatch) {
+        String tag = ifMatch.trim();
+        if (tag.equals("*")) return null;
+        if (tag.length() > 3 && tag.startsWith("\"v") && tag.endsWith("\"")) {
+            try {
+                String version = tag.substring(2, tag.length() - 1);
+                int suffix = version.indexOf('-');
+                return Long.valueOf(suffix < 0 ? version : version.substring(0, suffix));
+            } catch (NumberFormatException e) {
+                // fall through: not one of our tags
+            }
+        }
+        throw new PreconditionFailedException("If-Match does not name a product version");
+    }
+}
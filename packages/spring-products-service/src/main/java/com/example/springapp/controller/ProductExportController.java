@@ -0,0 +1,37 @@
+package com.example.springapp.controller;
+
+import com.example.springapp.service.CatalogDumpService;
+import com.example.springapp.service.ProductExportService;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+@Profile("!reactive & !offheap")
+@RestController
+@RequestMapping("/api/products/export")
+public class ProductExportController {
+    private final ProductExportService exportService;
+    private final CatalogDumpService dumpService;
+
+    public ProductExportController(ProductExportService exportService, CatalogDumpService dumpService) {
+        this.exportService = exportService;
+        this.dumpService = dumpService;
+    }
+
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> export() {
+        StreamingResponseBody body = exportService::exportNdjson;
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+
+    // the whole table, tombstones included, in the format products.dump.load reads at startup
+    @GetMapping(path = "/dump", produces = CatalogDumpService.MEDIA_TYPE)
+    public ResponseEntity<StreamingResponseBody> dump() {
+        StreamingResponseBody body = dumpService::export;
+        return ResponseEntity.ok().contentType(MediaType.parseMediaType(CatalogDumpService.MEDIA_TYPE)).body(body);
+    }
+}
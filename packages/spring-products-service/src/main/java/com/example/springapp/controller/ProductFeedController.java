@@ -0,0 +1,24 @@
+package com.example.springapp.controller;
+
+import com.example.springapp.service.ProductChangeFeed;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+@Profile("!reactive")
+@RestController
+@RequestMapping("/api/products/feed")
+public class ProductFeedController {
+    private final ProductChangeFeed feed;
+
+    public ProductFeedController(ProductChangeFeed feed) { this.feed = feed; }
+
+    @GetMapping(produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter subscribe(@RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        return feed.subscribe(lastEventId);
+    }
+}
@@ -0,0 +1,24 @@
+package com.example.springapp.controller;
+
+import com.example.springapp.dto.ProductChanges;
+import com.example.springapp.service.ProductSyncService;
+import org.springframework.context.annotation.Profile;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+@Profile("!reactive")
+@RestController
+@RequestMapping("/api/products/changes")
+public class ProductSyncController {
+    private final ProductSyncService syncService;
+
+    public ProductSyncController(ProductSyncService syncService) { this.syncService = syncService; }
+
+    @GetMapping
+    public ProductChanges changes(@RequestParam(required = false) String since,
+                                  @RequestParam(defaultValue = "500") int limit) {
+        return syncService.changesSince(since, limit);
+    }
+}
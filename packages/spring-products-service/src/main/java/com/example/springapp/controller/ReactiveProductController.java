@@ -0,0 +1,62 @@
+package com.example.springapp.controller;
+
+import com.example.springapp.dto.ProductDto;
+import com.example.springapp.exception.ConflictException;
+import com.example.springapp.exception.PreconditionFailedException;
+import com.example.springapp.model.Product;
+import com.example.springapp.service.ReactiveProductService;
+import jakarta.validation.Valid;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.net.URI;
+
+/**
+ * The {@code reactive} profile's {@code /api/products}. Lists are streamed from the database as the
+ * client reads them; ask for {@code application/x-ndjson} to get each product flushed on its own.
+ */
+@Profile("reactive")
+@RestController
+@RequestMapping("/api/products")
+public class ReactiveProductController {
+    private final ReactiveProductService service;
+
+    public ReactiveProductController(ReactiveProductService service) { this.service = service; }
+
+    @GetMapping(produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public Flux<Product> list(@RequestParam(required = false) String q) {
+        return service.listAll(q);
+    }
+
+    @GetMapping("/{id}")
+    public Mono<Product> get(@PathVariable Long id) {
+        return service.get(id);
+    }
+
+    @PostMapping
+    public Mono<ResponseEntity<Product>> create(@Valid @RequestBody ProductDto dto) {
+        return service.create(dto)
+                .map(created -> ResponseEntity.created(URI.create("/api/products/" + created.getId())).body(created));
+    }
+
+    // If-Match as on the servlet stack: its version is checked like the body's, and a mismatch is a 412
+    @PutMapping("/{id}")
+    public Mono<ResponseEntity<Product>> update(@PathVariable Long id, @Valid @RequestBody ProductDto dto,
+                                                @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        if (ifMatch != null) dto.setVersion(ProductEtags.versionFromIfMatch(ifMatch));
+        return service.update(id, dto)
+                .onErrorMap(ConflictException.class, e -> ifMatch == null ? e
+                        : new PreconditionFailedException("If-Match does not match the current product version"))
+                .map(updated -> ResponseEntity.ok().eTag(ProductEtags.of(updated)).body(updated));
+    }
+
+    @DeleteMapping("/{id}")
+    public Mono<ResponseEntity<Void>> delete(@PathVariable Long id) {
+        return service.delete(id).thenReturn(ResponseEntity.noContent().build());
+    }
+}
@@ -0,0 +1,24 @@
+package com.example.springapp.dto;
+
+import java.util.List;
+
+public class BatchItemResult {
+    public enum Status { CREATED, UPDATED, INVALID, NOT_FOUND, CONFLICT }
+
+    private final int index;
+    private final Long id;
+    private final Status status;
+    private final List<String> errors;
+
+    public BatchItemResult(int index, Long id, Status status, List<String> errors) {
+        this.index = index;
+        this.id = id;
+        this.status = status;
+        this.errors = errors;
+    }
+
+    public int getIndex() { return index; }
+    public Long getId() { return id; }
+    public Status getStatus() { return status; }
+    public List<String> getErrors() { return errors; }
+}
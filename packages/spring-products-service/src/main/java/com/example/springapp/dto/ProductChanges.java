@@ -0,0 +1,21 @@
+package com.example.springapp.dto;
+
+import com.example.springapp.model.Product;
+
+import java.util.List;
+
+public class ProductChanges {
+    private final List<Product> items;
+    private final String watermark;
+    private final boolean hasMore;
+
+    public ProductChanges(List<Product> items, String watermark, boolean hasMore) {
+        this.items = items;
+        this.watermark = watermark;
+        this.hasMore = hasMore;
+    }
+
+    public List<Product> getItems() { return items; }
+    public String getWatermark() { return watermark; }
+    public boolean isHasMore() { return hasMore; }
+}
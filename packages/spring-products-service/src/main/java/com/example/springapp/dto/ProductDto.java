@@ -17,6 +17,9 @@ public class ProductDto {
     @DecimalMin("0.0")
     private BigDecimal price;
 
+    // optional: when set, the write only applies if the stored version still matches
+    private Long version;
+
     public Long getId() { return id; }
     public void setId(Long id) { this.id = id; }
     public String getName() { return name; }
@@ -25,4 +28,6 @@ public class ProductDto {
     public void setDescription(String description) { this.description = description; }
     public BigDecimal getPrice() { return price; }
     public void setPrice(BigDecimal price) { this.price = price; }
+    public Long getVersion() { return version; }
+    public void setVersion(Long version) { this.version = version; }
 }
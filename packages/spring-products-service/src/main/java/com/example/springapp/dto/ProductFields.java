@@ -0,0 +1,36 @@
+package com.example.springapp.dto;
+
+import com.example.springapp.exception.BadRequestException;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The product properties a {@code fields=} request selects, by their JSON names. {@code id} and
+ * {@code version} are always included: clients need the key, and the version backs the ETag.
+ */
+public final class ProductFields {
+    // selection order is fixed, so equal sets always produce the same column list and JSON layout
+    private static final List<String> SELECTABLE = List.of("id", "name", "description", "price", "createdAt", "updatedAt", "version");
+
+    private final List<String> names;
+
+    private ProductFields(List<String> names) {
+        this.names = names;
+    }
+
+    public static ProductFields parse(String fields) {
+        List<String> requested = Arrays.stream(fields.split(",")).map(String::trim).filter(f -> !f.isEmpty()).toList();
+        for (String f : requested) {
+            if (!SELECTABLE.contains(f)) throw new BadRequestException("fields must be among " + String.join(",", SELECTABLE));
+        }
+        List<String> names = new ArrayList<>();
+        for (String f : SELECTABLE) {
+            if (f.equals("id") || f.equals("version") || requested.contains(f)) names.add(f);
+        }
+        return new ProductFields(List.copyOf(names));
+    }
+
+    public List<String> names() { return names; }
+}
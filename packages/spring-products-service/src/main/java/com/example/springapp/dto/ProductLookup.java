@@ -0,0 +1,18 @@
+package com.example.springapp.dto;
+
+import com.example.springapp.model.Product;
+
+import java.util.List;
+
+public class ProductLookup {
+    private final List<Product> items;
+    private final List<Long> missing;
+
+    public ProductLookup(List<Product> items, List<Long> missing) {
+        this.items = items;
+        this.missing = missing;
+    }
+
+    public List<Product> getItems() { return items; }
+    public List<Long> getMissing() { return missing; }
+}
@@ -0,0 +1,18 @@
+package com.example.springapp.dto;
+
+import com.example.springapp.model.Product;
+
+import java.util.List;
+
+public class ProductPage {
+    private final List<Product> items;
+    private final String nextCursor;
+
+    public ProductPage(List<Product> items, String nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<Product> getItems() { return items; }
+    public String getNextCursor() { return nextCursor; }
+}
@@ -0,0 +1,13 @@
+package com.example.springapp.event;
+
+/**
+ * Published after the catalog was replaced wholesale, outside the per-product write path (a dump
+ * loaded at startup). Anything derived from individual {@link ProductChangedEvent}s is stale.
+ */
+public class CatalogReloadedEvent {
+    private final long products;
+
+    public CatalogReloadedEvent(long products) { this.products = products; }
+
+    public long getProducts() { return products; }
+}
@@ -0,0 +1,29 @@
+package com.example.springapp.event;
+
+import com.example.springapp.model.Product;
+
+/**
+ * Published by the service layer after a product write has been applied to the repository.
+ * {@code product} is the state after the write, or {@code null} for deletions.
+ */
+public class ProductChangedEvent {
+    public enum Type { CREATED, UPDATED, DELETED }
+
+    private final Type type;
+    private final Long id;
+    private final Product product;
+
+    private ProductChangedEvent(Type type, Long id, Product product) {
+        this.type = type;
+        this.id = id;
+        this.product = product;
+    }
+
+    public static ProductChangedEvent created(Product product) { return new ProductChangedEvent(Type.CREATED, product.getId(), product); }
+    public static ProductChangedEvent updated(Product product) { return new ProductChangedEvent(Type.UPDATED, product.getId(), product); }
+    public static ProductChangedEvent deleted(Long id) { return new ProductChangedEvent(Type.DELETED, id, null); }
+
+    public Type getType() { return type; }
+    public Long getId() { return id; }
+    public Product getProduct() { return product; }
+}
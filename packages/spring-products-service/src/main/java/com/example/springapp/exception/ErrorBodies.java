@@ -0,0 +1,24 @@
+package com.example.springapp.exception;
+
+import org.springframework.validation.FieldError;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/** Error response bodies shared by the servlet and reactive exception handlers. */
+public final class ErrorBodies {
+    private ErrorBodies() {}
+
+    public static Map<String, Object> message(String message) {
+        Map<String, Object> body = new HashMap<>();
+        body.put("message", message);
+        return body;
+    }
+
+    public static Map<String, Object> fieldErrors(List<FieldError> errors) {
+        Map<String, Object> body = new HashMap<>();
+        body.put("errors", errors.stream().map(f -> f.getField() + ": " + f.getDefaultMessage()).toList());
+        return body;
+    }
+}
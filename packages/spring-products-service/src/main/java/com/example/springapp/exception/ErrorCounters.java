@@ -0,0 +1,25 @@
+package com.example.springapp.exception;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/** {@code products.errors{type}} counters for the error responses the exception handlers produce. */
+final class ErrorCounters {
+    final Counter notFound;
+    final Counter badRequest;
+    final Counter validation;
+    final Counter conflict;
+    final Counter preconditionFailed;
+
+    ErrorCounters(MeterRegistry registry) {
+        notFound = counter(registry, "not_found");
+        badRequest = counter(registry, "bad_request");
+        validation = counter(registry, "validation");
+        conflict = counter(registry, "conflict");
+        preconditionFailed = counter(registry, "precondition_failed");
+    }
+
+    private static Counter counter(MeterRegistry registry, String type) {
+        return Counter.builder("products.errors").tag("type", type).register(registry);
+    }
+}
@@ -1,5 +1,9 @@
 package com.example.springapp.exception;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Profile;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.HttpStatusCode;
@@ -10,17 +14,38 @@ import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.servlet.mvc.method.annotation.ResponseEntityExceptionHandler;
 
-import java.util.HashMap;
-import java.util.Map;
-
+@Profile("!reactive")
 @ControllerAdvice
 public class GlobalExceptionHandler extends ResponseEntityExceptionHandler {
+    private final ErrorCounters counters;
+
+    // the registry is optional so web slice tests, which have none, still get this advice
+    public GlobalExceptionHandler(ObjectProvider<MeterRegistry> registry) {
+        this.counters = new ErrorCounters(registry.getIfAvailable(() -> Metrics.globalRegistry));
+    }
 
     @ExceptionHandler(NotFoundException.class)
     protected ResponseEntity<Object> handleNotFound(NotFoundException ex) {
-        Map<String, Object> body = new HashMap<>();
-        body.put("message", ex.getMessage());
-        return new ResponseEntity<>(body, HttpStatus.NOT_FOUND);
+        counters.notFound.increment();
+        return new ResponseEntity<>(ErrorBodies.message(ex.getMessage()), HttpStatus.NOT_FOUND);
+    }
+
+    @ExceptionHandler(BadRequestException.class)
+    protected ResponseEntity<Object> handleBadRequest(BadRequestException ex) {
+        counters.badRequest.increment();
+        return new ResponseEntity<>(ErrorBodies.message(ex.getMessage()), HttpStatus.BAD_REQUEST);
+    }
+
+    @ExceptionHandler(ConflictException.class)
+    protected ResponseEntity<Object> handleConflict(ConflictException ex) {
+        counters.conflict.increment();
+        return new ResponseEntity<>(ErrorBodies.message(ex.getMessage()), HttpStatus.CONFLICT);
+    }
+
+    @ExceptionHandler(PreconditionFailedException.class)
+    protected ResponseEntity<Object> handlePreconditionFailed(PreconditionFailedException ex) {
+        counters.preconditionFailed.increment();
+        return new ResponseEntity<>(ErrorBodies.message(ex.getMessage()), HttpStatus.PRECONDITION_FAILED);
     }
 
     @Override
@@ -28,8 +53,7 @@ public class GlobalExceptionHandler extends ResponseEntityExceptionHandler {
                                                                   HttpHeaders headers,
                                                                   HttpStatusCode status,
                                                                   WebRequest request) {
-        Map<String, Object> body = new HashMap<>();
-        body.put("errors", ex.getBindingResult().getFieldErrors().stream().map(f -> f.getField() + ": " + f.getDefaultMessage()).toList());
-        return new ResponseEntity<>(body, HttpStatus.BAD_REQUEST);
+        counters.validation.increment();
+        return new ResponseEntity<>(ErrorBodies.fieldErrors(ex.getBindingResult().getFieldErrors()), HttpStatus.BAD_REQUEST);
     }
 }
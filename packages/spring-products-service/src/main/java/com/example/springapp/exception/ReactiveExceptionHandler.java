@@ -0,0 +1,53 @@
+package com.example.springapp.exception;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.bind.support.WebExchangeBindException;
+
+/** WebFlux counterpart of {@link GlobalExceptionHandler}, producing the same bodies. */
+@Profile("reactive")
+@RestControllerAdvice
+public class ReactiveExceptionHandler {
+    private final ErrorCounters counters;
+
+    // the registry is optional so web slice tests, which have none, still get this advice
+    public ReactiveExceptionHandler(ObjectProvider<MeterRegistry> registry) {
+        this.counters = new ErrorCounters(registry.getIfAvailable(() -> Metrics.globalRegistry));
+    }
+
+    @ExceptionHandler(NotFoundException.class)
+    protected ResponseEntity<Object> handleNotFound(NotFoundException ex) {
+        counters.notFound.increment();
+        return new ResponseEntity<>(ErrorBodies.message(ex.getMessage()), HttpStatus.NOT_FOUND);
+    }
+
+    @ExceptionHandler(BadRequestException.class)
+    protected ResponseEntity<Object> handleBadRequest(BadRequestException ex) {
+        counters.badRequest.increment();
+        return new ResponseEntity<>(ErrorBodies.message(ex.getMessage()), HttpStatus.BAD_REQUEST);
+    }
+
+    @ExceptionHandler(ConflictException.class)
+    protected ResponseEntity<Object> handleConflict(ConflictException ex) {
+        counters.conflict.increment();
+        return new ResponseEntity<>(ErrorBodies.message(ex.getMessage()), HttpStatus.CONFLICT);
+    }
+
+    @ExceptionHandler(PreconditionFailedException.class)
+    protected ResponseEntity<Object> handlePreconditionFailed(PreconditionFailedException ex) {
+        counters.preconditionFailed.increment();
+        return new ResponseEntity<>(ErrorBodies.message(ex.getMessage()), HttpStatus.PRECONDITION_FAILED);
+    }
+
+    @ExceptionHandler(WebExchangeBindException.class)
+    protected ResponseEntity<Object> handleValidation(WebExchangeBindException ex) {
+        counters.validation.increment();
+        return new ResponseEntity<>(ErrorBodies.fieldErrors(ex.getBindingResult().getFieldErrors()), HttpStatus.BAD_REQUEST);
+    }
+}
@@ -1,14 +1,32 @@
 package com.example.springapp.model;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.SQLRestriction;
 import java.math.BigDecimal;
 import java.time.OffsetDateTime;
+import java.time.temporal.ChronoUnit;
 
 @Entity
-@Table(name = "products")
+@Table(name = "products", indexes = {
+        @Index(name = "idx_products_name_id", columnList = "name, id"),
+        @Index(name = "idx_products_updated_at_id", columnList = "updated_at, id")
+})
+// Deleted rows stay behind as tombstones for delta sync; every entity query skips them.
+@SQLRestriction("deleted = false")
+// Second-level cached by id (region bounds in application.conf). READ_WRITE locks the entry while a
+// write is in flight, so a concurrent reader goes to the database rather than seeing the old row.
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = Product.CACHE_REGION)
 public class Product {
+    public static final String CACHE_REGION = "product-entities";
+
+    // Pooled sequence ids let Hibernate batch inserts; IDENTITY forces one round trip per row.
+    // The sequence starts above the ids hard-coded in data.sql.
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "products_seq")
+    @SequenceGenerator(name = "products_seq", sequenceName = "products_seq", initialValue = 1000, allocationSize = 50)
     private Long id;
 
     @Column(nullable = false)
@@ -18,7 +36,18 @@ public class Product {
 
     private BigDecimal price;
 
-    private OffsetDateTime createdAt = OffsetDateTime.now();
+    private OffsetDateTime createdAt = now();
+
+    // Held at the column's microsecond precision, so a row written from this entity and the entity
+    // itself agree: a delta-sync watermark taken from either sorts the row at or before it.
+    private OffsetDateTime updatedAt = createdAt;
+
+    @Column(nullable = false)
+    private boolean deleted;
+
+    // Bumped by every write; an update carrying a stale version matches no row.
+    @Version
+    private Long version;
 
     public Long getId() { return id; }
     public void setId(Long id) { this.id = id; }
@@ -30,4 +59,18 @@ public class Product {
     public void setPrice(BigDecimal price) { this.price = price; }
     public OffsetDateTime getCreatedAt() { return createdAt; }
     public void setCreatedAt(OffsetDateTime createdAt) { this.createdAt = createdAt; }
+    public OffsetDateTime getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(OffsetDateTime updatedAt) { this.updatedAt = updatedAt == null ? null : updatedAt.truncatedTo(ChronoUnit.MICROS); }
+    public boolean isDeleted() { return deleted; }
+    public void setDeleted(boolean deleted) { this.deleted = deleted; }
+    public Long getVersion() { return version; }
+    public void setVersion(Long version) { this.version = version; }
+
+    // bulk updates in ProductRepository set updatedAt themselves; this covers dirty-checked ones
+    @PreUpdate
+    void touch() { updatedAt = now(); }
+
+    private static OffsetDateTime now() {
+        return OffsetDateTime.now().truncatedTo(ChronoUnit.MICROS);
+    }
 }
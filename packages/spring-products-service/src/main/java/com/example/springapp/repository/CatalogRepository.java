@@ -0,0 +1,42 @@
+package com.example.springapp.repository;
+
+import com.example.springapp.model.Product;
+import org.springframework.data.domain.Limit;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * The product reads and writes that {@code ProductService}, {@code ProductSyncService} and
+ * {@code NameSearchIndex} make, and all that a catalog store has to provide for them:
+ * {@link ProductRepository} over JPA, or {@link OffHeapProductRepository}. Batch writes, exports and
+ * dumps need JPA and use {@link ProductRepository} directly.
+ */
+public interface CatalogRepository extends ProductFieldsRepository, ProductWritesRepository {
+
+    List<Product> findAll();
+
+    List<Product> findAllById(Iterable<Long> ids);
+
+    Optional<Product> findById(Long id);
+
+    boolean existsById(Long id);
+
+    <S extends Product> S save(S entity);
+
+    List<Product> findByNameContainingIgnoreCase(String name);
+
+    /** Live products with an id above {@code id}, in id order. */
+    List<Product> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+
+    List<Product> findByNameContainingIgnoreCaseOrderByNameAscIdAsc(String name, Limit limit);
+
+    /** Live products whose name contains {@code q} (ignoring case), after {@code (name, id)} in that order. */
+    List<Product> findByNameContainingIgnoreCaseAfter(String q, String name, Long id, Limit limit);
+
+    List<ProductName> findAllNames();
+
+    /** Rows, tombstones included, changed after {@code (ts, id)} and before {@code until}, in {@code (updatedAt, id)} order. */
+    List<Product> findChangedAfter(OffsetDateTime ts, Long id, OffsetDateTime until, int limit);
+}
@@ -0,0 +1,172 @@
+package com.example.springapp.repository;
+
+import com.example.springapp.dto.ProductFields;
+import com.example.springapp.model.Product;
+import com.example.springapp.store.DurableProductStore;
+import com.example.springapp.store.ProductStore;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Repository;
+
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * {@link CatalogRepository} over a {@link ProductStore} instead of JPA, for read-heavy edge nodes
+ * ({@code offheap} profile). The catalog starts empty and lives in memory only, unless
+ * {@code products.offheap.storage=log} puts a {@link DurableProductStore} behind it: then each write
+ * returns once its log record is as durable as {@code products.offheap.log.fsync-interval} makes it.
+ * <p>
+ * There are no transactions: every call is atomic on its own.
+ */
+@Repository
+@Profile("offheap")
+public class OffHeapProductRepository implements CatalogRepository {
+    private final ProductStore store;
+
+    public OffHeapProductRepository(ProductStore store) {
+        this.store = store;
+    }
+
+    /** The store behind this repository, for footprint reporting. */
+    public ProductStore store() {
+        return store;
+    }
+
+    @Override
+    public List<Product> findByNameContainingIgnoreCase(String name) {
+        return store.scan(0, name, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public List<Product> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit) {
+        return store.scan(id, null, max(limit));
+    }
+
+    @Override
+    public List<Product> findByNameContainingIgnoreCaseOrderByNameAscIdAsc(String name, Limit limit) {
+        return store.scanByName(null, 0, name, max(limit));
+    }
+
+    @Override
+    public List<Product> findByNameContainingIgnoreCaseAfter(String q, String name, Long id, Limit limit) {
+        return store.scanByName(name, id, q, max(limit));
+    }
+
+    @Override
+    public List<ProductName> findAllNames() {
+        List<ProductName> names = new ArrayList<>();
+        for (Product p : store.scan(0, null, Integer.MAX_VALUE)) {
+            Long id = p.getId();
+            String name = p.getName();
+            names.add(new ProductName() {
+                @Override public Long getId() { return id; }
+                @Override public String getName() { return name; }
+            });
+        }
+        return names;
+    }
+
+    @Override
+    public int updateById(Long id, Long version, String name, String description, BigDecimal price, OffsetDateTime now) {
+        int updated = store.update(id, version, name, description, price, now);
+        awaitDurable();
+        return updated;
+    }
+
+    @Override
+    public int removeById(Long id, OffsetDateTime now) {
+        int removed = store.softDelete(id, now);
+        awaitDurable();
+        return removed;
+    }
+
+    @Override
+    public List<Product> findChangedAfter(OffsetDateTime ts, Long id, OffsetDateTime until, int limit) {
+        return store.changedAfter(ts, id, until, limit);
+    }
+
+    @Override
+    public List<Map<String, Object>> findFields(ProductFields fields, Collection<Long> ids, String nameContains) {
+        List<Product> rows = ids == null
+                ? store.scan(0, nameContains, Integer.MAX_VALUE)
+                : store.getAll(ids).stream()
+                        .filter(p -> nameContains == null || p.getName().toUpperCase(Locale.ROOT).contains(nameContains.toUpperCase(Locale.ROOT)))
+                        .sorted(Comparator.comparing(Product::getId))
+                        .toList();
+        List<Map<String, Object>> result = new ArrayList<>(rows.size());
+        for (Product p : rows) {
+            Map<String, Object> item = new LinkedHashMap<>();
+            for (String f : fields.names()) item.put(f, field(p, f));
+            result.add(item);
+        }
+        return result;
+    }
+
+    private static Object field(Product p, String name) {
+        return switch (name) {
+            case "id" -> p.getId();
+            case "name" -> p.getName();
+            case "description" -> p.getDescription();
+            case "price" -> p.getPrice();
+            case "createdAt" -> p.getCreatedAt();
+            case "updatedAt" -> p.getUpdatedAt();
+            case "version" -> p.getVersion();
+            default -> throw new IllegalArgumentException(name);
+        };
+    }
+
+    @Override
+    public <S extends Product> S save(S entity) {
+        if (!store.save(entity)) {
+            throw new OptimisticLockingFailureException("Product " + entity.getId() + " was modified concurrently");
+        }
+        awaitDurable();
+        return entity;
+    }
+
+    @Override
+    public Optional<Product> findById(Long id) {
+        return Optional.ofNullable(store.get(id));
+    }
+
+    @Override
+    public boolean existsById(Long id) {
+        return store.exists(id);
+    }
+
+    @Override
+    public List<Product> findAll() {
+        return store.scan(0, null, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public List<Product> findAllById(Iterable<Long> ids) {
+        List<Long> list = new ArrayList<>();
+        ids.forEach(list::add);
+        return store.getAll(list);
+    }
+
+    private void awaitDurable() {
+        try {
+            store.awaitDurable();
+        } catch (UncheckedIOException e) {
+            throw new DataAccessResourceFailureException("Product log write failed", e.getCause());
+        }
+    }
+
+    private static int max(Limit limit) {
+        return limit.isLimited() ? limit.max() : Integer.MAX_VALUE;
+    }
+}
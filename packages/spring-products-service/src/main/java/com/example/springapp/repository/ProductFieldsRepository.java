@@ -0,0 +1,20 @@
+package com.example.springapp.repository;
+
+import com.example.springapp.dto.ProductFields;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Column projections for {@code fields=} requests. Rows come back as maps keyed by JSON property
+ * name, never as entities, so they are read-only and bypass the persistence context.
+ */
+public interface ProductFieldsRepository {
+
+    /**
+     * Selected fields of live products in id order, optionally limited to {@code ids} and to names
+     * containing {@code nameContains} (ignoring case); null skips a filter.
+     */
+    List<Map<String, Object>> findFields(ProductFields fields, Collection<Long> ids, String nameContains);
+}
@@ -0,0 +1,55 @@
+package com.example.springapp.repository;
+
+import com.example.springapp.dto.ProductFields;
+import com.example.springapp.model.Product;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+// Spring Data picks this up as the ProductFieldsRepository fragment of ProductRepository.
+class ProductFieldsRepositoryImpl implements ProductFieldsRepository {
+    private static final char ESCAPE = '\\';
+
+    @PersistenceContext
+    private EntityManager em;
+
+    @Override
+    public List<Map<String, Object>> findFields(ProductFields fields, Collection<Long> ids, String nameContains) {
+        CriteriaBuilder cb = em.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<Product> p = query.from(Product.class);
+        // a tuple of scalars: nothing is hydrated, nothing is managed (and @SQLRestriction still applies)
+        query.multiselect(fields.names().stream().<Selection<?>>map(f -> p.get(f).alias(f)).toList());
+        List<Predicate> where = new ArrayList<>(2);
+        if (ids != null) where.add(p.get("id").in(ids));
+        if (nameContains != null) {
+            where.add(cb.like(cb.upper(p.get("name")), "%" + escape(nameContains.toUpperCase(Locale.ROOT)) + "%", ESCAPE));
+        }
+        query.where(where.toArray(Predicate[]::new)).orderBy(cb.asc(p.get("id")));
+
+        List<Tuple> rows = em.createQuery(query).getResultList();
+        List<Map<String, Object>> result = new ArrayList<>(rows.size());
+        for (Tuple row : rows) {
+            Map<String, Object> item = new LinkedHashMap<>();
+            for (String f : fields.names()) item.put(f, row.get(f));
+            result.add(item);
+        }
+        return result;
+    }
+
+    private static String escape(String s) {
+        return s.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
@@ -0,0 +1,6 @@
+package com.example.springapp.repository;
+
+public interface ProductName {
+    Long getId();
+    String getName();
+}
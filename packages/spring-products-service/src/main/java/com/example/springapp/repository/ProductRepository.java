@@ -1,12 +1,76 @@
 package com.example.springapp.repository;
 
 import com.example.springapp.model.Product;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import jakarta.persistence.QueryHint;
 import org.springframework.stereotype.Repository;
 
+import java.time.OffsetDateTime;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
+import static org.hibernate.jpa.HibernateHints.HINT_CACHEABLE;
+import static org.hibernate.jpa.HibernateHints.HINT_CACHE_MODE;
+import static org.hibernate.jpa.HibernateHints.HINT_CACHE_REGION;
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
+
+// The fragments are listed again although CatalogRepository extends them: Spring Data only looks
+// for the Impl classes of interfaces a repository extends directly.
 @Repository
-public interface ProductRepository extends JpaRepository<Product, Long> {
+public interface ProductRepository extends JpaRepository<Product, Long>, CatalogRepository,
+        ProductFieldsRepository, ProductWritesRepository {
+    String NAME_SEARCH_REGION = "product-name-searches";
+
+    // Declared by both JpaRepository (over ID and T) and CatalogRepository (over Long and Product);
+    // restated so calls through this interface resolve to one method. Still served by the JPA base class.
+    @Override
+    Optional<Product> findById(Long id);
+
+    @Override
+    boolean existsById(Long id);
+
+    @Override
+    <S extends Product> S save(S entity);
+
+    // Query-cached per search term: the ids are kept and the rows come from the entity cache. Any
+    // write to products (the ProductWritesRepository statements included) invalidates every cached search.
+    @QueryHints({@QueryHint(name = HINT_CACHEABLE, value = "true"), @QueryHint(name = HINT_CACHE_REGION, value = NAME_SEARCH_REGION)})
     List<Product> findByNameContainingIgnoreCase(String name);
+
+    // Keyset (seek) pagination: each page starts from the last key seen, never from an OFFSET.
+    List<Product> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+
+    List<Product> findByNameContainingIgnoreCaseOrderByNameAscIdAsc(String name, Limit limit);
+
+    // "name >= :name" keeps the seek predicate index-friendly; the OR only breaks ties on id.
+    @Query("select p from Product p where upper(p.name) like upper(concat('%', :#{escape(#q)}, '%')) escape :#{escapeCharacter()} "
+            + "and p.name >= :name and (p.name > :name or p.id > :id) order by p.name, p.id")
+    List<Product> findByNameContainingIgnoreCaseAfter(@Param("q") String q, @Param("name") String name,
+                                                      @Param("id") Long id, Limit limit);
+
+    // Scrolls the table in id order; callers must consume it inside a transaction and close it.
+    // Kept out of the entity cache, which a full scan would flush.
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "500"), @QueryHint(name = HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HINT_CACHE_MODE, value = "IGNORE")})
+    @Query("select p from Product p order by p.id")
+    Stream<Product> streamAllByOrderByIdAsc();
+
+    @Query("select p.id as id, p.name as name from Product p")
+    List<ProductName> findAllNames();
+
+    // Native, so tombstones are included. Seeks on (updated_at, id), which idx_products_updated_at_id covers;
+    // rows newer than :until are left for a later call (see ProductSyncService).
+    // Bypasses the entity cache: a tombstone put there would be found by findById despite @SQLRestriction.
+    @QueryHints(@QueryHint(name = HINT_CACHE_MODE, value = "IGNORE"))
+    @Query(value = "select * from products p where p.updated_at < :until "
+            + "and (p.updated_at > :ts or (p.updated_at = :ts and p.id > :id)) "
+            + "order by p.updated_at, p.id limit :limit", nativeQuery = true)
+    List<Product> findChangedAfter(@Param("ts") OffsetDateTime ts, @Param("id") Long id,
+                                   @Param("until") OffsetDateTime until, @Param("limit") int limit);
 }
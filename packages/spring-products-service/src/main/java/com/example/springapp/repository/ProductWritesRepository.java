@@ -0,0 +1,21 @@
+package com.example.springapp.repository;
+
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+
+/**
+ * Single-statement writes: the affected-row count tells the caller whether the row existed (and,
+ * when a version is given, whether it was still current) without loading it first. Only the
+ * written product leaves the second-level cache; the other cached products stay.
+ */
+public interface ProductWritesRepository {
+
+    @Transactional
+    int updateById(Long id, Long version, String name, String description, BigDecimal price, OffsetDateTime now);
+
+    /** Soft delete: the row becomes a tombstone so delta sync can report the deletion. */
+    @Transactional
+    int removeById(Long id, OffsetDateTime now);
+}
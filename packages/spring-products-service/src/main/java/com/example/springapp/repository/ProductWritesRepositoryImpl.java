@@ -0,0 +1,71 @@
+package com.example.springapp.repository;
+
+import com.example.springapp.model.Product;
+import jakarta.persistence.Cache;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+import org.hibernate.query.NativeQuery;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+
+// Spring Data picks this up as the ProductWritesRepository fragment of ProductRepository.
+// A JPQL bulk update (or a native one on the products query space) makes Hibernate clear the whole
+// product-entities region; these statements name a query space no entity maps to, so Hibernate
+// leaves the caches alone, and evict the written row and the cached searches themselves.
+class ProductWritesRepositoryImpl implements ProductWritesRepository {
+    private static final String ROW_WRITES = "products-row-writes";
+
+    @PersistenceContext
+    private EntityManager em;
+
+    @Override
+    public int updateById(Long id, Long version, String name, String description, BigDecimal price, OffsetDateTime now) {
+        return write(id, em.createNativeQuery("update products set name = :name, description = :description, price = :price, "
+                        + "updated_at = :now, version = version + 1 "
+                        + "where id = :id and deleted = false and (cast(:version as bigint) is null or version = :version)")
+                .setParameter("name", name)
+                .setParameter("description", description)
+                .setParameter("price", price)
+                .setParameter("now", now)
+                .setParameter("id", id)
+                .setParameter("version", version));
+    }
+
+    @Override
+    public int removeById(Long id, OffsetDateTime now) {
+        return write(id, em.createNativeQuery("update products set deleted = true, updated_at = :now, version = version + 1 "
+                        + "where id = :id and deleted = false")
+                .setParameter("now", now)
+                .setParameter("id", id));
+    }
+
+    private int write(Long id, Query update) {
+        // what @Modifying(flushAutomatically = true, clearAutomatically = true) did for the JPQL version
+        em.flush();
+        int rows = update.unwrap(NativeQuery.class).addSynchronizedQuerySpace(ROW_WRITES).executeUpdate();
+        em.clear();
+        if (rows > 0) {
+            evict(id);
+            // again once committed: a reader between the first eviction and the commit may have
+            // cached the row (or a search) as it was before the write
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    evict(id);
+                }
+            });
+        }
+        return rows;
+    }
+
+    private void evict(Long id) {
+        Cache cache = em.getEntityManagerFactory().getCache();
+        cache.evict(Product.class, id);
+        // a rename or delete can change any search's matches
+        cache.unwrap(org.hibernate.Cache.class).evictQueryRegion(ProductRepository.NAME_SEARCH_REGION);
+    }
+}
@@ -0,0 +1,118 @@
+package com.example.springapp.repository;
+
+import com.example.springapp.model.Product;
+import io.r2dbc.spi.Readable;
+import org.springframework.context.annotation.Profile;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.r2dbc.core.DatabaseClient.GenericExecuteSpec;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+
+/**
+ * Non-blocking access to the {@code products} table over R2DBC, with the same semantics as
+ * {@link ProductRepository}: tombstones are invisible, writes are single statements, and ids come
+ * from {@code products_seq}. Rows are streamed as the subscriber requests them.
+ */
+@Profile("reactive")
+@Repository
+public class ReactiveProductRepository {
+    private static final String COLUMNS = "id, name, description, price, created_at, updated_at, deleted, version";
+
+    private final DatabaseClient db;
+
+    public ReactiveProductRepository(DatabaseClient db) { this.db = db; }
+
+    public Flux<Product> findAll() {
+        return db.sql("select " + COLUMNS + " from products where deleted = false order by id")
+                .map(ReactiveProductRepository::toProduct)
+                .all();
+    }
+
+    public Flux<Product> findByNameContainingIgnoreCase(String name) {
+        return db.sql("select " + COLUMNS + " from products where deleted = false "
+                        + "and upper(name) like upper(:pattern) escape '\\' order by id")
+                .bind("pattern", "%" + escapeLike(name) + "%")
+                .map(ReactiveProductRepository::toProduct)
+                .all();
+    }
+
+    public Mono<Product> findById(Long id) {
+        return db.sql("select " + COLUMNS + " from products where id = :id and deleted = false")
+                .bind("id", id)
+                .map(ReactiveProductRepository::toProduct)
+                .one();
+    }
+
+    public Mono<Boolean> existsById(Long id) {
+        return db.sql("select count(*) from products where id = :id and deleted = false")
+                .bind("id", id)
+                .map(row -> row.get(0, Long.class) > 0)
+                .one();
+    }
+
+    public Mono<Product> insert(Product p) {
+        // each sequence value tops its own pooled block of 50, so Hibernate never hands out the same id
+        return db.sql("select next value for products_seq")
+                .map(row -> row.get(0, Long.class))
+                .one()
+                .flatMap(id -> {
+                    p.setId(id);
+                    p.setVersion(0L);
+                    GenericExecuteSpec insert = db.sql("insert into products (" + COLUMNS + ") "
+                                    + "values (:id, :name, :description, :price, :createdAt, :updatedAt, false, 0)")
+                            .bind("id", id)
+                            .bind("name", p.getName())
+                            .bind("createdAt", p.getCreatedAt())
+                            .bind("updatedAt", p.getUpdatedAt());
+                    insert = bindNullable(insert, "description", p.getDescription(), String.class);
+                    insert = bindNullable(insert, "price", p.getPrice(), BigDecimal.class);
+                    return insert.fetch().rowsUpdated().thenReturn(p);
+                });
+    }
+
+    public Mono<Long> updateById(Long id, Long version, String name, String description, BigDecimal price, OffsetDateTime now) {
+        GenericExecuteSpec update = db.sql("update products set name = :name, description = :description, price = :price, "
+                        + "updated_at = :now, version = version + 1 where id = :id and deleted = false"
+                        + (version == null ? "" : " and version = :version"))
+                .bind("id", id)
+                .bind("name", name)
+                .bind("now", now);
+        if (version != null) update = update.bind("version", version);
+        update = bindNullable(update, "description", description, String.class);
+        update = bindNullable(update, "price", price, BigDecimal.class);
+        return update.fetch().rowsUpdated();
+    }
+
+    public Mono<Long> removeById(Long id, OffsetDateTime now) {
+        return db.sql("update products set deleted = true, updated_at = :now, version = version + 1 where id = :id and deleted = false")
+                .bind("id", id)
+                .bind("now", now)
+                .fetch()
+                .rowsUpdated();
+    }
+
+    private static GenericExecuteSpec bindNullable(GenericExecuteSpec spec, String name, Object value, Class<?> type) {
+        return value == null ? spec.bindNull(name, type) : spec.bind(name, value);
+    }
+
+    private static String escapeLike(String s) {
+        return s.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+
+    private static Product toProduct(Readable row) {
+        Product p = new Product();
+        p.setId(row.get("id", Long.class));
+        p.setName(row.get("name", String.class));
+        p.setDescription(row.get("description", String.class));
+        p.setPrice(row.get("price", BigDecimal.class));
+        p.setCreatedAt(row.get("created_at", OffsetDateTime.class));
+        p.setUpdatedAt(row.get("updated_at", OffsetDateTime.class));
+        p.setDeleted(Boolean.TRUE.equals(row.get("deleted", Boolean.class)));
+        p.setVersion(row.get("version", Long.class));
+        return p;
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.springapp.service;
+
+import com.example.springapp.event.CatalogReloadedEvent;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Loads the catalog from {@code products.dump.load} at startup, in place of whatever data.sql put
+ * in the table. Runs after the web server has started but before the application is ready, so the
+ * readiness probe reports OUT_OF_SERVICE for as long as the load takes. A dump that cannot be read
+ * fails startup.
+ */
+@Profile("!offheap")
+// before ProductWarmup, which should warm the loaded catalog
+@Order(0)
+@Component
+public class CatalogDumpLoader implements ApplicationRunner {
+    private static final Logger log = LoggerFactory.getLogger(CatalogDumpLoader.class);
+
+    private final CatalogDumpService dumps;
+    private final EntityManagerFactory entityManagerFactory;
+    private final ApplicationEventPublisher events;
+    private final String dump;
+
+    public CatalogDumpLoader(CatalogDumpService dumps, EntityManagerFactory entityManagerFactory,
+                             ApplicationEventPublisher events, @Value("${products.dump.load:}") String dump) {
+        this.dumps = dumps;
+        this.entityManagerFactory = entityManagerFactory;
+        this.events = events;
+        this.dump = dump;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws IOException {
+        // checked here, not with @ConditionalOnProperty, so an AOT-processed build (the pom's cds
+        // profile) still decides at startup
+        if (dump.isBlank()) return;
+        long started = System.nanoTime();
+        long loaded;
+        try (InputStream in = Files.newInputStream(Path.of(dump))) {
+            loaded = dumps.load(in);
+        }
+        // the rows were written behind Hibernate's back; nothing it cached before the load is valid
+        entityManagerFactory.unwrap(SessionFactory.class).getCache().evictAllRegions();
+        events.publishEvent(new CatalogReloadedEvent(loaded));
+        log.info("Loaded {} products from {} in {} ms", loaded, dump, (System.nanoTime() - started) / 1_000_000);
+    }
+}
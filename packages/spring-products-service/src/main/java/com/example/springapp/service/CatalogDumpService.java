@@ -0,0 +1,257 @@
+package com.example.springapp.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.zip.CRC32C;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Dumps the {@code products} table, tombstones included, to a compact binary file and loads one
+ * back in place of the table's contents. Both directions stream: the export scrolls a forward-only
+ * result set and the load sends JDBC batches of {@code products.dump.batch-size} rows as it reads,
+ * so neither holds the catalog in memory.
+ * <p>
+ * Layout, big-endian: {@code "PDMP"}, format version, then per row a {@code 1} tag, a flags byte
+ * (deleted, and which nullable columns are null), id, name and description as length-prefixed
+ * UTF-8, price as unscaled bytes and scale, timestamps as epoch second, nano and offset, version.
+ * A {@code 0} tag, the row count and a CRC32C of everything before it close the file.
+ */
+// needs a transaction manager and a DataSource, which the offheap profile has neither of
+@Profile("!offheap")
+@Service
+public class CatalogDumpService {
+    public static final String MEDIA_TYPE = "application/x-products-dump";
+
+    private static final int MAGIC = 0x50444D50; // "PDMP"
+    private static final int FORMAT = 1;
+    private static final int ROW = 1;
+    private static final int END = 0;
+
+    private static final int DELETED = 1;
+    private static final int NO_DESCRIPTION = 1 << 1;
+    private static final int NO_PRICE = 1 << 2;
+    private static final int NO_CREATED_AT = 1 << 3;
+    private static final int NO_UPDATED_AT = 1 << 4;
+    private static final int NO_VERSION = 1 << 5;
+
+    private static final String COLUMNS = "id, name, description, price, created_at, updated_at, deleted, version";
+    // the sequence starts here in Product's mapping too
+    private static final long FIRST_GENERATED_ID = 1000;
+    private static final int ID_ALLOCATION = 50;
+
+    private final JdbcTemplate jdbc;
+    private final TransactionTemplate tx;
+    private final int batchSize;
+
+    public CatalogDumpService(JdbcTemplate jdbc, TransactionTemplate tx,
+                              @Value("${products.dump.batch-size:1000}") int batchSize) {
+        this.jdbc = jdbc;
+        this.tx = tx;
+        this.batchSize = batchSize;
+    }
+
+    /** Writes every row in id order and returns how many were written. */
+    @Transactional(readOnly = true)
+    public long export(OutputStream out) throws IOException {
+        CheckedOutputStream checked = new CheckedOutputStream(new BufferedOutputStream(out, 64 * 1024), new CRC32C());
+        DataOutputStream data = new DataOutputStream(checked);
+        data.writeInt(MAGIC);
+        data.writeInt(FORMAT);
+        long[] count = {0};
+        try {
+            jdbc.query(con -> {
+                PreparedStatement ps = con.prepareStatement("SELECT " + COLUMNS + " FROM products ORDER BY id",
+                        ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                ps.setFetchSize(batchSize);
+                return ps;
+            }, (RowCallbackHandler) rs -> {
+                try {
+                    writeRow(data, rs);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                count[0]++;
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        data.writeByte(END);
+        data.writeLong(count[0]);
+        data.writeInt((int) checked.getChecksum().getValue());
+        data.flush();
+        return count[0];
+    }
+
+    /**
+     * Replaces the table's contents with the rows of a dump, in one transaction: a dump that turns
+     * out to be truncated or damaged leaves the table as it was. Restarts {@code products_seq}
+     * above the highest loaded id. Returns the number of rows loaded.
+     */
+    public long load(InputStream in) throws IOException {
+        CheckedInputStream checked = new CheckedInputStream(new BufferedInputStream(in, 64 * 1024), new CRC32C());
+        DataInputStream data = new DataInputStream(checked);
+        if (data.readInt() != MAGIC) throw new IOException("not a products dump");
+        int format = data.readInt();
+        if (format != FORMAT) throw new IOException("unsupported products dump format " + format);
+        try {
+            return tx.execute(status -> {
+                try {
+                    return load(data, checked);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private long load(DataInputStream data, CheckedInputStream checked) throws IOException {
+        jdbc.update("DELETE FROM products");
+        Object[][] batch = new Object[batchSize][];
+        int n = 0;
+        long count = 0;
+        long maxId = 0;
+        while (data.readByte() == ROW) {
+            Object[] row = readRow(data);
+            maxId = Math.max(maxId, (Long) row[0]);
+            batch[n++] = row;
+            if (n == batchSize) {
+                insert(batch, n);
+                n = 0;
+            }
+            count++;
+        }
+        insert(batch, n);
+        long written = data.readLong();
+        int expected = (int) checked.getChecksum().getValue();
+        if (data.readInt() != expected || written != count) {
+            throw new IOException("damaged products dump: checksum mismatch");
+        }
+        // pooled ids are handed out from (restart value - allocation + 1) up
+        long restart = Math.max(FIRST_GENERATED_ID, maxId + ID_ALLOCATION);
+        jdbc.execute("ALTER SEQUENCE products_seq RESTART WITH " + restart);
+        return count;
+    }
+
+    private void insert(Object[][] batch, int n) {
+        if (n == 0) return;
+        jdbc.batchUpdate("INSERT INTO products (" + COLUMNS + ") VALUES (?, ?, ?, ?, ?, ?, ?, ?)",
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        Object[] row = batch[i];
+                        ps.setLong(1, (Long) row[0]);
+                        ps.setString(2, (String) row[1]);
+                        ps.setString(3, (String) row[2]);
+                        ps.setBigDecimal(4, (BigDecimal) row[3]);
+                        ps.setObject(5, row[4], Types.TIMESTAMP_WITH_TIMEZONE);
+                        ps.setObject(6, row[5], Types.TIMESTAMP_WITH_TIMEZONE);
+                        ps.setBoolean(7, (Boolean) row[6]);
+                        ps.setObject(8, row[7], Types.BIGINT);
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return n;
+                    }
+                });
+    }
+
+    private static void writeRow(DataOutputStream out, ResultSet rs) throws SQLException, IOException {
+        String description = rs.getString(3);
+        BigDecimal price = rs.getBigDecimal(4);
+        OffsetDateTime createdAt = rs.getObject(5, OffsetDateTime.class);
+        OffsetDateTime updatedAt = rs.getObject(6, OffsetDateTime.class);
+        long version = rs.getLong(8);
+        boolean noVersion = rs.wasNull();
+        int flags = (rs.getBoolean(7) ? DELETED : 0)
+                | (description == null ? NO_DESCRIPTION : 0)
+                | (price == null ? NO_PRICE : 0)
+                | (createdAt == null ? NO_CREATED_AT : 0)
+                | (updatedAt == null ? NO_UPDATED_AT : 0)
+                | (noVersion ? NO_VERSION : 0);
+        out.writeByte(ROW);
+        out.writeByte(flags);
+        out.writeLong(rs.getLong(1));
+        writeText(out, rs.getString(2));
+        if (description != null) writeText(out, description);
+        if (price != null) {
+            byte[] unscaled = price.unscaledValue().toByteArray();
+            out.writeByte(unscaled.length);
+            out.write(unscaled);
+            out.writeInt(price.scale());
+        }
+        if (createdAt != null) writeTime(out, createdAt);
+        if (updatedAt != null) writeTime(out, updatedAt);
+        if (!noVersion) out.writeLong(version);
+    }
+
+    /** id, name, description, price, created_at, updated_at, deleted, version: the INSERT's parameters. */
+    private static Object[] readRow(DataInputStream in) throws IOException {
+        int flags = in.readUnsignedByte();
+        long id = in.readLong();
+        String name = readText(in);
+        String description = (flags & NO_DESCRIPTION) != 0 ? null : readText(in);
+        BigDecimal price = null;
+        if ((flags & NO_PRICE) == 0) {
+            byte[] unscaled = new byte[in.readUnsignedByte()];
+            in.readFully(unscaled);
+            price = new BigDecimal(new BigInteger(unscaled), in.readInt());
+        }
+        OffsetDateTime createdAt = (flags & NO_CREATED_AT) != 0 ? null : readTime(in);
+        OffsetDateTime updatedAt = (flags & NO_UPDATED_AT) != 0 ? null : readTime(in);
+        Long version = (flags & NO_VERSION) != 0 ? null : in.readLong();
+        return new Object[] {id, name, description, price, createdAt, updatedAt, (flags & DELETED) != 0, version};
+    }
+
+    private static void writeText(DataOutputStream out, String s) throws IOException {
+        byte[] utf8 = s.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(utf8.length);
+        out.write(utf8);
+    }
+
+    private static String readText(DataInputStream in) throws IOException {
+        byte[] utf8 = new byte[in.readInt()];
+        in.readFully(utf8);
+        return new String(utf8, StandardCharsets.UTF_8);
+    }
+
+    private static void writeTime(DataOutputStream out, OffsetDateTime t) throws IOException {
+        out.writeLong(t.toEpochSecond());
+        out.writeInt(t.getNano());
+        out.writeInt(t.getOffset().getTotalSeconds());
+    }
+
+    private static OffsetDateTime readTime(DataInputStream in) throws IOException {
+        long seconds = in.readLong();
+        int nanos = in.readInt();
+        return OffsetDateTime.ofInstant(Instant.ofEpochSecond(seconds, nanos), ZoneOffset.ofTotalSeconds(in.readInt()));
+    }
+}
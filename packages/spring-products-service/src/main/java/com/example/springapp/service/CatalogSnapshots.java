@@ -0,0 +1,121 @@
+package com.example.springapp.service;
+
+import com.example.springapp.model.Product;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Pre-serialized JSON bodies of {@code GET /api/products}: the unfiltered list and the most
+ * recently used searches, each stamped with the {@link CatalogVersion} it was built from. Every
+ * write bumps that version, which is what invalidates them; there is nothing to evict. A stale
+ * body is rebuilt on the next read by one thread while concurrent readers keep getting the
+ * previous one (with its older ETag); only a body that was never built makes readers wait.
+ */
+@Service
+public class CatalogSnapshots {
+    private final ProductService service;
+    private final ObjectWriter writer;
+    private final boolean enabled;
+    private final boolean gzip;
+    private final Slot all = new Slot(null);
+    private final Cache<String, Slot> searches;
+
+    public CatalogSnapshots(ProductService service, ObjectMapper mapper,
+                            @Value("${products.snapshot.enabled:true}") boolean enabled,
+                            @Value("${products.snapshot.gzip:true}") boolean gzip,
+                            @Value("${products.snapshot.max-searches:64}") int maxSearches) {
+        this.service = service;
+        this.writer = mapper.writerFor(mapper.getTypeFactory().constructCollectionType(List.class, Product.class));
+        this.enabled = enabled;
+        this.gzip = gzip;
+        this.searches = Caffeine.newBuilder().maximumSize(maxSearches).build();
+    }
+
+    /** The body of {@code listAll(q)}, possibly as of a slightly older catalog version while it is rebuilt. */
+    public Snapshot get(String q) {
+        boolean unfiltered = q == null || q.isBlank();
+        if (!enabled) return build(unfiltered ? null : q, false);
+        return (unfiltered ? all : searches.get(q, Slot::new)).current();
+    }
+
+    private Snapshot build(String q, boolean compress) {
+        // read the version first: a write racing the query can only make the snapshot look older
+        String version = service.catalogVersion();
+        try {
+            byte[] json = writer.writeValueAsBytes(service.listAll(q));
+            return new Snapshot(version, json, compress ? gzip(json) : null);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static byte[] gzip(byte[] json) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(json.length / 4 + 64);
+        try (GZIPOutputStream out = new GZIPOutputStream(bytes)) {
+            out.write(json);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private final class Slot {
+        private final String q;
+        private final AtomicReference<Snapshot> snapshot = new AtomicReference<>();
+        private final ReentrantLock rebuild = new ReentrantLock();
+
+        Slot(String q) {
+            this.q = q;
+        }
+
+        Snapshot current() {
+            Snapshot s = snapshot.get();
+            if (s != null && s.version.equals(service.catalogVersion())) return s;
+            if (s == null) {
+                rebuild.lock();
+            } else if (!rebuild.tryLock()) {
+                return s;
+            }
+            try {
+                Snapshot latest = snapshot.get();
+                // another reader may have rebuilt it while this one waited for the lock
+                if (latest != null && latest.version.equals(service.catalogVersion())) return latest;
+                Snapshot fresh = build(q, gzip);
+                snapshot.set(fresh);
+                return fresh;
+            } finally {
+                rebuild.unlock();
+            }
+        }
+    }
+
+    /** A serialized list body; {@code gzip} is the same body pre-compressed, or null. */
+    public static final class Snapshot {
+        private final String version;
+        private final byte[] json;
+        private final byte[] gzip;
+
+        public Snapshot(String version, byte[] json, byte[] gzip) {
+            this.version = version;
+            this.json = json;
+            this.gzip = gzip;
+        }
+
+        public String version() { return version; }
+        public byte[] json() { return json; }
+        public byte[] gzip() { return gzip; }
+    }
+}
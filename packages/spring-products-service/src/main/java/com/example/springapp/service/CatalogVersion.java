@@ -0,0 +1,33 @@
+package com.example.springapp.service;
+
+import com.example.springapp.event.CatalogReloadedEvent;
+import com.example.springapp.event.ProductChangedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Version of the catalog as a whole, used as the ETag of list and search responses. Every
+ * product write bumps it, so a conditional list request is answered without a query. The
+ * per-boot epoch keeps a value handed out by an earlier run from matching after a restart.
+ */
+@Component
+public class CatalogVersion {
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private final AtomicLong counter = new AtomicLong();
+
+    @EventListener
+    public void onProductChanged(ProductChangedEvent event) {
+        counter.incrementAndGet();
+    }
+
+    @EventListener
+    public void onCatalogReloaded(CatalogReloadedEvent event) {
+        counter.incrementAndGet();
+    }
+
+    public String current() {
+        return epoch + "-" + counter.get();
+    }
+}
@@ -0,0 +1,197 @@
+package com.example.springapp.service;
+
+import com.example.springapp.event.CatalogReloadedEvent;
+import com.example.springapp.event.ProductChangedEvent;
+import com.example.springapp.repository.CatalogRepository;
+import com.example.springapp.repository.ProductName;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory trigram index over product names, used to answer {@code q} searches without a
+ * {@code LIKE '%q%'} table scan. Kept current from {@link ProductChangedEvent}s, loaded at startup
+ * and rebuilt when a {@link CatalogReloadedEvent} says the table was replaced; until then, and for
+ * needles shorter than a trigram, callers fall back to the query.
+ */
+@Component
+public class NameSearchIndex {
+    static final int GRAM = 3;
+    static final int MAX_CANDIDATES = 2_000;
+
+    private final CatalogRepository repo;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, String> names = new HashMap<>();
+    private final Map<String, Postings> postings = new HashMap<>();
+    // ids written while the initial load was reading; their event state wins over the loaded row
+    private Set<Long> changedWhileLoading = new HashSet<>();
+    private volatile boolean ready;
+
+    public NameSearchIndex(CatalogRepository repo) { this.repo = repo; }
+
+    /** Loads the index, or reloads it, from the table. */
+    public void load() {
+        load(repo.findAllNames());
+    }
+
+    /** At startup, unless {@link ProductWarmup} has loaded it already to warm the searches. */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onReady() {
+        if (!ready) load();
+    }
+
+    /**
+     * The table was replaced behind Hibernate's back (a dump load), so no event names what changed:
+     * drops everything and loads again. Searches fall back to the query while it does.
+     */
+    @EventListener
+    public void onCatalogReloaded(CatalogReloadedEvent event) {
+        lock.writeLock().lock();
+        try {
+            ready = false;
+            names.clear();
+            postings.clear();
+            changedWhileLoading = new HashSet<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        load();
+    }
+
+    void load(List<ProductName> rows) {
+        lock.writeLock().lock();
+        try {
+            for (ProductName row : rows) {
+                if (changedWhileLoading == null || !changedWhileLoading.contains(row.getId())) {
+                    remove(row.getId());
+                    put(row.getId(), row.getName());
+                }
+            }
+            changedWhileLoading = null;
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @EventListener
+    public void onProductChanged(ProductChangedEvent event) {
+        lock.writeLock().lock();
+        try {
+            remove(event.getId());
+            if (event.getType() != ProductChangedEvent.Type.DELETED) put(event.getId(), event.getProduct().getName());
+            if (changedWhileLoading != null) changedWhileLoading.add(event.getId());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Ids, in ascending order, whose indexed name contains {@code q} ignoring case. Empty when the
+     * index cannot answer: not loaded yet, {@code q} shorter than a trigram, or too many matches
+     * for a single batch fetch.
+     */
+    public Optional<List<Long>> candidateIds(String q) {
+        String needle = normalize(q);
+        if (!ready || needle.length() < GRAM) return Optional.empty();
+        lock.readLock().lock();
+        try {
+            List<Postings> lists = new ArrayList<>();
+            for (String gram : grams(needle)) {
+                Postings list = postings.get(gram);
+                if (list == null) return Optional.of(List.of());
+                lists.add(list);
+            }
+            lists.sort(Comparator.comparingInt(list -> list.size));
+            long[] ids = Arrays.copyOf(lists.get(0).ids, lists.get(0).size);
+            int n = ids.length;
+            for (int i = 1; i < lists.size() && n > 0; i++) n = lists.get(i).retainIn(ids, n);
+            List<Long> matches = new ArrayList<>();
+            for (int i = 0; i < n; i++) {
+                if (names.get(ids[i]).contains(needle)) {
+                    if (matches.size() == MAX_CANDIDATES) return Optional.empty();
+                    matches.add(ids[i]);
+                }
+            }
+            return Optional.of(matches);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Same comparison as {@code upper(name) like upper('%q%')}. */
+    public static boolean matches(String name, String q) {
+        return name != null && normalize(name).contains(normalize(q));
+    }
+
+    private static String normalize(String s) {
+        return s.toUpperCase(Locale.ROOT);
+    }
+
+    private static Set<String> grams(String normalized) {
+        Set<String> grams = new HashSet<>();
+        for (int i = 0; i + GRAM <= normalized.length(); i++) grams.add(normalized.substring(i, i + GRAM));
+        return grams;
+    }
+
+    private void put(Long id, String name) {
+        if (name == null) return;
+        String normalized = normalize(name);
+        names.put(id, normalized);
+        for (String gram : grams(normalized)) postings.computeIfAbsent(gram, g -> new Postings()).add(id);
+    }
+
+    private void remove(Long id) {
+        String old = names.remove(id);
+        if (old == null) return;
+        for (String gram : grams(old)) {
+            Postings list = postings.get(gram);
+            if (list != null && list.remove(id) && list.size == 0) postings.remove(gram);
+        }
+    }
+
+    /** Sorted primitive id list; new ids come from a sequence, so adds are almost always appends. */
+    private static final class Postings {
+        private long[] ids = new long[4];
+        private int size;
+
+        void add(long id) {
+            int at = Arrays.binarySearch(ids, 0, size, id);
+            if (at >= 0) return;
+            at = -at - 1;
+            if (size == ids.length) ids = Arrays.copyOf(ids, size + (size >> 1) + 1);
+            System.arraycopy(ids, at, ids, at + 1, size - at);
+            ids[at] = id;
+            size++;
+        }
+
+        boolean remove(long id) {
+            int at = Arrays.binarySearch(ids, 0, size, id);
+            if (at < 0) return false;
+            System.arraycopy(ids, at + 1, ids, at, size - at - 1);
+            size--;
+            return true;
+        }
+
+        /** Compacts {@code candidates[0..n)} to the ids also present here and returns the new length. */
+        int retainIn(long[] candidates, int n) {
+            int kept = 0;
+            for (int i = 0; i < n; i++) {
+                if (Arrays.binarySearch(ids, 0, size, candidates[i]) >= 0) candidates[kept++] = candidates[i];
+            }
+            return kept;
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package com.example.springapp.service;
+
+import com.example.springapp.dto.BatchItemResult;
+import com.example.springapp.dto.BatchItemResult.Status;
+import com.example.springapp.dto.ProductDto;
+import com.example.springapp.event.ProductChangedEvent;
+import com.example.springapp.exception.BadRequestException;
+import com.example.springapp.model.Product;
+import com.example.springapp.repository.ProductRepository;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Bulk create/update. Every item is validated up front; valid items are written in chunks of
+ * {@code products.batch.chunk-size}, one transaction per chunk, so Hibernate can send each
+ * chunk's INSERTs or UPDATEs as JDBC batches. An update chunk that loses a version race at
+ * commit is retried item by item, and the items that lose again are reported as conflicts.
+ */
+// needs a transaction manager and an EntityManager, which the offheap profile has neither of
+@Profile("!offheap")
+@Service
+public class ProductBatchService {
+    private final ProductRepository repo;
+    private final TransactionTemplate tx;
+    private final Validator validator;
+    private final ApplicationEventPublisher events;
+    private final int chunkSize;
+    private final int maxItems;
+
+    public ProductBatchService(ProductRepository repo, TransactionTemplate tx, Validator validator,
+                               ApplicationEventPublisher events,
+                               @Value("${products.batch.chunk-size:500}") int chunkSize,
+                               @Value("${products.batch.max-items:10000}") int maxItems) {
+        this.repo = repo;
+        this.tx = tx;
+        this.validator = validator;
+        this.events = events;
+        this.chunkSize = chunkSize;
+        this.maxItems = maxItems;
+    }
+
+    public List<BatchItemResult> createAll(List<ProductDto> dtos) {
+        BatchItemResult[] results = new BatchItemResult[checkSize(dtos)];
+        for (List<Integer> chunk : chunks(validate(dtos, results, false))) {
+            List<Product> entities = chunk.stream().map(i -> apply(new Product(), dtos.get(i))).toList();
+            List<Product> saved = tx.execute(status -> repo.saveAll(entities));
+            for (int k = 0; k < chunk.size(); k++) {
+                Product p = saved.get(k);
+                results[chunk.get(k)] = new BatchItemResult(chunk.get(k), p.getId(), Status.CREATED, null);
+                events.publishEvent(ProductChangedEvent.created(p));
+            }
+        }
+        return Arrays.asList(results);
+    }
+
+    public List<BatchItemResult> updateAll(List<ProductDto> dtos) {
+        BatchItemResult[] results = new BatchItemResult[checkSize(dtos)];
+        for (List<Integer> chunk : chunks(validate(dtos, results, true))) {
+            List<Product> updated;
+            try {
+                updated = update(chunk, dtos, results);
+            } catch (OptimisticLockingFailureException e) {
+                // another writer committed one of these rows between the read and the flush; the
+                // chunk rolled back as a whole, so it is redone one item at a time to tell which
+                updated = new ArrayList<>();
+                for (int i : chunk) {
+                    try {
+                        updated.addAll(update(List.of(i), dtos, results));
+                    } catch (OptimisticLockingFailureException again) {
+                        results[i] = conflict(i, dtos.get(i).getId());
+                    }
+                }
+            }
+            updated.forEach(p -> events.publishEvent(ProductChangedEvent.updated(p)));
+        }
+        return Arrays.asList(results);
+    }
+
+    /** Updates {@code chunk} in one transaction and returns the products it wrote. */
+    private List<Product> update(List<Integer> chunk, List<ProductDto> dtos, BatchItemResult[] results) {
+        List<Product> updated = new ArrayList<>();
+        tx.executeWithoutResult(status -> {
+            List<Long> ids = chunk.stream().map(i -> dtos.get(i).getId()).toList();
+            Map<Long, Product> existing = repo.findAllById(ids).stream()
+                    .collect(Collectors.toMap(Product::getId, Function.identity()));
+            for (int i : chunk) {
+                Product p = existing.get(dtos.get(i).getId());
+                Long expected = dtos.get(i).getVersion();
+                if (p == null) {
+                    results[i] = new BatchItemResult(i, dtos.get(i).getId(), Status.NOT_FOUND, List.of("Product not found"));
+                } else if (expected != null && !expected.equals(p.getVersion())) {
+                    results[i] = conflict(i, p.getId());
+                } else {
+                    // dirty checking flushes these as batched UPDATEs at commit
+                    updated.add(apply(p, dtos.get(i)));
+                    results[i] = new BatchItemResult(i, p.getId(), Status.UPDATED, null);
+                }
+            }
+        });
+        return updated;
+    }
+
+    private static BatchItemResult conflict(int index, Long id) {
+        return new BatchItemResult(index, id, Status.CONFLICT, List.of("Product was modified concurrently"));
+    }
+
+    private int checkSize(List<ProductDto> dtos) {
+        if (dtos.isEmpty() || dtos.size() > maxItems) {
+            throw new BadRequestException("batch must contain between 1 and " + maxItems + " items");
+        }
+        return dtos.size();
+    }
+
+    /** Records INVALID results and returns the indexes of the items that may be written. */
+    private List<Integer> validate(List<ProductDto> dtos, BatchItemResult[] results, boolean requireId) {
+        List<Integer> valid = new ArrayList<>();
+        for (int i = 0; i < dtos.size(); i++) {
+            ProductDto dto = dtos.get(i);
+            List<String> errors = new ArrayList<>();
+            if (dto == null) {
+                errors.add("item must not be null");
+            } else {
+                for (ConstraintViolation<ProductDto> v : validator.validate(dto)) {
+                    errors.add(v.getPropertyPath() + ": " + v.getMessage());
+                }
+                if (requireId && dto.getId() == null) errors.add("id: must not be null");
+            }
+            if (errors.isEmpty()) {
+                valid.add(i);
+            } else {
+                results[i] = new BatchItemResult(i, dto == null ? null : dto.getId(), Status.INVALID, errors);
+            }
+        }
+        return valid;
+    }
+
+    private List<List<Integer>> chunks(List<Integer> indexes) {
+        List<List<Integer>> chunks = new ArrayList<>();
+        for (int from = 0; from < indexes.size(); from += chunkSize) {
+            chunks.add(indexes.subList(from, Math.min(from + chunkSize, indexes.size())));
+        }
+        return chunks;
+    }
+
+    private static Product apply(Product p, ProductDto dto) {
+        p.setName(dto.getName());
+        p.setDescription(dto.getDescription());
+        p.setPrice(dto.getPrice());
+        return p;
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.springapp.service;
+
+import com.example.springapp.config.CacheConfig;
+import com.example.springapp.event.CatalogReloadedEvent;
+import com.example.springapp.event.ProductChangedEvent;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Keeps the {@code products} read-through cache in step with writes: updated products replace the
+ * cached entry, deleted ones are evicted. A put or evict replaces any in-flight load of the same
+ * id, and Caffeine drops a load that completes after being replaced, so a load that started
+ * before the write cannot leave the old row behind. A reloaded catalog clears it.
+ */
+@Component
+public class ProductCacheListener {
+    private final CacheManager cacheManager;
+
+    public ProductCacheListener(CacheManager cacheManager) { this.cacheManager = cacheManager; }
+
+    @EventListener
+    public void onProductChanged(ProductChangedEvent event) {
+        Cache cache = cacheManager.getCache(CacheConfig.PRODUCTS);
+        if (cache == null) return;
+        switch (event.getType()) {
+            case CREATED, UPDATED -> cache.put(event.getId(), event.getProduct());
+            case DELETED -> cache.evict(event.getId());
+        }
+    }
+
+    @EventListener
+    public void onCatalogReloaded(CatalogReloadedEvent event) {
+        Cache cache = cacheManager.getCache(CacheConfig.PRODUCTS);
+        if (cache != null) cache.clear();
+    }
+}
@@ -0,0 +1,222 @@
+package com.example.springapp.service;
+
+import com.example.springapp.event.ProductChangedEvent;
+import com.example.springapp.exception.BadRequestException;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Fans {@link ProductChangedEvent}s out to Server-Sent Events subscribers. Each event gets the next
+ * sequence number, sent as {@code <epoch>-<seq>} with a per-boot epoch as in {@link CatalogVersion},
+ * and is kept in a bounded ring buffer, so a client reconnecting with {@code Last-Event-ID} is
+ * replayed what it missed. Writers only ever offer to a subscriber's bounded queue; a subscriber
+ * that falls behind (or asks for events no longer buffered, or from another epoch) is sent a
+ * {@code resync} event and disconnected, and should re-read the list before subscribing again.
+ */
+@Component
+public class ProductChangeFeed {
+    static final String RESYNC = "resync";
+
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private final int queueSize;
+    private final ExecutorService sender;
+    // a j.u.c lock rather than a monitor, so a virtual-thread writer never pins its carrier here
+    private final ReentrantLock lock = new ReentrantLock();
+    // guarded by lock
+    private final FeedEvent[] ring;
+    private final Set<Subscriber> subscribers = new LinkedHashSet<>();
+    private long lastSeq;
+
+    @Autowired
+    public ProductChangeFeed(@Value("${products.feed.buffer-size:1024}") int bufferSize,
+                             @Value("${products.feed.subscriber-queue:256}") int queueSize,
+                             @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        this(bufferSize, queueSize, newSenderPool(virtualThreads));
+    }
+
+    ProductChangeFeed(int bufferSize, int queueSize, ExecutorService sender) {
+        this.ring = new FeedEvent[bufferSize];
+        this.queueSize = queueSize;
+        this.sender = sender;
+    }
+
+    private static ExecutorService newSenderPool(boolean virtualThreads) {
+        if (virtualThreads) {
+            return Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("product-feed-", 0).factory());
+        }
+        CustomizableThreadFactory threads = new CustomizableThreadFactory("product-feed-");
+        threads.setDaemon(true);
+        // at most one running drain per subscriber, so the pool never outgrows the subscriber count
+        return Executors.newCachedThreadPool(threads);
+    }
+
+    @EventListener
+    public void onProductChanged(ProductChangedEvent change) {
+        lock.lock();
+        try {
+            FeedEvent event = new FeedEvent(++lastSeq, change);
+            ring[slot(event.seq)] = event;
+            List<Subscriber> behind = new ArrayList<>();
+            for (Subscriber s : subscribers) {
+                if (!s.offer(event)) behind.add(s);
+            }
+            behind.forEach(subscribers::remove);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Opens a stream of changes after {@code lastEventId}, or of changes from now on when it is
+     * {@code null}.
+     */
+    public SseEmitter subscribe(String lastEventId) {
+        SseEmitter emitter = new SseEmitter();
+        Subscriber subscriber = new Subscriber(emitter);
+        emitter.onCompletion(() -> unsubscribe(subscriber));
+        emitter.onTimeout(() -> unsubscribe(subscriber));
+        emitter.onError(e -> unsubscribe(subscriber));
+        lock.lock();
+        try {
+            if (lastEventId == null || replay(subscriber, lastEventId.trim())) subscribers.add(subscriber);
+        } finally {
+            lock.unlock();
+        }
+        subscriber.schedule();
+        return emitter;
+    }
+
+    /** Queues the buffered events after {@code lastEventId}; false if they cannot all be replayed. */
+    private boolean replay(Subscriber subscriber, String lastEventId) {
+        int dash = lastEventId.lastIndexOf('-');
+        if (dash < 0 || !lastEventId.substring(0, dash).equals(epoch)) {
+            // from another run, whose sequence numbers mean nothing here
+            subscriber.resync.set(true);
+            return false;
+        }
+        long after;
+        try {
+            after = Long.parseLong(lastEventId.substring(dash + 1));
+        } catch (NumberFormatException e) {
+            throw new BadRequestException("Invalid Last-Event-ID");
+        }
+        long oldest = Math.max(1, lastSeq - ring.length + 1);
+        if (after > lastSeq || after < oldest - 1) {
+            // not handed out by this run, or older than the buffer
+            subscriber.resync.set(true);
+            return false;
+        }
+        for (long seq = after + 1; seq <= lastSeq; seq++) {
+            if (!subscriber.offer(ring[slot(seq)])) return false;
+        }
+        return true;
+    }
+
+    private void unsubscribe(Subscriber subscriber) {
+        subscriber.closed = true;
+        lock.lock();
+        try {
+            subscribers.remove(subscriber);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    int subscriberCount() {
+        lock.lock();
+        try {
+            return subscribers.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    String eventId(long seq) {
+        return epoch + "-" + seq;
+    }
+
+    private int slot(long seq) {
+        return (int) (seq % ring.length);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        sender.shutdownNow();
+    }
+
+    private static final class FeedEvent {
+        final long seq;
+        final ProductChangedEvent change;
+
+        FeedEvent(long seq, ProductChangedEvent change) {
+            this.seq = seq;
+            this.change = change;
+        }
+    }
+
+    /** Drains its queue to the emitter on a sender thread, so a slow connection only ever stalls itself. */
+    private final class Subscriber implements Runnable {
+        private final SseEmitter emitter;
+        private final BlockingQueue<FeedEvent> queue = new ArrayBlockingQueue<>(queueSize);
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        private final AtomicBoolean resync = new AtomicBoolean();
+        private volatile boolean closed;
+
+        Subscriber(SseEmitter emitter) { this.emitter = emitter; }
+
+        boolean offer(FeedEvent event) {
+            if (!queue.offer(event)) resync.set(true);
+            schedule();
+            return !resync.get();
+        }
+
+        void schedule() {
+            if (!closed && scheduled.compareAndSet(false, true)) sender.execute(this);
+        }
+
+        @Override
+        public void run() {
+            try {
+                if (resync.get()) {
+                    closed = true;
+                    emitter.send(SseEmitter.event().name(RESYNC).data(RESYNC));
+                    emitter.complete();
+                    return;
+                }
+                for (FeedEvent event; (event = queue.poll()) != null; ) {
+                    emitter.send(SseEmitter.event()
+                            .id(eventId(event.seq))
+                            .name(event.change.getType().name().toLowerCase(Locale.ROOT))
+                            .data(event.change, MediaType.APPLICATION_JSON));
+                }
+            } catch (IOException | IllegalStateException e) {
+                // client went away or the emitter already completed
+                unsubscribe(this);
+                return;
+            } finally {
+                scheduled.set(false);
+            }
+            // an offer may have landed after the last poll but before scheduled was cleared
+            if (!queue.isEmpty() || resync.get()) schedule();
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.springapp.service;
+
+import com.example.springapp.exception.BadRequestException;
+import com.example.springapp.model.Product;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Opaque keyset cursor. Plain listings seek on {@code id}; searches seek on {@code (name, id)}
+ * so the cursor also carries the name of the last row returned.
+ */
+final class ProductCursor {
+    private static final char SEPARATOR = ':';
+
+    final Long id;
+    final String name;
+
+    private ProductCursor(Long id, String name) {
+        this.id = id;
+        this.name = name;
+    }
+
+    static String encode(Product last, boolean byName) {
+        String raw = byName ? "n" + SEPARATOR + last.getId() + SEPARATOR + last.getName() : "i" + SEPARATOR + last.getId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static ProductCursor decode(String cursor, boolean byName) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            char kind = raw.charAt(0);
+            int idEnd = raw.indexOf(SEPARATOR, 2);
+            if (byName && kind == 'n' && raw.charAt(1) == SEPARATOR && idEnd > 2) {
+                return new ProductCursor(Long.valueOf(raw.substring(2, idEnd)), raw.substring(idEnd + 1));
+            }
+            if (!byName && kind == 'i' && raw.charAt(1) == SEPARATOR && idEnd < 0) {
+                return new ProductCursor(Long.valueOf(raw.substring(2)), null);
+            }
+        } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+            // fall through: malformed cursor
+        }
+        throw new BadRequestException("Invalid cursor");
+    }
+}
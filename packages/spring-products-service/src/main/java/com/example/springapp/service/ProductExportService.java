@@ -0,0 +1,61 @@
+package com.example.springapp.service;
+
+import com.example.springapp.model.Product;
+import com.example.springapp.repository.ProductRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import jakarta.persistence.EntityManager;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+// needs a transaction manager and an EntityManager, which the offheap profile has neither of
+@Profile("!offheap")
+@Service
+public class ProductExportService {
+    // rows per flush of the output: the mapper's writers flush after every value by default, which
+    // would push each row to the response (one chunk, one syscall) by itself
+    static final int FLUSH_ROWS = 1000;
+
+    private final ProductRepository repo;
+    private final EntityManager entityManager;
+    private final ObjectMapper mapper;
+
+    public ProductExportService(ProductRepository repo, EntityManager entityManager, ObjectMapper mapper) {
+        this.repo = repo;
+        this.entityManager = entityManager;
+        this.mapper = mapper;
+    }
+
+    /**
+     * Writes every product as one JSON document per line. Rows are scrolled from the database and
+     * detached as soon as they are written, so memory use does not grow with the catalog size.
+     * {@code out} is flushed every {@value #FLUSH_ROWS} rows and at the end.
+     */
+    @Transactional(readOnly = true)
+    public long exportNdjson(OutputStream out) throws IOException {
+        ObjectWriter writer = mapper.writerFor(Product.class).without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        long count = 0;
+        try (Stream<Product> rows = repo.streamAllByOrderByIdAsc();
+             JsonGenerator json = mapper.getFactory().createGenerator(out)) {
+            json.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            json.setRootValueSeparator(null);
+            for (Iterator<Product> it = rows.iterator(); it.hasNext(); count++) {
+                Product p = it.next();
+                writer.writeValue(json, p);
+                json.writeRaw('\n');
+                entityManager.detach(p);
+                if ((count + 1) % FLUSH_ROWS == 0) json.flush();
+            }
+            // closing the generator flushes the rest
+        }
+        return count;
+    }
+}
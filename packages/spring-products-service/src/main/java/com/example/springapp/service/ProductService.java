@@ -1,46 +1,164 @@
 package com.example.springapp.service;
 
+import com.example.springapp.config.CacheConfig;
 import com.example.springapp.dto.ProductDto;
+import com.example.springapp.dto.ProductFields;
+import com.example.springapp.dto.ProductLookup;
+import com.example.springapp.dto.ProductPage;
+import com.example.springapp.event.ProductChangedEvent;
+import com.example.springapp.exception.BadRequestException;
+import com.example.springapp.exception.ConflictException;
 import com.example.springapp.exception.NotFoundException;
 import com.example.springapp.model.Product;
-import com.example.springapp.repository.ProductRepository;
+import com.example.springapp.repository.CatalogRepository;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 public class ProductService {
-    private final ProductRepository repo;
+    static final int MAX_PAGE_SIZE = 1000;
+    static final int MAX_LOOKUP_IDS = 500;
 
-    public ProductService(ProductRepository repo) { this.repo = repo; }
+    private final CatalogRepository repo;
+    private final NameSearchIndex nameIndex;
+    private final CatalogVersion catalogVersion;
+    private final ApplicationEventPublisher events;
+
+    public ProductService(CatalogRepository repo, NameSearchIndex nameIndex, CatalogVersion catalogVersion,
+                          ApplicationEventPublisher events) {
+        this.repo = repo;
+        this.nameIndex = nameIndex;
+        this.catalogVersion = catalogVersion;
+        this.events = events;
+    }
+
+    /** Changes whenever any product is written; read it before listing so a racing write can only make it older. */
+    public String catalogVersion() {
+        return catalogVersion.current();
+    }
 
     public List<Product> listAll(String q) {
         if (q == null || q.isBlank()) return repo.findAll();
-        return repo.findByNameContainingIgnoreCase(q);
+        return nameIndex.candidateIds(q)
+                .map(ids -> findMatching(ids, q))
+                .orElseGet(() -> repo.findByNameContainingIgnoreCase(q));
+    }
+
+    private List<Product> findMatching(List<Long> ids, String q) {
+        if (ids.isEmpty()) return List.of();
+        // the index may lag a concurrent write by a moment, so re-check the rows actually loaded
+        return repo.findAllById(ids).stream()
+                .filter(p -> NameSearchIndex.matches(p.getName(), q))
+                .sorted(Comparator.comparing(Product::getId))
+                .toList();
+    }
+
+    /** {@link #listAll} reduced to the selected columns; rows are plain maps in id order. */
+    public List<Map<String, Object>> listFields(String q, ProductFields fields) {
+        if (q == null || q.isBlank()) return repo.findFields(fields, null, null);
+        // the database re-checks the name, so the index only has to narrow the ids
+        return nameIndex.candidateIds(q)
+                .map(ids -> ids.isEmpty() ? List.<Map<String, Object>>of() : repo.findFields(fields, ids, q))
+                .orElseGet(() -> repo.findFields(fields, null, q));
+    }
+
+    public ProductPage listPage(String q, int limit, String after) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new BadRequestException("limit must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        boolean byName = q != null && !q.isBlank();
+        // Fetch one extra row to learn whether another page exists without a COUNT query.
+        Limit window = Limit.of(limit + 1);
+        List<Product> rows;
+        if (byName) {
+            rows = after == null
+                    ? repo.findByNameContainingIgnoreCaseOrderByNameAscIdAsc(q, window)
+                    : findByNameAfter(q, ProductCursor.decode(after, true), window);
+        } else {
+            Long afterId = after == null ? 0L : ProductCursor.decode(after, false).id;
+            rows = repo.findByIdGreaterThanOrderByIdAsc(afterId, window);
+        }
+        if (rows.size() <= limit) return new ProductPage(rows, null);
+        List<Product> items = rows.subList(0, limit);
+        return new ProductPage(items, ProductCursor.encode(items.get(limit - 1), byName));
     }
 
+    private List<Product> findByNameAfter(String q, ProductCursor cursor, Limit window) {
+        return repo.findByNameContainingIgnoreCaseAfter(q, cursor.name, cursor.id, window);
+    }
+
+    // sync: concurrent misses on one id share a single database load
+    @Cacheable(cacheNames = CacheConfig.PRODUCTS, sync = true)
     public Product get(Long id) {
         return repo.findById(id).orElseThrow(() -> new NotFoundException("Product not found"));
     }
 
+    /** {@link #get} reduced to the selected columns. Not cached: it is one narrow primary-key read. */
+    public Map<String, Object> getFields(Long id, ProductFields fields) {
+        List<Map<String, Object>> rows = repo.findFields(fields, List.of(id), null);
+        if (rows.isEmpty()) throw new NotFoundException("Product not found");
+        return rows.get(0);
+    }
+
+    /** Resolves many ids with one query; items follow the order of first appearance in {@code ids}. */
+    public ProductLookup getAll(List<Long> ids) {
+        Set<Long> unique = new LinkedHashSet<>(ids);
+        if (unique.isEmpty() || unique.size() > MAX_LOOKUP_IDS) {
+            throw new BadRequestException("ids must name between 1 and " + MAX_LOOKUP_IDS + " products");
+        }
+        // an empty element of ?ids=1,,2 binds to null
+        if (unique.contains(null)) throw new BadRequestException("ids must not contain empty elements");
+        Map<Long, Product> found = repo.findAllById(unique).stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+        List<Product> items = new ArrayList<>(found.size());
+        List<Long> missing = new ArrayList<>();
+        for (Long id : unique) {
+            Product p = found.get(id);
+            if (p != null) items.add(p); else missing.add(id);
+        }
+        return new ProductLookup(items, missing);
+    }
+
     public Product create(ProductDto dto) {
         Product p = new Product();
         p.setName(dto.getName());
         p.setDescription(dto.getDescription());
         p.setPrice(dto.getPrice());
-        return repo.save(p);
+        Product saved = repo.save(p);
+        events.publishEvent(ProductChangedEvent.created(saved));
+        return saved;
     }
 
     public Product update(Long id, ProductDto dto) {
-        Product p = get(id);
-        p.setName(dto.getName());
-        p.setDescription(dto.getDescription());
-        p.setPrice(dto.getPrice());
-        return repo.save(p);
+        int updated = repo.updateById(id, dto.getVersion(), dto.getName(), dto.getDescription(), dto.getPrice(),
+                OffsetDateTime.now());
+        if (updated == 0) {
+            // only the failure path pays for telling a missing row from a stale version
+            if (dto.getVersion() != null && repo.existsById(id)) {
+                throw new ConflictException("Product was modified concurrently");
+            }
+            throw new NotFoundException("Product not found");
+        }
+        // read back the committed row for the response; it also refreshes the cache via the event
+        Product saved = repo.findById(id).orElseThrow(() -> new NotFoundException("Product not found"));
+        events.publishEvent(ProductChangedEvent.updated(saved));
+        return saved;
     }
 
     public void delete(Long id) {
-        Product p = get(id);
-        repo.delete(p);
+        if (repo.removeById(id, OffsetDateTime.now()) == 0) throw new NotFoundException("Product not found");
+        events.publishEvent(ProductChangedEvent.deleted(id));
     }
 }
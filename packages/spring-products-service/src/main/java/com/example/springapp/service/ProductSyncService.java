@@ -0,0 +1,47 @@
+package com.example.springapp.service;
+
+import com.example.springapp.dto.ProductChanges;
+import com.example.springapp.exception.BadRequestException;
+import com.example.springapp.model.Product;
+import com.example.springapp.repository.CatalogRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.List;
+
+/**
+ * "Changes since watermark" for mirror jobs: rows, tombstones included, whose {@code updatedAt}
+ * is after the watermark, in {@code (updatedAt, id)} order.
+ * <p>
+ * {@code updatedAt} is stamped before commit, so a slow transaction can commit a timestamp older
+ * than rows already handed out. Rows younger than {@code products.sync.settle-time} are therefore
+ * held back until every transaction that could precede them has committed.
+ */
+@Service
+public class ProductSyncService {
+    static final int MAX_PAGE_SIZE = 1000;
+
+    private final CatalogRepository repo;
+    private final Duration settleTime;
+
+    public ProductSyncService(CatalogRepository repo, @Value("${products.sync.settle-time:2s}") Duration settleTime) {
+        this.repo = repo;
+        this.settleTime = settleTime;
+    }
+
+    public ProductChanges changesSince(String watermark, int limit) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new BadRequestException("limit must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        SyncWatermark since = watermark == null ? SyncWatermark.INITIAL : SyncWatermark.decode(watermark);
+        OffsetDateTime until = OffsetDateTime.now().minus(settleTime);
+        List<Product> rows = repo.findChangedAfter(since.updatedAt, since.id, until, limit + 1);
+        boolean hasMore = rows.size() > limit;
+        List<Product> items = hasMore ? rows.subList(0, limit) : rows;
+        // nothing new: hand the same position back (null still means "from the start")
+        String next = items.isEmpty() ? watermark : SyncWatermark.encode(items.get(items.size() - 1));
+        return new ProductChanges(items, next, hasMore);
+    }
+}
@@ -0,0 +1,233 @@
+package com.example.springapp.service;
+
+import com.example.springapp.dto.ProductPage;
+import com.example.springapp.exception.NotFoundException;
+import com.example.springapp.model.Product;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.actuate.info.Info;
+import org.springframework.boot.actuate.info.InfoContributor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.lang.management.CompilationMXBean;
+import java.lang.management.ManagementFactory;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Warms the read path before the application reports ready, so the first requests after a deploy
+ * don't pay for it: opens every pooled connection, loads the name search index and the hot products
+ * into the {@code products} cache (and Hibernate's entity cache behind it) and builds the JSON list
+ * snapshot, then repeats representative {@link ProductService} reads and their serialization until
+ * C2 has had the calls often enough to compile them, or {@code max-duration} runs out. Runs after
+ * the dump loader, as the last startup runner; readiness stays OUT_OF_SERVICE until it returns. A
+ * failure is logged and the application starts cold. The hot-path timers are only bound once the
+ * application is ready, so none of these calls is recorded as traffic.
+ * <p>
+ * What it did is on {@code /actuator/info} under {@code warmup}: time per phase, and the time
+ * of the first round of calls against the last rounds, with the JIT compilation time spent.
+ */
+// reactive requests go through ReactiveProductService, which these calls would not warm
+@Profile("!reactive")
+@Order(1)
+@Component
+public class ProductWarmup implements ApplicationRunner, InfoContributor {
+    private static final Logger log = LoggerFactory.getLogger(ProductWarmup.class);
+    // rounds averaged for the steady-state figure
+    private static final int LAST_ROUNDS = 100;
+
+    private final boolean enabled;
+    private final ProductService service;
+    private final CatalogSnapshots snapshots;
+    private final NameSearchIndex nameIndex;
+    private final ObjectProvider<DataSource> dataSource;
+    private final ObjectWriter listWriter;
+    private final ObjectWriter productWriter;
+    private final int iterations;
+    private final Duration maxDuration;
+    private final int sampleSize;
+    private final List<Long> hotIds;
+    private final int preloadCount;
+    private volatile Map<String, Object> report;
+
+    public ProductWarmup(ProductService service, CatalogSnapshots snapshots, NameSearchIndex nameIndex, ObjectProvider<DataSource> dataSource,
+                         ObjectMapper mapper, MeterRegistry registry,
+                         @Value("${products.warmup.enabled:false}") boolean enabled,
+                         @Value("${products.warmup.iterations:20000}") int iterations,
+                         @Value("${products.warmup.max-duration:30s}") Duration maxDuration,
+                         @Value("${products.warmup.sample-size:50}") int sampleSize,
+                         @Value("${products.warmup.hot-ids:}") List<Long> hotIds,
+                         @Value("${products.warmup.preload-count:1000}") int preloadCount) {
+        this.enabled = enabled;
+        this.report = Map.of("state", enabled ? "running" : "disabled");
+        this.service = service;
+        this.snapshots = snapshots;
+        this.nameIndex = nameIndex;
+        this.dataSource = dataSource;
+        this.listWriter = mapper.writerFor(mapper.getTypeFactory().constructCollectionType(List.class, Product.class));
+        this.productWriter = mapper.writerFor(Product.class);
+        this.iterations = iterations;
+        this.maxDuration = maxDuration;
+        this.sampleSize = Math.min(sampleSize, ProductService.MAX_PAGE_SIZE);
+        this.hotIds = hotIds;
+        this.preloadCount = preloadCount;
+        TimeGauge.builder("products.warmup.duration", this, TimeUnit.MILLISECONDS, ProductWarmup::durationMillis)
+                .description("Time the startup warm-up took")
+                .register(registry);
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        // a flag rather than a bean condition: AOT (mvn -Pcds) would fix the condition at build time
+        if (!enabled) return;
+        Map<String, Object> result = new LinkedHashMap<>();
+        CompilationMXBean jit = ManagementFactory.getCompilationMXBean();
+        long compiledBefore = jit.isCompilationTimeMonitoringSupported() ? jit.getTotalCompilationTime() : 0;
+        long started = System.nanoTime();
+        try {
+            long phase = System.nanoTime();
+            result.put("connections", fillPool());
+            result.put("poolMs", millisSince(phase));
+
+            // the name index would otherwise only load once the application is ready, and the
+            // searches below would warm the LIKE query that stands in for it until then
+            phase = System.nanoTime();
+            nameIndex.load();
+            result.put("indexMs", millisSince(phase));
+
+            phase = System.nanoTime();
+            List<Long> preloaded = preload();
+            snapshots.get(null);
+            result.put("preloaded", preloaded.size());
+            result.put("preloadMs", millisSince(phase));
+
+            phase = System.nanoTime();
+            exercise(preloaded, result);
+            result.put("callsMs", millisSince(phase));
+            result.put("state", "done");
+        } catch (RuntimeException | SQLException e) {
+            log.warn("Warm-up failed; starting cold", e);
+            result.put("state", "failed");
+            result.put("error", e.toString());
+        }
+        result.put("durationMs", millisSince(started));
+        if (jit.isCompilationTimeMonitoringSupported()) {
+            result.put("jitCompilationMs", jit.getTotalCompilationTime() - compiledBefore);
+        }
+        report = result;
+        log.info("Warm-up {} in {} ms: {}", result.get("state"), result.get("durationMs"), result);
+    }
+
+    @Override
+    public void contribute(Info.Builder builder) {
+        builder.withDetail("warmup", report);
+    }
+
+    private double durationMillis() {
+        Object ms = report.get("durationMs");
+        return ms instanceof Long l ? l : Double.NaN;
+    }
+
+    /** Opens every connection the pool may hold, at once, so none is opened in front of a request. */
+    private int fillPool() throws SQLException {
+        DataSource ds = dataSource.getIfAvailable();
+        if (ds == null) return 0;
+        // the bean may be wrapped (SQL tracing), so ask for the pool rather than test for it
+        int size = ds.isWrapperFor(HikariDataSource.class) ? ds.unwrap(HikariDataSource.class).getMaximumPoolSize() : 1;
+        List<Connection> held = new ArrayList<>(size);
+        try {
+            for (int i = 0; i < size; i++) held.add(ds.getConnection());
+        } finally {
+            for (Connection c : held) c.close();
+        }
+        return held.size();
+    }
+
+    /** {@code hot-ids} when given, else the first {@code preload-count} products; each read through the cache. */
+    private List<Long> preload() {
+        List<Long> ids = new ArrayList<>();
+        String after = null;
+        while (hotIds.isEmpty() && ids.size() < preloadCount) {
+            ProductPage page = service.listPage(null, Math.min(preloadCount - ids.size(), ProductService.MAX_PAGE_SIZE), after);
+            for (Product p : page.getItems()) ids.add(p.getId());
+            after = page.getNextCursor();
+            if (after == null) break;
+        }
+        for (Long id : hotIds) {
+            try {
+                service.get(id);
+                ids.add(id);
+            } catch (NotFoundException e) {
+                // a configured id may have been deleted since it was picked
+            }
+        }
+        if (hotIds.isEmpty()) ids.forEach(service::get);
+        return ids;
+    }
+
+    /**
+     * The calls behind {@code GET /api/products} (by page, by search, by ids) and
+     * {@code GET /api/products/{id}}, each with its response serialized. Records the first round
+     * and the mean of the last rounds, which is the effect the warm-up had on one request's work.
+     */
+    private void exercise(List<Long> preloaded, Map<String, Object> result) {
+        if (preloaded.isEmpty()) {
+            result.put("rounds", 0);
+            return;
+        }
+        List<Long> sample = preloaded.subList(0, Math.min(sampleSize, preloaded.size()));
+        String name = service.get(sample.get(0)).getName();
+        String q = name.substring(0, Math.min(3, name.length()));
+        long deadline = System.nanoTime() + maxDuration.toNanos();
+        long[] last = new long[LAST_ROUNDS];
+        int rounds = 0;
+        long first = 0;
+        for (; rounds < iterations && System.nanoTime() < deadline; rounds++) {
+            long t = System.nanoTime();
+            serialize(listWriter, service.listPage(null, sample.size(), null).getItems());
+            serialize(listWriter, service.listPage(q, sample.size(), null).getItems());
+            serialize(listWriter, service.getAll(sample).getItems());
+            serialize(productWriter, service.get(sample.get(rounds % sample.size())));
+            t = System.nanoTime() - t;
+            if (rounds == 0) first = t;
+            last[rounds % LAST_ROUNDS] = t;
+        }
+        long sum = 0;
+        int n = Math.min(rounds, LAST_ROUNDS);
+        for (int i = 0; i < n; i++) sum += last[i];
+        result.put("rounds", rounds);
+        result.put("firstRoundMicros", first / 1000);
+        result.put("lastRoundsMicros", n == 0 ? 0 : sum / n / 1000);
+    }
+
+    private static void serialize(ObjectWriter writer, Object value) {
+        try {
+            writer.writeValueAsBytes(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static long millisSince(long started) {
+        return (System.nanoTime() - started) / 1_000_000;
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.springapp.service;
+
+import com.example.springapp.dto.ProductDto;
+import com.example.springapp.event.ProductChangedEvent;
+import com.example.springapp.exception.ConflictException;
+import com.example.springapp.exception.NotFoundException;
+import com.example.springapp.model.Product;
+import com.example.springapp.repository.ReactiveProductRepository;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.OffsetDateTime;
+
+/**
+ * Non-blocking counterpart of {@link ProductService}. Writes publish the same
+ * {@link ProductChangedEvent}s, so caches, the name index and the change feed stay in step.
+ */
+@Profile("reactive")
+@Service
+public class ReactiveProductService {
+    private final ReactiveProductRepository repo;
+    private final ApplicationEventPublisher events;
+
+    public ReactiveProductService(ReactiveProductRepository repo, ApplicationEventPublisher events) {
+        this.repo = repo;
+        this.events = events;
+    }
+
+    public Flux<Product> listAll(String q) {
+        if (q == null || q.isBlank()) return repo.findAll();
+        return repo.findByNameContainingIgnoreCase(q);
+    }
+
+    public Mono<Product> get(Long id) {
+        return repo.findById(id).switchIfEmpty(Mono.error(() -> new NotFoundException("Product not found")));
+    }
+
+    public Mono<Product> create(ProductDto dto) {
+        Product p = new Product();
+        p.setName(dto.getName());
+        p.setDescription(dto.getDescription());
+        p.setPrice(dto.getPrice());
+        return repo.insert(p).doOnNext(saved -> events.publishEvent(ProductChangedEvent.created(saved)));
+    }
+
+    public Mono<Product> update(Long id, ProductDto dto) {
+        return repo.updateById(id, dto.getVersion(), dto.getName(), dto.getDescription(), dto.getPrice(), OffsetDateTime.now())
+                .flatMap(updated -> updated > 0 ? get(id) : missingOrConflict(id, dto.getVersion()))
+                .doOnNext(saved -> events.publishEvent(ProductChangedEvent.updated(saved)));
+    }
+
+    public Mono<Void> delete(Long id) {
+        return repo.removeById(id, OffsetDateTime.now())
+                .flatMap(removed -> removed > 0
+                        ? Mono.fromRunnable(() -> events.publishEvent(ProductChangedEvent.deleted(id)))
+                        : Mono.error(new NotFoundException("Product not found")))
+                .then();
+    }
+
+    private Mono<Product> missingOrConflict(Long id, Long version) {
+        if (version == null) return Mono.error(new NotFoundException("Product not found"));
+        return repo.existsById(id).flatMap(exists -> Mono.error(exists
+                ? new ConflictException("Product was modified concurrently")
+                : new NotFoundException("Product not found")));
+    }
+}
@@ -0,0 +1,48 @@
+package com.example.springapp.service;
+
+import com.example.springapp.exception.BadRequestException;
+import com.example.springapp.model.Product;
+
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.Base64;
+
+/**
+ * Opaque delta-sync position: the {@code (updatedAt, id)} of the last change a client has seen.
+ * The initial watermark sorts before every row.
+ */
+final class SyncWatermark {
+    static final SyncWatermark INITIAL = new SyncWatermark(OffsetDateTime.ofInstant(Instant.EPOCH, ZoneOffset.UTC), 0L);
+
+    final OffsetDateTime updatedAt;
+    final Long id;
+
+    private SyncWatermark(OffsetDateTime updatedAt, Long id) {
+        this.updatedAt = updatedAt;
+        this.id = id;
+    }
+
+    static String encode(Product last) {
+        Instant at = last.getUpdatedAt().toInstant();
+        String raw = at.getEpochSecond() + "." + at.getNano() + ":" + last.getId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static SyncWatermark decode(String watermark) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(watermark), StandardCharsets.UTF_8);
+            int dot = raw.indexOf('.');
+            int colon = raw.indexOf(':');
+            if (dot > 0 && colon > dot) {
+                Instant at = Instant.ofEpochSecond(Long.parseLong(raw.substring(0, dot)), Long.parseLong(raw.substring(dot + 1, colon)));
+                return new SyncWatermark(OffsetDateTime.ofInstant(at, ZoneOffset.UTC), Long.valueOf(raw.substring(colon + 1)));
+            }
+        } catch (IllegalArgumentException | DateTimeException e) {
+            // fall through: malformed watermark
+        }
+        throw new BadRequestException("Invalid watermark");
+    }
+}
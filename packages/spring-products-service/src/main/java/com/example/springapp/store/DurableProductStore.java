@@ -0,0 +1,171 @@
+package com.example.springapp.store;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * A {@link ProductStore} that survives restarts. Every change is appended to a {@link ProductLog};
+ * once the log has grown by {@code checkpointBytes}, a checkpoint writes the whole store as a
+ * {@link ProductSnapshot} and deletes the log before it. Opening recovers the newest snapshot,
+ * memory-mapped, and replays the log written after it.
+ * <p>
+ * In {@code dir}, {@code snapshot-<g>.dat} is the store as of the start of log generation {@code g},
+ * and {@code log-<g>.log}, {@code log-<g+1>.log}, ... hold every change since. A crash can leave a
+ * torn record at the end of the newest segment; recovery drops it. Damage anywhere else, including
+ * a bad record with data after it in the newest segment, stops the store from opening rather than
+ * silently losing products.
+ */
+public final class DurableProductStore implements Closeable {
+    private static final Logger log = LoggerFactory.getLogger(DurableProductStore.class);
+    private static final Pattern FILE = Pattern.compile("(log|snapshot)-(\\d+)\\.(log|dat)(\\.tmp)?");
+
+    private final Path dir;
+    private final long checkpointBytes;
+    private final ProductStore store;
+    private final ProductLog journal;
+    private final ScheduledExecutorService checkpoints;
+    private final Duration recoveryTime;
+    private final long recoveredRecords;
+    private boolean closed;
+
+    public DurableProductStore(Path dir, int initialCapacity, Duration fsyncInterval, long checkpointBytes) throws IOException {
+        this.dir = dir;
+        this.checkpointBytes = checkpointBytes;
+        long started = System.nanoTime();
+        Files.createDirectories(dir);
+
+        TreeMap<Long, Path> snapshots = new TreeMap<>();
+        TreeMap<Long, Path> segments = new TreeMap<>();
+        list(snapshots, segments);
+
+        store = new ProductStore(initialCapacity);
+        long base = 0;
+        if (!snapshots.isEmpty()) {
+            base = snapshots.lastKey();
+            store.load(ProductSnapshot.read(snapshots.lastEntry().getValue()));
+        }
+        long records = 0;
+        List<Path> tail = new ArrayList<>(segments.tailMap(base, true).values());
+        for (int i = 0; i < tail.size(); i++) {
+            Path segment = tail.get(i);
+            long[] count = {0};
+            long intact = ProductLog.replay(segment, record -> {
+                store.replay(record);
+                count[0]++;
+            });
+            records += count[0];
+            long size = Files.size(segment);
+            if (intact < size) {
+                if (i < tail.size() - 1 || !ProductLog.tornAt(segment, intact)) {
+                    throw new IOException("corrupt product log " + segment + " at byte " + intact);
+                }
+                log.warn("Dropping the last {} bytes of {}: a record there was not completely written", size - intact, segment);
+                try (FileChannel ch = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+                    ch.truncate(intact);
+                    ch.force(true);
+                }
+            }
+        }
+        deleteBefore(base, snapshots, segments);
+
+        journal = new ProductLog(dir, tail.isEmpty() ? base : segments.lastKey() + 1, fsyncInterval);
+        store.attach(journal);
+        recoveryTime = Duration.ofNanos(System.nanoTime() - started);
+        recoveredRecords = records;
+        log.info("Recovered {} products from {} in {} ms ({} log records replayed)",
+                store.count(), dir, recoveryTime.toMillis(), records);
+
+        checkpoints = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "product-checkpoint");
+            t.setDaemon(true);
+            return t;
+        });
+        checkpoints.scheduleWithFixedDelay(this::checkpointIfDue, 1, 1, TimeUnit.SECONDS);
+    }
+
+    public ProductStore store() {
+        return store;
+    }
+
+    /** How long opening took: reading the snapshot and replaying the log. */
+    public Duration recoveryTime() {
+        return recoveryTime;
+    }
+
+    public long recoveredRecords() {
+        return recoveredRecords;
+    }
+
+    /**
+     * Writes the store as a snapshot and deletes the log it replaces. Writers only wait while the
+     * columns are copied; the snapshot is written from the copy.
+     */
+    public synchronized void checkpoint() throws IOException {
+        long[] generation = {0};
+        ProductStore.Image image = store.image(() -> generation[0] = journal.rotate());
+        ProductSnapshot.write(dir, generation[0], image);
+        // so the flusher is done with the older segments before they go
+        journal.sync();
+        TreeMap<Long, Path> snapshots = new TreeMap<>();
+        TreeMap<Long, Path> segments = new TreeMap<>();
+        list(snapshots, segments);
+        deleteBefore(generation[0], snapshots, segments);
+    }
+
+    /** Checkpoints, then writes and forces the rest of the log, so the next start has nothing to replay. */
+    @Override
+    public synchronized void close() throws IOException {
+        if (closed) return;
+        closed = true;
+        checkpoints.shutdown();
+        try {
+            checkpoint();
+        } finally {
+            journal.close();
+        }
+    }
+
+    private synchronized void checkpointIfDue() {
+        if (closed || journal.segmentBytes() < checkpointBytes) return;
+        try {
+            checkpoint();
+        } catch (IOException | RuntimeException e) {
+            // the log keeps growing and is still complete; the next run tries again
+            log.warn("Checkpoint of {} failed", dir, e);
+        }
+    }
+
+    /** Snapshots and log segments in {@code dir} by generation; deletes leftovers of checkpoints that did not finish. */
+    private void list(TreeMap<Long, Path> snapshots, TreeMap<Long, Path> segments) throws IOException {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir)) {
+            for (Path file : files) {
+                Matcher m = FILE.matcher(file.getFileName().toString());
+                if (!m.matches()) continue;
+                if (m.group(4) != null) Files.delete(file);
+                else (m.group(1).equals("log") ? segments : snapshots).put(Long.parseLong(m.group(2)), file);
+            }
+        }
+    }
+
+    private static void deleteBefore(long generation, TreeMap<Long, Path> snapshots, TreeMap<Long, Path> segments) throws IOException {
+        for (Path file : snapshots.headMap(generation).values()) Files.deleteIfExists(file);
+        for (Path file : segments.headMap(generation).values()) Files.deleteIfExists(file);
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.springapp.store;
+
+import java.nio.ByteBuffer;
+
+/** Receives every change made to a {@link ProductStore}, encoded, in the order the changes were applied. */
+interface Journal {
+
+    /**
+     * Throws if the journal can no longer take records. Called under the store's write lock before
+     * a change is applied, so the store does not hold a change the journal would refuse.
+     */
+    void checkWritable();
+
+    /** Called under the store's write lock, so it must not wait on I/O; {@code record} is only valid during the call. */
+    void append(ByteBuffer record);
+
+    /** Returns once everything appended before the call is as durable as the journal promises. */
+    void sync();
+}
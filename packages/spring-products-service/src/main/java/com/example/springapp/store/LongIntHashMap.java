@@ -0,0 +1,103 @@
+package com.example.springapp.store;
+
+import java.util.Arrays;
+
+/**
+ * Open-addressing map from positive {@code long} keys to {@code int} values, with no boxing and
+ * two flat arrays for storage. Key 0 marks an empty slot.
+ * <p>
+ * Only one thread may write. {@link #get} tolerates a concurrent writer, in that it always
+ * terminates and never throws, but it may then return garbage: callers read it under an
+ * optimistic stamp and discard the result if the stamp no longer validates.
+ */
+final class LongIntHashMap {
+    static final int MISSING = -1;
+
+    private long[] keys;
+    private int[] values;
+    private int size;
+
+    LongIntHashMap(int expected) {
+        int capacity = Integer.highestOneBit(Math.max(4, expected) * 2 - 1) << 1;
+        keys = new long[capacity];
+        values = new int[capacity];
+    }
+
+    int get(long key) {
+        long[] k = keys;
+        int[] v = values;
+        if (v.length != k.length) return MISSING;
+        int mask = k.length - 1;
+        for (int i = slot(key, mask), probes = 0; probes < k.length; i = (i + 1) & mask, probes++) {
+            long found = k[i];
+            if (found == key) return v[i];
+            if (found == 0) return MISSING;
+        }
+        return MISSING;
+    }
+
+    void put(long key, int value) {
+        if (key <= 0) throw new IllegalArgumentException("key must be positive: " + key);
+        // load factor 1/2 keeps probe chains short
+        if ((size + 1) * 2 > keys.length) resize(keys.length * 2);
+        int mask = keys.length - 1;
+        int i = slot(key, mask);
+        while (keys[i] != 0 && keys[i] != key) i = (i + 1) & mask;
+        if (keys[i] == 0) size++;
+        values[i] = value;
+        keys[i] = key;
+    }
+
+    void remove(long key) {
+        int mask = keys.length - 1;
+        int i = slot(key, mask);
+        while (keys[i] != key) {
+            if (keys[i] == 0) return;
+            i = (i + 1) & mask;
+        }
+        // backward-shift deletion: no tombstones, so lookups stay as short as after a rebuild
+        for (int j = (i + 1) & mask; keys[j] != 0; j = (j + 1) & mask) {
+            int home = slot(keys[j], mask);
+            if (((j - home) & mask) >= ((j - i) & mask)) {
+                keys[i] = keys[j];
+                values[i] = values[j];
+                i = j;
+            }
+        }
+        keys[i] = 0;
+        size--;
+    }
+
+    void clear() {
+        Arrays.fill(keys, 0);
+        size = 0;
+    }
+
+    int size() { return size; }
+
+    long heapBytes() {
+        return (long) keys.length * (Long.BYTES + Integer.BYTES);
+    }
+
+    private void resize(int capacity) {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        long[] newKeys = new long[capacity];
+        int[] newValues = new int[capacity];
+        int mask = capacity - 1;
+        for (int j = 0; j < oldKeys.length; j++) {
+            if (oldKeys[j] == 0) continue;
+            int i = slot(oldKeys[j], mask);
+            while (newKeys[i] != 0) i = (i + 1) & mask;
+            newKeys[i] = oldKeys[j];
+            newValues[i] = oldValues[j];
+        }
+        values = newValues;
+        keys = newKeys;
+    }
+
+    private static int slot(long key, int mask) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+}
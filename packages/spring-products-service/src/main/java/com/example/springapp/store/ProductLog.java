@@ -0,0 +1,357 @@
+package com.example.springapp.store;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.zip.CRC32C;
+
+/**
+ * The {@link Journal} of a {@link DurableProductStore}: segment files {@code log-<generation>.log}
+ * of records framed as {@code [int length][int CRC32C of the payload][payload]}.
+ * <p>
+ * Appending only copies the record into a buffer. A single flusher thread writes whatever has
+ * accumulated since its last write and forces it to disk, so writers arriving while an fsync is in
+ * progress share the next one (group commit). With an fsync interval of zero, {@link #sync()}
+ * returns once the caller's records are forced; otherwise once they are written to the OS, and the
+ * flusher forces them within the interval: a power loss, though not a crash of the process, can
+ * lose that window.
+ */
+final class ProductLog implements Journal, Closeable {
+    static final int HEADER = 2 * Integer.BYTES;
+    private static final int BATCH_BYTES = 64 * 1024;
+    // segments are read a window at a time; a segment is normally far smaller
+    private static final long MAP_WINDOW = 1L << 30;
+
+    private final Path dir;
+    private final long fsyncIntervalNanos;
+    private final Thread flusher;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition work = lock.newCondition();
+    private final Condition flushed = lock.newCondition();
+    // guarded by lock; the last batch is the one being appended to
+    private final ArrayDeque<Batch> batches = new ArrayDeque<>();
+    private final CRC32C crc = new CRC32C();
+    private ByteBuffer spare;
+    // byte counts over all generations
+    private long appended;
+    private long written;
+    private long forced;
+    private long segmentBytes;
+    private IOException failure;
+    private boolean closed;
+
+    // flusher thread only
+    private FileChannel channel;
+    private long channelGeneration = -1;
+    private long lastForce = System.nanoTime();
+
+    /** Appends to segment {@code generation}, which must not exist yet or end in a complete record. */
+    ProductLog(Path dir, long generation, Duration fsyncInterval) {
+        this.dir = dir;
+        this.fsyncIntervalNanos = fsyncInterval.toNanos();
+        batches.add(new Batch(generation, ByteBuffer.allocateDirect(BATCH_BYTES)));
+        flusher = new Thread(this::flushLoop, "product-log-flusher");
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+
+    static Path segment(Path dir, long generation) {
+        return dir.resolve(String.format(Locale.ROOT, "log-%016d.log", generation));
+    }
+
+    @Override
+    public void checkWritable() {
+        lock.lock();
+        try {
+            if (failure != null) throw new UncheckedIOException("product log is not writable", failure);
+            if (closed) throw new IllegalStateException("product log is closed");
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void append(ByteBuffer record) {
+        lock.lock();
+        try {
+            if (closed) throw new IllegalStateException("product log is closed");
+            // the flusher failed after checkWritable let this change through: the change is already
+            // applied, so refusing the record would not undo it; sync() reports the failure instead
+            if (failure != null) return;
+            int length = record.remaining();
+            crc.reset();
+            crc.update(record.duplicate());
+            Batch batch = batches.getLast();
+            batch.reserve(HEADER + length);
+            batch.bytes.putInt(length).putInt((int) crc.getValue()).put(record);
+            appended += HEADER + length;
+            segmentBytes += HEADER + length;
+            work.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void sync() {
+        lock.lock();
+        try {
+            long target = appended;
+            while ((fsyncIntervalNanos == 0 ? forced : written) < target) {
+                if (failure != null) throw new UncheckedIOException("product log write failed", failure);
+                flushed.awaitUninterruptibly();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Starts the next generation: records appended from now on go to its segment. Returns its number. */
+    long rotate() {
+        lock.lock();
+        try {
+            long next = batches.getLast().generation + 1;
+            batches.add(new Batch(next, ByteBuffer.allocateDirect(BATCH_BYTES)));
+            segmentBytes = 0;
+            work.signal();
+            return next;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Bytes appended to the current generation so far. */
+    long segmentBytes() {
+        lock.lock();
+        try {
+            return segmentBytes;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Writes and forces what is left, then stops the flusher. */
+    @Override
+    public void close() throws IOException {
+        lock.lock();
+        try {
+            closed = true;
+            work.signal();
+        } finally {
+            lock.unlock();
+        }
+        try {
+            flusher.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        lock.lock();
+        try {
+            if (failure != null) throw failure;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // ---- the flusher
+
+    private void flushLoop() {
+        List<Batch> taken = new ArrayList<>();
+        boolean last = false;
+        while (!last) {
+            long target;
+            lock.lock();
+            try {
+                while (!closed && appended == written && batches.size() == 1 && !forceDue()) {
+                    long wait = written > forced ? lastForce + fsyncIntervalNanos - System.nanoTime() : Long.MAX_VALUE;
+                    try {
+                        work.awaitNanos(wait);
+                    } catch (InterruptedException e) {
+                        // nothing interrupts the flusher; close() is how it stops
+                    }
+                }
+                last = closed;
+                target = appended;
+                while (batches.size() > 1) taken.add(batches.removeFirst());
+                Batch open = batches.getLast();
+                if (open.bytes.position() > 0) {
+                    taken.add(new Batch(open.generation, open.bytes));
+                    open.bytes = spare != null ? spare : ByteBuffer.allocateDirect(BATCH_BYTES);
+                    spare = null;
+                }
+            } finally {
+                lock.unlock();
+            }
+
+            try {
+                for (Batch batch : taken) {
+                    if (batch.bytes.position() == 0) continue;
+                    if (batch.generation != channelGeneration) switchTo(batch.generation);
+                    ByteBuffer bytes = batch.bytes.flip();
+                    while (bytes.hasRemaining()) channel.write(bytes);
+                }
+                boolean force = last || fsyncIntervalNanos == 0 || System.nanoTime() - lastForce >= fsyncIntervalNanos;
+                if (force && channel != null) {
+                    channel.force(false);
+                    lastForce = System.nanoTime();
+                }
+                lock.lock();
+                try {
+                    written = target;
+                    if (force) forced = target;
+                    if (!taken.isEmpty()) {
+                        ByteBuffer recycled = taken.get(taken.size() - 1).bytes;
+                        if (spare == null && recycled.capacity() == BATCH_BYTES) spare = recycled.clear();
+                    }
+                    flushed.signalAll();
+                } finally {
+                    lock.unlock();
+                }
+            } catch (IOException e) {
+                lock.lock();
+                try {
+                    failure = e;
+                    flushed.signalAll();
+                } finally {
+                    lock.unlock();
+                }
+                last = true;
+            }
+            taken.clear();
+        }
+        closeChannel();
+    }
+
+    private boolean forceDue() {
+        return written > forced && System.nanoTime() - lastForce >= fsyncIntervalNanos;
+    }
+
+    // The previous segment is forced before the next one gets its first record, so only the newest
+    // segment can end in a torn record.
+    private void switchTo(long generation) throws IOException {
+        if (channel != null) {
+            channel.force(false);
+            channel.close();
+        }
+        channel = FileChannel.open(segment(dir, generation),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        channelGeneration = generation;
+        forceDirectory(dir);
+    }
+
+    private void closeChannel() {
+        try {
+            if (channel != null) channel.close();
+        } catch (IOException e) {
+            // everything was forced already, or the failure is recorded
+        }
+    }
+
+    // ---- recovery
+
+    /**
+     * Feeds the payload of each intact record in {@code segment} to {@code records}, in order, and
+     * returns the length of that intact prefix: the file size, unless the tail was torn.
+     */
+    static long replay(Path segment, Consumer<ByteBuffer> records) throws IOException {
+        try (FileChannel ch = FileChannel.open(segment, StandardOpenOption.READ)) {
+            long size = ch.size();
+            long at = 0;
+            CRC32C crc = new CRC32C();
+            while (at < size) {
+                MappedByteBuffer window = ch.map(FileChannel.MapMode.READ_ONLY, at, Math.min(size - at, MAP_WINDOW));
+                int pos = 0;
+                while (window.limit() - pos >= HEADER) {
+                    int length = window.getInt(pos);
+                    // a zero length is never written, but a zeroed block would otherwise pass its CRC
+                    if (length <= 0 || length > window.limit() - pos - HEADER) break;
+                    ByteBuffer payload = window.slice(pos + HEADER, length);
+                    crc.reset();
+                    crc.update(payload.duplicate());
+                    if ((int) crc.getValue() != window.getInt(pos + Integer.BYTES)) return at + pos;
+                    records.accept(payload);
+                    pos += HEADER + length;
+                }
+                if (pos == 0) return at;
+                at += pos;
+            }
+            return at;
+        }
+    }
+
+    /**
+     * Whether the damage {@link #replay} stopped at, at byte {@code at}, is what a crash while
+     * appending leaves: a last record cut short, or one that fails its CRC with only zeroes after it
+     * (the file system may have extended the file before the data reached it). Anything else after a
+     * bad record means the segment was damaged in place, and dropping the tail would lose records.
+     */
+    static boolean tornAt(Path segment, long at) throws IOException {
+        try (FileChannel ch = FileChannel.open(segment, StandardOpenOption.READ)) {
+            long size = ch.size();
+            ByteBuffer header = ByteBuffer.allocate(HEADER);
+            while (header.hasRemaining() && ch.read(header, at + header.position()) >= 0) {
+                // read until the header is full or the file ends
+            }
+            if (header.hasRemaining()) return true;
+            int length = header.getInt(0);
+            if (length > size - at - HEADER) return true;
+            // a zero length is a zeroed block; a negative one is damage, unless only zeroes follow
+            return zeroesFrom(ch, length > 0 ? at + HEADER + length : at, size);
+        }
+    }
+
+    private static boolean zeroesFrom(FileChannel ch, long from, long size) throws IOException {
+        ByteBuffer buf = ByteBuffer.allocate(BATCH_BYTES);
+        for (long at = from; at < size; ) {
+            buf.clear();
+            int n = ch.read(buf, at);
+            if (n < 0) break;
+            for (int i = 0; i < n; i++) {
+                if (buf.get(i) != 0) return false;
+            }
+            at += n;
+        }
+        return true;
+    }
+
+    /** Makes the creation or renaming of files in {@code dir} durable, where the platform allows it. */
+    static void forceDirectory(Path dir) {
+        try (FileChannel d = FileChannel.open(dir, StandardOpenOption.READ)) {
+            d.force(true);
+        } catch (IOException e) {
+            // not supported for directories on every platform (Windows)
+        }
+    }
+
+    private static final class Batch {
+        final long generation;
+        ByteBuffer bytes;
+
+        Batch(long generation, ByteBuffer bytes) {
+            this.generation = generation;
+            this.bytes = bytes;
+        }
+
+        void reserve(int n) {
+            if (bytes.remaining() >= n) return;
+            ByteBuffer bigger = ByteBuffer.allocateDirect((int) Math.min(Integer.MAX_VALUE - 8,
+                    Math.max(2L * bytes.capacity(), (long) bytes.position() + n)));
+            bigger.put(bytes.flip());
+            bytes = bigger;
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package com.example.springapp.store;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Locale;
+import java.util.zip.CRC32C;
+
+/**
+ * A {@link ProductStore.Image} as a file, {@code snapshot-<generation>.dat}: a header, each column
+ * as one contiguous big-endian array, the text bytes, and a CRC32C of everything before it.
+ * Reading maps the file and copies whole columns out of the mapping, with no per-row parsing.
+ * A snapshot is written under a temporary name and renamed, so it is either complete or absent.
+ */
+final class ProductSnapshot {
+    private static final int MAGIC = 0x50534e50; // "PSNP"
+    private static final int FORMAT = 1;
+    // magic, format, generation, rows, next id, text bytes
+    private static final int HEADER = 4 + 4 + 8 + 4 + 8 + 4;
+    private static final int ROW_BYTES = 5 * Long.BYTES + 1 + 4 * Integer.BYTES;
+    private static final int CHUNK_BYTES = 1 << 20;
+    private static final long MAP_WINDOW = 1L << 30;
+
+    private ProductSnapshot() {
+    }
+
+    static Path file(Path dir, long generation) {
+        return dir.resolve(String.format(Locale.ROOT, "snapshot-%016d.dat", generation));
+    }
+
+    static void write(Path dir, long generation, ProductStore.Image image) throws IOException {
+        Path target = file(dir, generation);
+        Path tmp = target.resolveSibling(target.getFileName() + ".tmp");
+        int n = image.size;
+        CRC32C crc = new CRC32C();
+        ByteBuffer chunk = ByteBuffer.allocateDirect(CHUNK_BYTES);
+        try (FileChannel ch = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            write(ch, crc, ByteBuffer.allocate(HEADER).putInt(MAGIC).putInt(FORMAT).putLong(generation)
+                    .putInt(n).putLong(image.nextId).putInt(image.text.limit()).flip());
+            for (long[] column : new long[][] {image.ids, image.prices, image.createdAt, image.updatedAt, image.versions}) {
+                for (int i = 0; i < n; ) {
+                    int k = Math.min(n - i, CHUNK_BYTES / Long.BYTES);
+                    chunk.clear().asLongBuffer().put(column, i, k);
+                    write(ch, crc, chunk.limit(k * Long.BYTES));
+                    i += k;
+                }
+            }
+            write(ch, crc, ByteBuffer.wrap(image.flags, 0, n));
+            for (int[] column : new int[][] {image.nameAt, image.nameLength, image.descriptionAt, image.descriptionLength}) {
+                for (int i = 0; i < n; ) {
+                    int k = Math.min(n - i, CHUNK_BYTES / Integer.BYTES);
+                    chunk.clear().asIntBuffer().put(column, i, k);
+                    write(ch, crc, chunk.limit(k * Integer.BYTES));
+                    i += k;
+                }
+            }
+            write(ch, crc, image.text.duplicate().position(0));
+            write(ch, null, ByteBuffer.allocate(Integer.BYTES).putInt((int) crc.getValue()).flip());
+            ch.force(true);
+        }
+        Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        ProductLog.forceDirectory(dir);
+    }
+
+    /** The image in {@code file}; its text is a read-only mapping of the file. */
+    static ProductStore.Image read(Path file) throws IOException {
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = ch.size();
+            if (size < HEADER + Integer.BYTES) throw corrupt(file, "truncated");
+            ByteBuffer header = ch.map(FileChannel.MapMode.READ_ONLY, 0, HEADER);
+            if (header.getInt() != MAGIC) throw corrupt(file, "not a product snapshot");
+            if (header.getInt() != FORMAT) throw corrupt(file, "unknown format");
+            header.getLong();
+            int n = header.getInt();
+            long nextId = header.getLong();
+            int textBytes = header.getInt();
+            if (n < 0 || textBytes < 0 || size != HEADER + (long) n * ROW_BYTES + textBytes + Integer.BYTES) {
+                throw corrupt(file, "truncated");
+            }
+
+            CRC32C crc = new CRC32C();
+            for (long at = 0; at < size - Integer.BYTES; at += MAP_WINDOW) {
+                crc.update(ch.map(FileChannel.MapMode.READ_ONLY, at, Math.min(MAP_WINDOW, size - Integer.BYTES - at)));
+            }
+            if ((int) crc.getValue() != ch.map(FileChannel.MapMode.READ_ONLY, size - Integer.BYTES, Integer.BYTES).getInt()) {
+                throw corrupt(file, "checksum mismatch");
+            }
+
+            long at = HEADER;
+            long[][] longs = new long[5][n];
+            for (long[] column : longs) {
+                ch.map(FileChannel.MapMode.READ_ONLY, at, (long) n * Long.BYTES).asLongBuffer().get(column);
+                at += (long) n * Long.BYTES;
+            }
+            byte[] flags = new byte[n];
+            ch.map(FileChannel.MapMode.READ_ONLY, at, n).get(flags);
+            at += n;
+            int[][] ints = new int[4][n];
+            for (int[] column : ints) {
+                ch.map(FileChannel.MapMode.READ_ONLY, at, (long) n * Integer.BYTES).asIntBuffer().get(column);
+                at += (long) n * Integer.BYTES;
+            }
+            ByteBuffer text = ch.map(FileChannel.MapMode.READ_ONLY, at, textBytes);
+            return new ProductStore.Image(n, nextId, longs[0], longs[1], longs[2], longs[3], longs[4],
+                    flags, ints[0], ints[1], ints[2], ints[3], text);
+        }
+    }
+
+    private static void write(FileChannel ch, CRC32C crc, ByteBuffer bytes) throws IOException {
+        if (crc != null) crc.update(bytes.duplicate());
+        while (bytes.hasRemaining()) ch.write(bytes);
+    }
+
+    private static IOException corrupt(Path file, String reason) {
+        return new IOException("unreadable product snapshot " + file + ": " + reason);
+    }
+}
@@ -0,0 +1,846 @@
+package com.example.springapp.store;
+
+import com.example.springapp.model.Product;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.IntPredicate;
+import java.util.function.Supplier;
+
+/**
+ * The catalog as primitive columns instead of entity objects: one {@code long[]} per numeric
+ * property (prices as cents, timestamps as epoch microseconds, UTC), rows sorted by id and found
+ * through a {@link LongIntHashMap}, and names and descriptions as UTF-8 in one direct (off-heap)
+ * buffer. Soft-deleted rows stay as tombstones, as in the {@code products} table.
+ * <p>
+ * Writers take the write lock of a {@link StampedLock}, so there is a single writer at a time.
+ * Readers take no lock: they read under an optimistic stamp and retry under the read lock only if a
+ * write overlapped them. Scans do this per chunk of {@value #CHUNK} rows and resume from the last
+ * id seen, so a write costs a scan at most one repeated chunk.
+ * <p>
+ * Live rows are also indexed by {@code (name, id)} on the heap, so a name-ordered page seeks to its
+ * first key instead of sorting the catalog. Writers keep the index under the same lock, and readers
+ * walk it in chunks the same way.
+ * <p>
+ * Every read builds fresh {@link Product} objects; changing them changes nothing here.
+ * <p>
+ * On its own the store lives and dies with the process. {@link DurableProductStore} attaches a
+ * {@link Journal} that sees every change as an encoded record, and restores the store from a
+ * snapshot {@link #image(Runnable) image} plus the records written after it.
+ */
+public final class ProductStore {
+    private static final int CHUNK = 256;
+    private static final long NULL_LONG = Long.MIN_VALUE;
+    private static final int NULL_TEXT = -1;
+    private static final byte DELETED = 1;
+    private static final byte NON_ASCII_NAME = 2;
+    // text is compacted once this much of it, and at least half, is dead
+    private static final long COMPACT_GARBAGE = 1 << 20;
+    // a name index entry without the name's characters: skip list node and index levels, key, String and its array header
+    private static final long NAME_ENTRY_BYTES = 96;
+    // the same start as the products_seq sequence
+    private static final long FIRST_ID = 1000;
+    // journal record types
+    private static final byte PUT = 1;
+    private static final byte REMOVE = 2;
+    private static final byte CLEAR = 3;
+
+    private final StampedLock lock = new StampedLock();
+
+    // rows [0, size), sorted by id
+    private long[] ids;
+    private long[] prices;
+    private long[] createdAt;
+    private long[] updatedAt;
+    private long[] versions;
+    private byte[] flags;
+    private int[] nameAt;
+    private int[] nameLength;
+    private int[] descriptionAt;
+    private int[] descriptionLength;
+    private int size;
+    private int live;
+    private LongIntHashMap rows;
+    // live rows with a name, by (name, id); a concurrent set, so optimistic readers can walk it during a write
+    private final ConcurrentSkipListSet<NameKey> names = new ConcurrentSkipListSet<>();
+
+    private ByteBuffer text;
+    private int textEnd;
+    private long garbage;
+    private long nextId = FIRST_ID;
+
+    // set once, after recovery and before the store is shared
+    private Journal journal;
+    // reused for every journal record; writers are serialized by the lock
+    private ByteBuffer record = ByteBuffer.allocate(256);
+
+    public ProductStore(int initialCapacity) {
+        int capacity = Math.max(16, initialCapacity);
+        allocateColumns(capacity);
+        rows = new LongIntHashMap(capacity);
+        text = ByteBuffer.allocateDirect(capacity * 32);
+    }
+
+    // ---- reads
+
+    /** The live product with this id, or null. */
+    public Product get(long id) {
+        return read(() -> {
+            int r = rows.get(id);
+            return r == LongIntHashMap.MISSING || isDeleted(r) ? null : product(r);
+        });
+    }
+
+    public boolean exists(long id) {
+        return read(() -> {
+            int r = rows.get(id);
+            return r != LongIntHashMap.MISSING && !isDeleted(r);
+        });
+    }
+
+    /** Live products among {@code ids}, in the order of first appearance. */
+    public List<Product> getAll(Collection<Long> ids) {
+        List<Product> found = new ArrayList<>(ids.size());
+        long[] seen = new long[ids.size()];
+        int n = 0;
+        for (Long id : ids) {
+            if (id == null || contains(seen, n, id)) continue;
+            seen[n++] = id;
+            Product p = get(id);
+            if (p != null) found.add(p);
+        }
+        return found;
+    }
+
+    /** Live products with an id above {@code afterId}, in id order; {@code nameContains} (ignoring case) may be null. */
+    public List<Product> scan(long afterId, String nameContains, int limit) {
+        NameMatch match = nameContains == null ? null : new NameMatch(nameContains);
+        return scan(afterId, limit, r -> !isDeleted(r) && (match == null || match.test(r)));
+    }
+
+    /**
+     * Live products after {@code (afterName, afterId)} in {@code (name, id)} order, or from the first
+     * if {@code afterName} is null; {@code nameContains} (ignoring case) may be null.
+     */
+    public List<Product> scanByName(String afterName, long afterId, String nameContains, int limit) {
+        NameMatch match = nameContains == null ? null : new NameMatch(nameContains);
+        List<Product> out = new ArrayList<>();
+        NameKey after = afterName == null ? null : new NameKey(afterName, afterId);
+        while (out.size() < limit) {
+            NameKey from = after;
+            int wanted = limit - out.size();
+            NameChunk chunk = read(() -> nameChunk(from, wanted, match));
+            out.addAll(chunk.products);
+            if (chunk.last == null) break;
+            after = chunk.last;
+        }
+        return out;
+    }
+
+    /**
+     * Rows, tombstones included, changed after {@code (ts, id)} and before {@code until}, in
+     * {@code (updatedAt, id)} order: the same window as {@code ProductRepository.findChangedAfter}.
+     */
+    public List<Product> changedAfter(OffsetDateTime ts, long id, OffsetDateTime until, int limit) {
+        long after = micros(ts);
+        long before = micros(until);
+        List<Product> changed = scan(0, Integer.MAX_VALUE, r -> {
+            long t = updatedAt[r];
+            return t < before && (t > after || (t == after && ids[r] > id));
+        });
+        changed.sort((a, b) -> {
+            int c = a.getUpdatedAt().compareTo(b.getUpdatedAt());
+            return c != 0 ? c : Long.compare(a.getId(), b.getId());
+        });
+        return changed.size() > limit ? new ArrayList<>(changed.subList(0, limit)) : changed;
+    }
+
+    public int count() {
+        return read(() -> live);
+    }
+
+    /** Bytes held on the heap by the columns, the id map and (estimated) the name index. */
+    public long heapBytes() {
+        return read(() -> {
+            long nameBytes = 0;
+            for (int r = 0; r < size; r++) {
+                if (!isDeleted(r)) nameBytes += Math.max(nameLength[r], 0);
+            }
+            return (long) ids.length * (5 * Long.BYTES + 1 + 4 * Integer.BYTES) + rows.heapBytes()
+                    + names.size() * NAME_ENTRY_BYTES + nameBytes;
+        });
+    }
+
+    /** Bytes reserved off-heap for names and descriptions. */
+    public long offHeapBytes() {
+        return read(() -> (long) text.capacity());
+    }
+
+    // ---- writes
+
+    /**
+     * Inserts {@code p} (taking the next id if it has none), or replaces the live row with its id
+     * if {@code p} carries that row's version, or no version. {@code p} gets the stored id, version
+     * and timestamps. Returns false, changing nothing, if the version is stale.
+     */
+    public boolean save(Product p) {
+        long stamp = lock.writeLock();
+        try {
+            checkJournal();
+            int r = p.getId() == null ? LongIntHashMap.MISSING : rows.get(p.getId());
+            if (r == LongIntHashMap.MISSING) {
+                if (p.getId() == null) p.setId(nextId);
+                if (p.getVersion() == null) p.setVersion(0L);
+                journalRow(insert(p));
+                return true;
+            }
+            if (isDeleted(r)) throw new IllegalStateException("product " + p.getId() + " was deleted");
+            if (p.getVersion() != null && p.getVersion() != versions[r]) return false;
+            OffsetDateTime now = OffsetDateTime.now();
+            write(r, p.getName(), p.getDescription(), p.getPrice(), now);
+            createdAt[r] = micros(p.getCreatedAt());
+            journalRow(r);
+            p.setVersion(versions[r]);
+            p.setUpdatedAt(now);
+            return true;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /** Updates a live row, if {@code version} is null or current; returns the number of rows changed. */
+    public int update(long id, Long version, String name, String description, BigDecimal price, OffsetDateTime now) {
+        long stamp = lock.writeLock();
+        try {
+            checkJournal();
+            int r = rows.get(id);
+            if (r == LongIntHashMap.MISSING || isDeleted(r) || (version != null && version != versions[r])) return 0;
+            write(r, name, description, price, now);
+            journalRow(r);
+            return 1;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /** Turns a live row into a tombstone; returns the number of rows changed. */
+    public int softDelete(long id, OffsetDateTime now) {
+        long stamp = lock.writeLock();
+        try {
+            checkJournal();
+            int r = rows.get(id);
+            if (r == LongIntHashMap.MISSING || isDeleted(r)) return 0;
+            unindexName(r);
+            flags[r] |= DELETED;
+            updatedAt[r] = micros(now);
+            versions[r]++;
+            live--;
+            journalRow(r);
+            return 1;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /** Removes a row, tombstone or not, for good. */
+    public boolean remove(long id) {
+        long stamp = lock.writeLock();
+        try {
+            checkJournal();
+            int r = rows.get(id);
+            if (r == LongIntHashMap.MISSING) return false;
+            removeRow(r);
+            if (journal != null) journal.append(record(1 + Long.BYTES).put(REMOVE).putLong(id).flip());
+            return true;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    public void clear() {
+        long stamp = lock.writeLock();
+        try {
+            checkJournal();
+            clearRows();
+            if (journal != null) journal.append(record(1).put(CLEAR).flip());
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /** Waits until every write made before the call is as durable as the attached journal makes it; a no-op without one. */
+    public void awaitDurable() {
+        Journal j = journal;
+        if (j != null) j.sync();
+    }
+
+    // ---- journal, snapshot image and recovery, for DurableProductStore
+
+    void attach(Journal journal) {
+        long stamp = lock.writeLock();
+        try {
+            this.journal = journal;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /** Applies a record written to the journal, without journaling it again. */
+    void replay(ByteBuffer record) {
+        long stamp = lock.writeLock();
+        try {
+            byte type = record.get();
+            switch (type) {
+                case PUT -> restore(record);
+                case REMOVE -> {
+                    int r = rows.get(record.getLong());
+                    if (r != LongIntHashMap.MISSING) removeRow(r);
+                }
+                case CLEAR -> clearRows();
+                default -> throw new IllegalStateException("unknown journal record type " + type);
+            }
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * A copy of every row, and {@code atomically} run before any later write: the journal rotates
+     * there, so the image plus the journal from that point on is the whole store. Readers carry on
+     * meanwhile; writers wait for the copy, which is a few array copies.
+     */
+    Image image(Runnable atomically) {
+        long stamp = lock.readLock();
+        try {
+            ByteBuffer textCopy = ByteBuffer.allocate(textEnd).put(0, text, 0, textEnd);
+            Image image = new Image(size, nextId, Arrays.copyOf(ids, size), Arrays.copyOf(prices, size),
+                    Arrays.copyOf(createdAt, size), Arrays.copyOf(updatedAt, size), Arrays.copyOf(versions, size),
+                    Arrays.copyOf(flags, size), Arrays.copyOf(nameAt, size), Arrays.copyOf(nameLength, size),
+                    Arrays.copyOf(descriptionAt, size), Arrays.copyOf(descriptionLength, size), textCopy);
+            atomically.run();
+            return image;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /** Replaces every row with those of {@code image}, taking over its arrays. */
+    void load(Image image) {
+        long stamp = lock.writeLock();
+        try {
+            ids = image.ids;
+            prices = image.prices;
+            createdAt = image.createdAt;
+            updatedAt = image.updatedAt;
+            versions = image.versions;
+            flags = image.flags;
+            nameAt = image.nameAt;
+            nameLength = image.nameLength;
+            descriptionAt = image.descriptionAt;
+            descriptionLength = image.descriptionLength;
+            size = image.size;
+            rows = new LongIntHashMap(size);
+            names.clear();
+            live = 0;
+            long liveBytes = 0;
+            for (int r = 0; r < size; r++) {
+                rows.put(ids[r], r);
+                if (!isDeleted(r)) live++;
+                liveBytes += Math.max(nameLength[r], 0) + Math.max(descriptionLength[r], 0);
+            }
+            int textBytes = image.text.limit();
+            text = ByteBuffer.allocateDirect((int) Math.min(Integer.MAX_VALUE - 8, Math.max(1024, textBytes + textBytes / 2L)));
+            text.put(0, image.text, 0, textBytes);
+            textEnd = textBytes;
+            garbage = textBytes - liveBytes;
+            nextId = image.nextId;
+            for (int r = 0; r < size; r++) indexName(r);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    // ---- reading under an optimistic stamp
+
+    private <T> T read(Supplier<T> reader) {
+        long stamp = lock.tryOptimisticRead();
+        if (stamp != 0) {
+            try {
+                T result = reader.get();
+                if (lock.validate(stamp)) return result;
+            } catch (RuntimeException e) {
+                // a write moved the columns under this read; it is repeated below under the lock
+            }
+        }
+        stamp = lock.readLock();
+        try {
+            return reader.get();
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    private List<Product> scan(long afterId, int limit, IntPredicate filter) {
+        List<Product> out = new ArrayList<>();
+        long after = afterId;
+        while (out.size() < limit) {
+            long from = after;
+            int wanted = limit - out.size();
+            Chunk chunk = read(() -> chunk(from, wanted, filter));
+            out.addAll(chunk.products);
+            if (chunk.lastId == NULL_LONG) break;
+            after = chunk.lastId;
+        }
+        return out;
+    }
+
+    /** Up to {@value #CHUNK} rows after {@code afterId}; {@code lastId} is where the next chunk starts, or null at the end. */
+    private Chunk chunk(long afterId, int wanted, IntPredicate filter) {
+        long[] ids = this.ids;
+        int end = Math.min(size, ids.length);
+        int r = firstAfter(ids, end, afterId);
+        int stop = Math.min(end, r + CHUNK);
+        List<Product> products = new ArrayList<>();
+        for (; r < stop && products.size() < wanted; r++) {
+            if (filter.test(r)) products.add(product(r));
+        }
+        return new Chunk(products, r < end ? ids[r - 1] : NULL_LONG);
+    }
+
+    /** As {@link #chunk}, over the name index: {@code last} is the key the next chunk starts after, or null at the end. */
+    private NameChunk nameChunk(NameKey after, int wanted, NameMatch match) {
+        NavigableSet<NameKey> keys = after == null ? names : names.tailSet(after, false);
+        List<Product> products = new ArrayList<>();
+        NameKey last = null;
+        int seen = 0;
+        for (NameKey key : keys) {
+            if (seen == CHUNK || products.size() == wanted) return new NameChunk(products, last);
+            seen++;
+            last = key;
+            int r = rows.get(key.id);
+            // only a write overlapping this read gets here; it is repeated under the lock
+            if (r == LongIntHashMap.MISSING) throw new IllegalStateException("name index is ahead of the rows");
+            if (match == null || match.test(r)) products.add(product(r));
+        }
+        return new NameChunk(products, null);
+    }
+
+    private static int firstAfter(long[] ids, int end, long afterId) {
+        int lo = 0;
+        int hi = end;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (ids[mid] <= afterId) lo = mid + 1; else hi = mid;
+        }
+        return lo;
+    }
+
+    private boolean isDeleted(int r) {
+        return (flags[r] & DELETED) != 0;
+    }
+
+    private Product product(int r) {
+        Product p = new Product();
+        p.setId(ids[r]);
+        p.setName(text(nameAt[r], nameLength[r]));
+        p.setDescription(text(descriptionAt[r], descriptionLength[r]));
+        p.setPrice(prices[r] == NULL_LONG ? null : BigDecimal.valueOf(prices[r], 2));
+        p.setCreatedAt(time(createdAt[r]));
+        p.setUpdatedAt(time(updatedAt[r]));
+        p.setDeleted(isDeleted(r));
+        p.setVersion(versions[r]);
+        return p;
+    }
+
+    private String text(int at, int length) {
+        if (length == NULL_TEXT) return null;
+        ByteBuffer t = text;
+        // checked before allocating: a torn read may pair an offset with the wrong buffer
+        if (at < 0 || length < 0 || at > t.capacity() - length) throw new IndexOutOfBoundsException(at);
+        byte[] utf8 = new byte[length];
+        t.get(at, utf8);
+        return new String(utf8, StandardCharsets.UTF_8);
+    }
+
+    /** A case-insensitive "name contains", as NameSearchIndex.matches; ASCII names are searched in place. */
+    private final class NameMatch implements IntPredicate {
+        private final String upper;
+        private final byte[] ascii;
+
+        NameMatch(String q) {
+            upper = q.toUpperCase(Locale.ROOT);
+            ascii = isAscii(upper) ? upper.getBytes(StandardCharsets.US_ASCII) : null;
+        }
+
+        @Override
+        public boolean test(int r) {
+            int length = nameLength[r];
+            if (length == NULL_TEXT) return false;
+            if (ascii == null || (flags[r] & NON_ASCII_NAME) != 0) {
+                return text(nameAt[r], length).toUpperCase(Locale.ROOT).contains(upper);
+            }
+            ByteBuffer t = text;
+            int at = nameAt[r];
+            if (at < 0 || at > t.capacity() - length) throw new IndexOutOfBoundsException(at);
+            outer:
+            for (int i = at, last = at + length - ascii.length; i <= last; i++) {
+                for (int j = 0; j < ascii.length; j++) {
+                    byte b = t.get(i + j);
+                    if (b >= 'a' && b <= 'z') b -= 'a' - 'A';
+                    if (b != ascii[j]) continue outer;
+                }
+                return true;
+            }
+            return false;
+        }
+    }
+
+    // ---- writing, under the write lock
+
+    private int insert(Product p) {
+        return insert(p.getId(), p.getVersion(), p.isDeleted(), p.getName(), p.getDescription(),
+                cents(p.getPrice()), micros(p.getCreatedAt()), micros(p.getUpdatedAt()));
+    }
+
+    private int insert(long id, long version, boolean deleted, String name, String description, long price, long created, long updated) {
+        if (size == ids.length) growColumns(Math.max(16, ids.length * 2));
+        int r = size == 0 || ids[size - 1] < id ? size : firstAfter(ids, size, id);
+        if (r < size) shift(r, r + 1, size - r);
+        size++;
+        ids[r] = id;
+        nameLength[r] = NULL_TEXT;
+        descriptionLength[r] = NULL_TEXT;
+        // set before write(), which indexes the name of live rows only
+        flags[r] = deleted ? DELETED : 0;
+        write(r, name, description, price, updated);
+        // write() counts as an update; an insert keeps the given version
+        versions[r] = version;
+        createdAt[r] = created;
+        if (!deleted) live++;
+        for (int i = r; i < size; i++) rows.put(ids[i], i);
+        nextId = Math.max(nextId, id + 1);
+        return r;
+    }
+
+    private void removeRow(int r) {
+        if (!isDeleted(r)) live--;
+        unindexName(r);
+        garbage += Math.max(nameLength[r], 0) + Math.max(descriptionLength[r], 0);
+        rows.remove(ids[r]);
+        shift(r + 1, r, size - r - 1);
+        size--;
+        for (int i = r; i < size; i++) rows.put(ids[i], i);
+        compactIfWorthIt();
+    }
+
+    private void clearRows() {
+        rows.clear();
+        names.clear();
+        size = 0;
+        live = 0;
+        textEnd = 0;
+        garbage = 0;
+    }
+
+    /** Overwrites or inserts the row in a PUT record, keeping its version and timestamps. */
+    private void restore(ByteBuffer record) {
+        long id = record.getLong();
+        long version = record.getLong();
+        boolean deleted = record.get() != 0;
+        long price = record.getLong();
+        long created = record.getLong();
+        long updated = record.getLong();
+        String name = readText(record);
+        String description = readText(record);
+        int r = rows.get(id);
+        if (r == LongIntHashMap.MISSING) {
+            insert(id, version, deleted, name, description, price, created, updated);
+            return;
+        }
+        boolean wasDeleted = isDeleted(r);
+        write(r, name, description, price, updated);
+        versions[r] = version;
+        createdAt[r] = created;
+        flags[r] = (byte) (deleted ? flags[r] | DELETED : flags[r] & ~DELETED);
+        if (wasDeleted != deleted) live += deleted ? -1 : 1;
+        if (deleted) unindexName(r); else indexName(r);
+    }
+
+    /** Before a write changes anything: a journal that cannot take its record fails the write instead. */
+    private void checkJournal() {
+        if (journal != null) journal.checkWritable();
+    }
+
+    /** Row {@code r} as a PUT record: id, version, deleted, price, created, updated, then name and description as length-prefixed UTF-8. */
+    private void journalRow(int r) {
+        if (journal == null) return;
+        ByteBuffer b = record(1 + 5 * Long.BYTES + 1 + 2 * Integer.BYTES
+                + Math.max(nameLength[r], 0) + Math.max(descriptionLength[r], 0));
+        b.put(PUT).putLong(ids[r]).putLong(versions[r]).put((byte) (flags[r] & DELETED))
+                .putLong(prices[r]).putLong(createdAt[r]).putLong(updatedAt[r]);
+        putText(b, nameAt[r], nameLength[r]);
+        putText(b, descriptionAt[r], descriptionLength[r]);
+        journal.append(b.flip());
+    }
+
+    private void putText(ByteBuffer b, int at, int length) {
+        b.putInt(length);
+        if (length > 0) {
+            b.put(b.position(), text, at, length);
+            b.position(b.position() + length);
+        }
+    }
+
+    private static String readText(ByteBuffer record) {
+        int length = record.getInt();
+        if (length == NULL_TEXT) return null;
+        byte[] utf8 = new byte[length];
+        record.get(utf8);
+        return new String(utf8, StandardCharsets.UTF_8);
+    }
+
+    private ByteBuffer record(int bytes) {
+        if (record.capacity() < bytes) record = ByteBuffer.allocate(Math.max(bytes, record.capacity() * 2));
+        return record.clear();
+    }
+
+    private void write(int r, String name, String description, BigDecimal price, OffsetDateTime now) {
+        write(r, name, description, cents(price), micros(now));
+    }
+
+    private void write(int r, String name, String description, long price, long now) {
+        unindexName(r);
+        int[] stored = store(name, nameAt[r], nameLength[r]);
+        nameAt[r] = stored[0];
+        nameLength[r] = stored[1];
+        flags[r] = (byte) (name != null && !isAscii(name) ? flags[r] | NON_ASCII_NAME : flags[r] & ~NON_ASCII_NAME);
+        stored = store(description, descriptionAt[r], descriptionLength[r]);
+        descriptionAt[r] = stored[0];
+        descriptionLength[r] = stored[1];
+        prices[r] = price;
+        updatedAt[r] = now;
+        versions[r]++;
+        if (!isDeleted(r)) indexName(r);
+        compactIfWorthIt();
+    }
+
+    /** Stores {@code s} over the old text if it fits there, else at the end; returns {offset, length}. */
+    private int[] store(String s, int oldAt, int oldLength) {
+        if (s == null) {
+            if (oldLength > 0) garbage += oldLength;
+            return new int[] {0, NULL_TEXT};
+        }
+        byte[] utf8 = s.getBytes(StandardCharsets.UTF_8);
+        if (utf8.length <= oldLength) {
+            text.put(oldAt, utf8);
+            garbage += oldLength - utf8.length;
+            return new int[] {oldAt, utf8.length};
+        }
+        if (oldLength > 0) garbage += oldLength;
+        if (text.capacity() - textEnd < utf8.length) growText(utf8.length);
+        int at = textEnd;
+        text.put(at, utf8);
+        textEnd += utf8.length;
+        return new int[] {at, utf8.length};
+    }
+
+    private void growText(int needed) {
+        long capacity = Math.max((long) text.capacity() * 2, (long) textEnd + needed);
+        if (capacity > Integer.MAX_VALUE - 8) {
+            compact();
+            if (text.capacity() - textEnd >= needed) return;
+            capacity = (long) textEnd + needed;
+            if (capacity > Integer.MAX_VALUE - 8) throw new IllegalStateException("catalog text exceeds 2 GB");
+        }
+        ByteBuffer bigger = ByteBuffer.allocateDirect((int) capacity);
+        bigger.put(0, text, 0, textEnd);
+        text = bigger;
+    }
+
+    private void indexName(int r) {
+        if (!isDeleted(r) && nameLength[r] != NULL_TEXT) names.add(new NameKey(text(nameAt[r], nameLength[r]), ids[r]));
+    }
+
+    private void unindexName(int r) {
+        if (nameLength[r] != NULL_TEXT) names.remove(new NameKey(text(nameAt[r], nameLength[r]), ids[r]));
+    }
+
+    private void compactIfWorthIt() {
+        if (garbage > COMPACT_GARBAGE && garbage * 2 > textEnd) compact();
+    }
+
+    /** Copies the text still referenced into a new buffer, dropping what updates and removals left behind. */
+    private void compact() {
+        long liveBytes = 0;
+        for (int r = 0; r < size; r++) liveBytes += Math.max(nameLength[r], 0) + Math.max(descriptionLength[r], 0);
+        ByteBuffer compacted = ByteBuffer.allocateDirect((int) Math.min(Integer.MAX_VALUE - 8, Math.max(1024, liveBytes + liveBytes / 2)));
+        int end = 0;
+        for (int r = 0; r < size; r++) {
+            if (nameLength[r] > 0) {
+                compacted.put(end, text, nameAt[r], nameLength[r]);
+                nameAt[r] = end;
+                end += nameLength[r];
+            }
+            if (descriptionLength[r] > 0) {
+                compacted.put(end, text, descriptionAt[r], descriptionLength[r]);
+                descriptionAt[r] = end;
+                end += descriptionLength[r];
+            }
+        }
+        text = compacted;
+        textEnd = end;
+        garbage = 0;
+    }
+
+    private void allocateColumns(int capacity) {
+        ids = new long[capacity];
+        prices = new long[capacity];
+        createdAt = new long[capacity];
+        updatedAt = new long[capacity];
+        versions = new long[capacity];
+        flags = new byte[capacity];
+        nameAt = new int[capacity];
+        nameLength = new int[capacity];
+        descriptionAt = new int[capacity];
+        descriptionLength = new int[capacity];
+    }
+
+    private void growColumns(int capacity) {
+        prices = Arrays.copyOf(prices, capacity);
+        createdAt = Arrays.copyOf(createdAt, capacity);
+        updatedAt = Arrays.copyOf(updatedAt, capacity);
+        versions = Arrays.copyOf(versions, capacity);
+        flags = Arrays.copyOf(flags, capacity);
+        nameAt = Arrays.copyOf(nameAt, capacity);
+        nameLength = Arrays.copyOf(nameLength, capacity);
+        descriptionAt = Arrays.copyOf(descriptionAt, capacity);
+        descriptionLength = Arrays.copyOf(descriptionLength, capacity);
+        ids = Arrays.copyOf(ids, capacity);
+    }
+
+    private void shift(int from, int to, int count) {
+        System.arraycopy(ids, from, ids, to, count);
+        System.arraycopy(prices, from, prices, to, count);
+        System.arraycopy(createdAt, from, createdAt, to, count);
+        System.arraycopy(updatedAt, from, updatedAt, to, count);
+        System.arraycopy(versions, from, versions, to, count);
+        System.arraycopy(flags, from, flags, to, count);
+        System.arraycopy(nameAt, from, nameAt, to, count);
+        System.arraycopy(nameLength, from, nameLength, to, count);
+        System.arraycopy(descriptionAt, from, descriptionAt, to, count);
+        System.arraycopy(descriptionLength, from, descriptionLength, to, count);
+    }
+
+    // ---- conversions
+
+    private static long cents(BigDecimal price) {
+        if (price == null) return NULL_LONG;
+        // the products.price column also keeps two decimals
+        try {
+            // movePointRight rather than unscaledValue(), which would allocate a BigInteger
+            return price.setScale(2, RoundingMode.HALF_UP).movePointRight(2).longValueExact();
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException("price out of range: " + price);
+        }
+    }
+
+    private static long micros(OffsetDateTime t) {
+        if (t == null) return NULL_LONG;
+        return Math.addExact(Math.multiplyExact(t.toEpochSecond(), 1_000_000L), t.getNano() / 1000);
+    }
+
+    private static OffsetDateTime time(long micros) {
+        if (micros == NULL_LONG) return null;
+        Instant instant = Instant.ofEpochSecond(Math.floorDiv(micros, 1_000_000L), Math.floorMod(micros, 1_000_000L) * 1000L);
+        return OffsetDateTime.ofInstant(instant, ZoneOffset.UTC);
+    }
+
+    private static boolean isAscii(String s) {
+        for (int i = 0; i < s.length(); i++) {
+            if (s.charAt(i) >= 0x80) return false;
+        }
+        return true;
+    }
+
+    private static boolean contains(long[] values, int n, long value) {
+        for (int i = 0; i < n; i++) {
+            if (values[i] == value) return true;
+        }
+        return false;
+    }
+
+    /** Every row of a store at one point in time; {@code text} holds the bytes the offsets point into, up to its limit. */
+    static final class Image {
+        final int size;
+        final long nextId;
+        final long[] ids;
+        final long[] prices;
+        final long[] createdAt;
+        final long[] updatedAt;
+        final long[] versions;
+        final byte[] flags;
+        final int[] nameAt;
+        final int[] nameLength;
+        final int[] descriptionAt;
+        final int[] descriptionLength;
+        final ByteBuffer text;
+
+        Image(int size, long nextId, long[] ids, long[] prices, long[] createdAt, long[] updatedAt, long[] versions,
+              byte[] flags, int[] nameAt, int[] nameLength, int[] descriptionAt, int[] descriptionLength, ByteBuffer text) {
+            this.size = size;
+            this.nextId = nextId;
+            this.ids = ids;
+            this.prices = prices;
+            this.createdAt = createdAt;
+            this.updatedAt = updatedAt;
+            this.versions = versions;
+            this.flags = flags;
+            this.nameAt = nameAt;
+            this.nameLength = nameLength;
+            this.descriptionAt = descriptionAt;
+            this.descriptionLength = descriptionLength;
+            this.text = text;
+        }
+    }
+
+    private record NameKey(String name, long id) implements Comparable<NameKey> {
+        @Override
+        public int compareTo(NameKey o) {
+            int c = name.compareTo(o.name);
+            return c != 0 ? c : Long.compare(id, o.id);
+        }
+    }
+
+    private static final class NameChunk {
+        final List<Product> products;
+        final NameKey last;
+
+        NameChunk(List<Product> products, NameKey last) {
+            this.products = products;
+            this.last = last;
+        }
+    }
+
+    private static final class Chunk {
+        final List<Product> products;
+        final long lastId;
+
+        Chunk(List<Product> products, long lastId) {
+            this.products = products;
+            this.lastId = lastId;
+        }
+    }
+}
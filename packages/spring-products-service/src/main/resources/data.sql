@@ -1,2 +1,2 @@
-INSERT INTO products (id, name, description, price, created_at) VALUES (1, 'Widget', 'Small widget', 9.99, CURRENT_TIMESTAMP());
-INSERT INTO products (id, name, description, price, created_at) VALUES (2, 'Gadget', 'Useful gadget', 19.5, CURRENT_TIMESTAMP());
+INSERT INTO products (id, name, description, price, created_at, updated_at, deleted, version) VALUES (1, 'Widget', 'Small widget', 9.99, CURRENT_TIMESTAMP(), CURRENT_TIMESTAMP(), FALSE, 0);
+INSERT INTO products (id, name, description, price, created_at, updated_at, deleted, version) VALUES (2, 'Gadget', 'Useful gadget', 19.5, CURRENT_TIMESTAMP(), CURRENT_TIMESTAMP(), FALSE, 0);
@@ -0,0 +1,226 @@
+package com.example.springapp;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Compares platform and virtual request threads under many concurrent keep-alive connections.
+ * Each client is a virtual thread with its own socket running a closed loop of
+ * {@code GET /api/products?ids=1,2}, which always reaches the database; every JDBC statement is
+ * delayed by {@code load.db-latency-ms} to stand in for a remote database.
+ * <p>
+ * Opt-in, since it opens up to 2 x 10k sockets (raise {@code ulimit -n}) and runs for minutes:
+ * <pre>
+ * mvn test -Dtest=VirtualThreadLoadTest -Dload.test=true \
+ *     [-Dload.connections=1000,5000,10000] [-Dload.seconds=15] [-Dload.db-latency-ms=20] [-Dload.pool-size=400]
+ * </pre>
+ */
+@EnabledIfSystemProperty(named = "load.test", matches = "true")
+public class VirtualThreadLoadTest {
+    private static final byte[] REQUEST = ("GET /api/products?ids=1,2 HTTP/1.1\r\nHost: localhost\r\n\r\n")
+            .getBytes(StandardCharsets.US_ASCII);
+
+    private final int[] connections = Arrays.stream(System.getProperty("load.connections", "1000,5000,10000").split(","))
+            .mapToInt(c -> Integer.parseInt(c.trim())).toArray();
+    private final int seconds = Integer.getInteger("load.seconds", 15);
+    private final int dbLatencyMs = Integer.getInteger("load.db-latency-ms", 20);
+    private final int poolSize = Integer.getInteger("load.pool-size", 400);
+
+    @Test
+    void platformVersusVirtualRequestThreads() throws Exception {
+        System.out.printf("%-8s %11s %12s %9s %9s %9s %8s%n", "threads", "connections", "req/s", "p50 ms", "p99 ms", "max ms", "errors");
+        for (boolean virtual : new boolean[] {false, true}) {
+            try (ConfigurableApplicationContext app = start(virtual)) {
+                int port = ((ServletWebServerApplicationContext) app).getWebServer().getPort();
+                for (int clients : connections) {
+                    run(port, clients, 3);
+                    Result r = run(port, clients, seconds);
+                    System.out.printf(Locale.ROOT, "%-8s %11d %12.0f %9.1f %9.1f %9.1f %8d%n", virtual ? "virtual" : "platform",
+                            clients, r.throughput(), r.percentileMillis(50), r.percentileMillis(99), r.percentileMillis(100), r.errors);
+                    assertThat(r.latencies).isNotEmpty();
+                }
+            }
+        }
+    }
+
+    private ConfigurableApplicationContext start(boolean virtual) {
+        return new SpringApplicationBuilder(DemoApplication.class)
+                .profiles(virtual ? "virtual-threads" : "default")
+                .properties("server.port=0",
+                        "server.tomcat.max-connections=20000",
+                        "server.tomcat.accept-count=1000",
+                        "server.tomcat.max-keep-alive-requests=-1",
+                        "spring.datasource.url=jdbc:h2:mem:load-" + virtual + ";DB_CLOSE_DELAY=-1",
+                        "spring.datasource.hikari.maximum-pool-size=" + poolSize,
+                        "spring.jpa.show-sql=false",
+                        "logging.level.root=WARN")
+                .initializers(ctx -> ctx.getBeanFactory().addBeanPostProcessor(new SlowJdbc(dbLatencyMs)))
+                .run();
+    }
+
+    private Result run(int port, int clients, int durationSeconds) throws Exception {
+        CountDownLatch connected = new CountDownLatch(clients);
+        CountDownLatch go = new CountDownLatch(1);
+        AtomicLong errors = new AtomicLong();
+        long[] window = new long[2];
+        try (ExecutorService pool = Executors.newVirtualThreadPerTaskExecutor()) {
+            Future<?>[] results = new Future<?>[clients];
+            for (int i = 0; i < clients; i++) {
+                results[i] = pool.submit(() -> client(port, connected, go, window, errors));
+            }
+            connected.await();
+            window[0] = System.nanoTime();
+            window[1] = window[0] + durationSeconds * 1_000_000_000L;
+            go.countDown();
+            long[][] perClient = new long[clients][];
+            for (int i = 0; i < clients; i++) perClient[i] = (long[]) results[i].get();
+            long[] all = Arrays.stream(perClient).flatMapToLong(Arrays::stream).sorted().toArray();
+            return new Result(all, durationSeconds, errors.get());
+        }
+    }
+
+    /** One keep-alive connection in a closed loop; returns the latency of every completed request. */
+    private static long[] client(int port, CountDownLatch connected, CountDownLatch go, long[] window, AtomicLong errors) {
+        long[] latencies = new long[256];
+        int n = 0;
+        try (Socket socket = new Socket("localhost", port)) {
+            OutputStream out = socket.getOutputStream();
+            InputStream in = new BufferedInputStream(socket.getInputStream());
+            connected.countDown();
+            go.await();
+            while (System.nanoTime() < window[1]) {
+                long start = System.nanoTime();
+                out.write(REQUEST);
+                out.flush();
+                if (readResponse(in) != 200) errors.incrementAndGet();
+                if (n == latencies.length) latencies = Arrays.copyOf(latencies, n * 2);
+                latencies[n++] = System.nanoTime() - start;
+            }
+        } catch (IOException | InterruptedException e) {
+            errors.incrementAndGet();
+            connected.countDown();
+        }
+        return Arrays.copyOf(latencies, n);
+    }
+
+    /** Reads one HTTP/1.1 response (Content-Length or chunked) and returns its status. */
+    private static int readResponse(InputStream in) throws IOException {
+        String status = line(in);
+        int code = Integer.parseInt(status.substring(9, 12));
+        long length = -1;
+        boolean chunked = false;
+        for (String header; !(header = line(in)).isEmpty(); ) {
+            String lower = header.toLowerCase(Locale.ROOT);
+            if (lower.startsWith("content-length:")) length = Long.parseLong(lower.substring(15).trim());
+            if (lower.startsWith("transfer-encoding:") && lower.contains("chunked")) chunked = true;
+        }
+        if (chunked) {
+            for (long size; (size = Long.parseLong(line(in).trim(), 16)) > 0; ) {
+                skip(in, size);
+                line(in);
+            }
+            line(in);
+        } else if (length > 0) {
+            skip(in, length);
+        }
+        return code;
+    }
+
+    private static String line(InputStream in) throws IOException {
+        StringBuilder sb = new StringBuilder();
+        for (int b; (b = in.read()) != '\n'; ) {
+            if (b < 0) throw new IOException("connection closed");
+            if (b != '\r') sb.append((char) b);
+        }
+        return sb.toString();
+    }
+
+    private static void skip(InputStream in, long n) throws IOException {
+        while (n > 0) {
+            long skipped = in.skip(n);
+            if (skipped <= 0) {
+                if (in.read() < 0) throw new IOException("connection closed");
+                skipped = 1;
+            }
+            n -= skipped;
+        }
+    }
+
+    private static final class Result {
+        final long[] latencies;
+        final int seconds;
+        final long errors;
+
+        Result(long[] latencies, int seconds, long errors) {
+            this.latencies = latencies;
+            this.seconds = seconds;
+            this.errors = errors;
+        }
+
+        double throughput() { return latencies.length / (double) seconds; }
+
+        double percentileMillis(int p) {
+            if (latencies.length == 0) return Double.NaN;
+            int at = (int) Math.min(latencies.length - 1, Math.ceil(latencies.length * p / 100.0) - 1);
+            return latencies[Math.max(at, 0)] / 1e6;
+        }
+    }
+
+    /** Delays every statement execution while the pooled connection is held, like a network round trip. */
+    private static final class SlowJdbc implements BeanPostProcessor {
+        private final int latencyMs;
+
+        SlowJdbc(int latencyMs) { this.latencyMs = latencyMs; }
+
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName) {
+            if (!(bean instanceof DataSource dataSource) || bean instanceof DelegatingDataSource) return bean;
+            return new DelegatingDataSource(dataSource) {
+                @Override
+                public Connection getConnection() throws SQLException {
+                    return proxy(Connection.class, super.getConnection());
+                }
+            };
+        }
+
+        @SuppressWarnings("unchecked")
+        private <T> T proxy(Class<T> type, T target) {
+            return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] {type}, (p, method, args) -> {
+                if (type == PreparedStatement.class && method.getName().startsWith("execute")) Thread.sleep(latencyMs);
+                try {
+                    Object result = method.invoke(target, args);
+                    return result instanceof PreparedStatement ps && type == Connection.class ? proxy(PreparedStatement.class, ps) : result;
+                } catch (InvocationTargetException e) {
+                    throw e.getCause();
+                }
+            });
+        }
+    }
+}
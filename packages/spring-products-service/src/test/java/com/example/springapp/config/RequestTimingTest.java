@@ -0,0 +1,151 @@
+package com.example.springapp.config;
+
+import com.example.springapp.service.NameSearchIndex;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import javax.sql.DataSource;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Statement counts per endpoint, read from the Server-Timing header. A lazy association or a
+ * per-row lookup added to ProductService shows up here as a count that grows with the data.
+ */
+@AutoConfigureTestDatabase
+@AutoConfigureMockMvc
+// snapshots off, so every list request reaches the database and its statements are counted
+@SpringBootTest(properties = {"products.request-timing.statement-budget=2", "products.request-timing.expose-header=true",
+        "products.request-timing.sql.enabled=true", "products.snapshot.enabled=false"})
+public class RequestTimingTest {
+    private static final Pattern SQL = Pattern.compile("sql;dur=[0-9.]+;desc=\"(\\d+) statements, (\\d+) rows\"");
+
+    @Autowired
+    private MockMvc mvc;
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    @Autowired
+    private NameSearchIndex nameIndex;
+
+    // 20 rows besides the two from data.sql, old enough for the sync feed's settle time; written
+    // behind the service's back, so the name index is reloaded to find them
+    @BeforeEach
+    void seed() {
+        jdbc.update("MERGE INTO products (id, name, description, price, created_at, updated_at, deleted, version) KEY (id) "
+                + "SELECT x, 'Seeded ' || x, NULL, 1.00, TIMESTAMP WITH TIME ZONE '2024-01-01 00:00:00+00:00', "
+                + "TIMESTAMP WITH TIME ZONE '2024-01-01 00:00:00+00:00', FALSE, 0 FROM SYSTEM_RANGE(101, 120)");
+        nameIndex.load();
+    }
+
+    @Test
+    void headerBreaksDownTheRequest() throws Exception {
+        String header = mvc.perform(get("/api/products"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(RequestTimings.HEADER);
+
+        assertThat(header).containsPattern("controller;dur=[0-9.]+, service;dur=[0-9.]+, sql;dur=[0-9.]+;desc=\"1 statements, \\d+ rows\", json;dur=[0-9.]+, total;dur=[0-9.]+$");
+        assertThat(rows(header)).isPositive();
+    }
+
+    // pages and lookups read one row more than they return when there may be another page
+    @ParameterizedTest
+    @CsvSource({
+            "/api/products, 22",
+            "'/api/products?limit=1', 2",
+            "'/api/products?limit=20', 21",
+            "'/api/products?limit=2&q=widg', 1",
+            "'/api/products?limit=30&q=seed', 20",
+            "'/api/products?ids=1', 1",
+            "'/api/products?ids=1,2,101,102,103,104,105,106', 8",
+            "'/api/products?q=widg', 1",
+            "'/api/products?q=seed', 20",
+            "'/api/products/changes?limit=1', 2",
+            "'/api/products/changes?limit=15', 16",
+    })
+    void readsRunOneStatementWhateverTheRowCount(String uri, long rows) throws Exception {
+        String header = mvc.perform(get(uri)).andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(RequestTimings.HEADER);
+
+        assertThat(rows(header)).as(uri).isEqualTo(rows);
+        assertThat(statements(header)).as(uri).isEqualTo(1);
+        assertThat(header).doesNotContain("statement-budget");
+    }
+
+    @Test
+    void updateIsOneWriteAndOneReadBack() throws Exception {
+        String header = mvc.perform(put("/api/products/2").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"Timed\",\"price\":3.50}"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(RequestTimings.HEADER);
+
+        assertThat(statements(header)).isEqualTo(2);
+    }
+
+    @Test
+    void notModifiedStillCarriesTheHeader() throws Exception {
+        String etag = mvc.perform(get("/api/products/1")).andReturn().getResponse().getHeader("ETag");
+
+        String header = mvc.perform(get("/api/products/1").header("If-None-Match", etag))
+                .andExpect(status().isNotModified())
+                .andReturn().getResponse().getHeader(RequestTimings.HEADER);
+
+        assertThat(header).contains("total;dur=");
+    }
+
+    @Test
+    void exceedingTheBudgetIsFlagged() {
+        RequestTimings timings = RequestTimings.start(2, true, true);
+        try {
+            for (int i = 0; i < 3; i++) timings.statement("select p from Product p where p.id = ?", 1_000);
+        } finally {
+            RequestTimings.clear();
+        }
+
+        assertThat(timings.overBudget()).isTrue();
+        assertThat(timings.header()).endsWith("statement-budget;desc=\"exceeded: 3 > 2\"");
+        assertThat(timings.capturedSql()).contains("3x 0.0 ms select p from Product p where p.id = ?");
+    }
+
+    @Test
+    void sqlTracingOff_LeavesDataSourceAndHeaderAlone() {
+        DataSource dataSource = new DriverManagerDataSource("jdbc:h2:mem:untraced");
+        assertThat(RequestTimingConfig.sqlTracingDataSource(false).postProcessAfterInitialization(dataSource, "dataSource"))
+                .isSameAs(dataSource);
+
+        RequestTimings timings = RequestTimings.start(2, true, false);
+        RequestTimings.clear();
+
+        assertThat(timings.header()).doesNotContain("sql;").contains("json;dur=");
+        assertThat(timings.overBudget()).isFalse();
+    }
+
+    private static int statements(String header) {
+        return Integer.parseInt(sql(header).group(1));
+    }
+
+    private static long rows(String header) {
+        return Long.parseLong(sql(header).group(2));
+    }
+
+    private static Matcher sql(String header) {
+        Matcher m = SQL.matcher(header);
+        assertThat(m.find()).as(header).isTrue();
+        return m;
+    }
+}
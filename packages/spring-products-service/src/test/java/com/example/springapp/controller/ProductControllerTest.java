@@ -1,10 +1,21 @@
 package com.example.springapp.controller;
 
+import com.example.springapp.config.ProductProtobuf;
+import com.example.springapp.config.ProductProtobufConverter;
 import com.example.springapp.dto.ProductDto;
+import com.example.springapp.dto.ProductFields;
+import com.example.springapp.dto.ProductLookup;
+import com.example.springapp.dto.ProductPage;
+import com.example.springapp.exception.ConflictException;
 import com.example.springapp.exception.NotFoundException;
 import com.example.springapp.model.Product;
+import com.example.springapp.service.CatalogSnapshots;
 import com.example.springapp.service.ProductService;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.CodedOutputStream;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
@@ -12,10 +23,13 @@ import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.io.ByteArrayOutputStream;
 import java.math.BigDecimal;
-import java.util.Arrays;
+import java.time.OffsetDateTime;
 import java.util.List;
+import java.util.Map;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.hamcrest.Matchers.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.*;
@@ -32,6 +46,9 @@ public class ProductControllerTest {
     @MockBean
     private ProductService service;
 
+    @MockBean
+    private CatalogSnapshots snapshots;
+
     @Autowired
     private ObjectMapper mapper;
 
@@ -40,7 +57,7 @@ public class ProductControllerTest {
         Product p1 = createProduct(1L, "Laptop", "Gaming laptop", new BigDecimal("1200.00"));
         Product p2 = createProduct(2L, "Mouse", "Wireless mouse", new BigDecimal("25.50"));
         
-        when(service.listAll(null)).thenReturn(Arrays.asList(p1, p2));
+        when(snapshots.get(null)).thenReturn(snapshot("a-1", p1, p2));
         
         mvc.perform(get("/api/products"))
                 .andExpect(status().isOk())
@@ -50,21 +67,36 @@ public class ProductControllerTest {
                 .andExpect(jsonPath("$[1].id", is(2)))
                 .andExpect(jsonPath("$[1].name", is("Mouse")));
         
-        verify(service, times(1)).listAll(null);
+        verify(snapshots, times(1)).get(null);
     }
 
     @Test
     void listProductsWithQuery_ReturnsFilteredResults() throws Exception {
         Product p1 = createProduct(1L, "Laptop", "Gaming laptop", new BigDecimal("1200.00"));
         
-        when(service.listAll("Laptop")).thenReturn(Arrays.asList(p1));
+        when(snapshots.get("Laptop")).thenReturn(snapshot("a-1", p1));
         
         mvc.perform(get("/api/products").param("q", "Laptop"))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$", hasSize(1)))
                 .andExpect(jsonPath("$[0].name", is("Laptop")));
         
-        verify(service, times(1)).listAll("Laptop");
+        verify(snapshots, times(1)).get("Laptop");
+    }
+
+    @Test
+    void listProductsWithLimit_ReturnsPageWithCursor() throws Exception {
+        Product p1 = createProduct(1L, "Laptop", "Gaming laptop", new BigDecimal("1200.00"));
+
+        when(service.listPage(null, 1, "abc")).thenReturn(new ProductPage(List.of(p1), "next"));
+
+        mvc.perform(get("/api/products").param("limit", "1").param("after", "abc"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items", hasSize(1)))
+                .andExpect(jsonPath("$.items[0].name", is("Laptop")))
+                .andExpect(jsonPath("$.nextCursor", is("next")));
+
+        verify(service, never()).listAll(any());
     }
 
     @Test
@@ -116,6 +148,66 @@ public class ProductControllerTest {
         verify(service, times(1)).create(any(ProductDto.class));
     }
 
+    @Test
+    void listAllProducts_AcceptCbor_ReturnsCbor() throws Exception {
+        when(service.catalogVersion()).thenReturn("a-1");
+        when(service.listAll(null)).thenReturn(List.of(createProduct(1L, "Laptop", "Gaming laptop", new BigDecimal("1200.00"))));
+
+        byte[] body = mvc.perform(get("/api/products").accept(MediaType.APPLICATION_CBOR))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+                .andExpect(header().string("ETag", "\"ca-1-cbor\""))
+                .andExpect(header().stringValues("Vary", hasItem(containsString("Accept"))))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        JsonNode items = new CBORMapper().readTree(body);
+        assertThat(items.get(0).get("name").asText()).isEqualTo("Laptop");
+        assertThat(items.get(0).get("price").decimalValue()).isEqualByComparingTo("1200.00");
+    }
+
+    @Test
+    void listAllProducts_AcceptProtobuf_RoundTrips() throws Exception {
+        Product p = createProduct(1L, "Laptop", "Gaming laptop", new BigDecimal("1200.00"));
+        p.setCreatedAt(OffsetDateTime.parse("2024-03-01T10:15:30.123456789+02:00"));
+        p.setVersion(4L);
+        when(service.listAll(null)).thenReturn(List.of(p, createProduct(2L, "Mouse", null, new BigDecimal("25.50"))));
+
+        byte[] body = mvc.perform(get("/api/products").accept(ProductProtobufConverter.PROTOBUF))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(ProductProtobufConverter.PROTOBUF))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        List<Product> items = ProductProtobuf.readProducts(CodedInputStream.newInstance(body));
+        assertThat(items).extracting(Product::getName).containsExactly("Laptop", "Mouse");
+        assertThat(items.get(0).getPrice()).isEqualTo(new BigDecimal("1200.00"));
+        assertThat(items.get(0).getCreatedAt()).isEqualTo(p.getCreatedAt());
+        assertThat(items.get(0).getVersion()).isEqualTo(4L);
+        assertThat(items.get(1).getDescription()).isNull();
+    }
+
+    @Test
+    void createProduct_ProtobufBody_IsValidatedAndAnswered() throws Exception {
+        ProductDto dto = new ProductDto();
+        dto.setName("New Product");
+        dto.setPrice(new BigDecimal("99.99"));
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        CodedOutputStream out = CodedOutputStream.newInstance(bytes);
+        ProductProtobuf.writeDto(dto, out);
+        out.flush();
+        when(service.create(any())).thenReturn(createProduct(1L, "New Product", null, new BigDecimal("99.99")));
+
+        byte[] body = mvc.perform(post("/api/products").contentType(ProductProtobufConverter.PROTOBUF)
+                        .accept(ProductProtobufConverter.PROTOBUF).content(bytes.toByteArray()))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsByteArray();
+
+        assertThat(ProductProtobuf.readProduct(CodedInputStream.newInstance(body)).getId()).isEqualTo(1L);
+        verify(service).create(argThat(d -> d.getName().equals("New Product") && d.getPrice().equals(new BigDecimal("99.99"))));
+
+        mvc.perform(post("/api/products").contentType(ProductProtobufConverter.PROTOBUF).content(new byte[0]))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     void createProduct_MissingName_ReturnsBadRequest() throws Exception {
         ProductDto dto = new ProductDto();
@@ -180,6 +272,204 @@ public class ProductControllerTest {
         verify(service, times(1)).update(eq(999L), any(ProductDto.class));
     }
 
+    @Test
+    void updateProduct_StaleVersion_Returns409() throws Exception {
+        ProductDto dto = new ProductDto();
+        dto.setName("Updated");
+        dto.setPrice(BigDecimal.valueOf(50.0));
+        dto.setVersion(1L);
+
+        when(service.update(eq(1L), any())).thenThrow(new ConflictException("Product was modified concurrently"));
+
+        mvc.perform(put("/api/products/1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(mapper.writeValueAsString(dto)))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.message", is("Product was modified concurrently")));
+    }
+
+    @Test
+    void listAllProducts_AcceptGzip_ServesPrecompressedSnapshot() throws Exception {
+        byte[] json = mapper.writeValueAsBytes(List.of(createProduct(1L, "Laptop", "Gaming laptop", new BigDecimal("1200.00"))));
+        byte[] gzip = {31, -117, 8, 0};
+        when(snapshots.get(null)).thenReturn(new CatalogSnapshots.Snapshot("k1-9", json, gzip));
+
+        mvc.perform(get("/api/products").header("Accept-Encoding", "br, gzip"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Encoding", "gzip"))
+                .andExpect(header().string("Vary", containsString("Accept-Encoding")))
+                .andExpect(header().string("ETag", "\"ck1-9-gz\""))
+                .andExpect(content().bytes(gzip));
+
+        mvc.perform(get("/api/products").header("Accept-Encoding", "gzip;q=0"))
+                .andExpect(header().doesNotExist("Content-Encoding"))
+                .andExpect(header().string("ETag", "\"ck1-9\""))
+                .andExpect(content().bytes(json));
+    }
+
+    @Test
+    void listAllProducts_SnapshotBehindCatalog_TagsWithSnapshotVersion() throws Exception {
+        when(service.catalogVersion()).thenReturn("k1-10");
+        when(snapshots.get(null)).thenReturn(snapshot("k1-9", createProduct(1L, "Laptop", "Gaming laptop", new BigDecimal("1200.00"))));
+
+        mvc.perform(get("/api/products").header("If-None-Match", "\"ck1-9\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", "\"ck1-9\""));
+    }
+
+    @Test
+    void listAllProducts_MatchingIfNoneMatch_Returns304WithoutQuerying() throws Exception {
+        when(service.catalogVersion()).thenReturn("k1-7");
+
+        mvc.perform(get("/api/products").header("If-None-Match", "\"ck1-7\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", "\"ck1-7\""))
+                .andExpect(content().string(""));
+
+        verify(service, never()).listAll(any());
+        verify(snapshots, never()).get(any());
+    }
+
+    @Test
+    void listAllProducts_StaleIfNoneMatch_ReturnsBodyWithNewEtag() throws Exception {
+        when(service.catalogVersion()).thenReturn("k1-8");
+        when(snapshots.get(null)).thenReturn(snapshot("k1-8", createProduct(1L, "Laptop", "Gaming laptop", new BigDecimal("1200.00"))));
+
+        mvc.perform(get("/api/products").header("If-None-Match", "\"ck1-7\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"ck1-8\""))
+                .andExpect(jsonPath("$", hasSize(1)));
+    }
+
+    @Test
+    void getProduct_MatchingIfNoneMatch_Returns304() throws Exception {
+        Product product = createProduct(1L, "Laptop", "Gaming laptop", new BigDecimal("1200.00"));
+        product.setVersion(4L);
+        when(service.get(1L)).thenReturn(product);
+
+        mvc.perform(get("/api/products/1").header("If-None-Match", "\"v4\""))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+    }
+
+    @Test
+    void getProduct_BinaryFormat_HasItsOwnEtag() throws Exception {
+        Product product = createProduct(1L, "Laptop", "Gaming laptop", new BigDecimal("1200.00"));
+        product.setVersion(4L);
+        when(service.get(1L)).thenReturn(product);
+
+        mvc.perform(get("/api/products/1").accept(MediaType.APPLICATION_CBOR).header("If-None-Match", "\"v4\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"v4-cbor\""))
+                .andExpect(header().string("Vary", containsString("Accept")));
+        mvc.perform(get("/api/products/1").accept(MediaType.APPLICATION_CBOR).header("If-None-Match", "\"v4-cbor\""))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    void updateProduct_IfMatch_PassesVersionAndReturns412WhenStale() throws Exception {
+        ProductDto dto = new ProductDto();
+        dto.setName("Updated");
+        dto.setPrice(BigDecimal.valueOf(50.0));
+
+        when(service.update(eq(1L), argThat(d -> Long.valueOf(3L).equals(d.getVersion()))))
+                .thenThrow(new ConflictException("Product was modified concurrently"));
+
+        mvc.perform(put("/api/products/1")
+                        .header("If-Match", "\"v3\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(mapper.writeValueAsString(dto)))
+                .andExpect(status().isPreconditionFailed());
+    }
+
+    @Test
+    void updateProduct_ForeignIfMatch_Returns412WithoutWriting() throws Exception {
+        ProductDto dto = new ProductDto();
+        dto.setName("Updated");
+        dto.setPrice(BigDecimal.valueOf(50.0));
+
+        mvc.perform(put("/api/products/1")
+                        .header("If-Match", "\"abc\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(mapper.writeValueAsString(dto)))
+                .andExpect(status().isPreconditionFailed());
+
+        verify(service, never()).update(any(), any());
+    }
+
+    @Test
+    void lookupProducts_ReturnsItemsAndMissingIds() throws Exception {
+        Product p2 = createProduct(2L, "Mouse", "Wireless mouse", new BigDecimal("25.50"));
+        when(service.getAll(List.of(2L, 9L))).thenReturn(new ProductLookup(List.of(p2), List.of(9L)));
+
+        mvc.perform(get("/api/products").param("ids", "2,9"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].id", is(2)))
+                .andExpect(jsonPath("$.missing[0]", is(9)));
+
+        verify(service, never()).get(any());
+    }
+
+    @Test
+    void lookupProducts_WithLimit_ReturnsBadRequest() throws Exception {
+        mvc.perform(get("/api/products").param("ids", "1,2").param("limit", "10"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message", containsString("ids cannot be combined with limit")));
+
+        verify(service, never()).listPage(any(), anyInt(), any());
+        verify(service, never()).getAll(any());
+    }
+
+    @Test
+    void listProductsWithFields_ReturnsProjectedRows() throws Exception {
+        when(service.catalogVersion()).thenReturn("a-1");
+        when(service.listFields(eq("lap"), any(ProductFields.class)))
+                .thenReturn(List.of(Map.of("id", 1L, "name", "Laptop", "version", 0L)));
+
+        mvc.perform(get("/api/products").param("q", "lap").param("fields", "name"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"ca-1\""))
+                .andExpect(jsonPath("$[0].name", is("Laptop")))
+                .andExpect(jsonPath("$[0].description").doesNotExist());
+
+        verify(service, never()).listAll(any());
+    }
+
+    @Test
+    void pageOrLookupWithFields_ReturnsBadRequest() throws Exception {
+        mvc.perform(get("/api/products").param("limit", "20").param("fields", "name"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message", containsString("fields cannot be combined with limit")));
+        mvc.perform(get("/api/products").param("ids", "1,2").param("fields", "name"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message", containsString("fields cannot be combined with ids")));
+
+        verify(service, never()).listPage(any(), anyInt(), any());
+        verify(service, never()).getAll(any());
+    }
+
+    @Test
+    void getProductWithFields_TagsWithVersion() throws Exception {
+        when(service.getFields(eq(1L), any(ProductFields.class)))
+                .thenReturn(Map.of("id", 1L, "price", new BigDecimal("9.99"), "version", 3L));
+
+        mvc.perform(get("/api/products/1").param("fields", "price"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"v3\""))
+                .andExpect(jsonPath("$.price", is(9.99)));
+
+        verify(service, never()).get(any());
+    }
+
+    @Test
+    void listProductsWithUnknownField_ReturnsBadRequest() throws Exception {
+        mvc.perform(get("/api/products").param("fields", "name,secret"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message", containsString("fields must be among")));
+
+        verify(service, never()).listFields(any(), any());
+    }
+
     @Test
     void deleteProduct_ReturnsNoContent() throws Exception {
         doNothing().when(service).delete(1L);
@@ -200,6 +490,10 @@ public class ProductControllerTest {
         verify(service, times(1)).delete(999L);
     }
 
+    private CatalogSnapshots.Snapshot snapshot(String version, Product... products) throws Exception {
+        return new CatalogSnapshots.Snapshot(version, mapper.writeValueAsBytes(List.of(products)), null);
+    }
+
     private Product createProduct(Long id, String name, String description, BigDecimal price) {
         Product p = new Product();
         p.setId(id);
@@ -0,0 +1,86 @@
+package com.example.springapp.controller;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.hamcrest.Matchers.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+// a pooled database of its own: the embedded test database has no Hikari pool to report on
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@AutoConfigureMockMvc
+@AutoConfigureObservability
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:metrics;DB_CLOSE_DELAY=-1")
+public class ProductMetricsTest {
+
+    @Autowired
+    private MockMvc mvc;
+
+    @Autowired
+    private MeterRegistry registry;
+
+    @Test
+    void timersAreRegisteredBeforeFirstCall() {
+        assertThat(registry.find("products.service").tags("class", "ProductService", "method", "update").timer()).isNotNull();
+        assertThat(registry.find("products.repository").tags("class", "ProductRepository", "method", "findById").timer()).isNotNull();
+        assertThat(registry.find("products.controller").tags("class", "ProductController", "method", "get").timer()).isNotNull();
+        assertThat(registry.find("products.errors").tag("type", "not_found").counter()).isNotNull();
+    }
+
+    @Test
+    void requestIsTimedAtEveryLayer() throws Exception {
+        long controller = count("products.controller", "ProductController", "listPage");
+        long service = count("products.service", "ProductService", "listPage");
+        long repository = count("products.repository", "ProductRepository", "findByIdGreaterThanOrderByIdAsc");
+
+        mvc.perform(get("/api/products").param("limit", "10")).andExpect(status().isOk());
+
+        assertThat(count("products.controller", "ProductController", "listPage")).isEqualTo(controller + 1);
+        assertThat(count("products.service", "ProductService", "listPage")).isEqualTo(service + 1);
+        assertThat(count("products.repository", "ProductRepository", "findByIdGreaterThanOrderByIdAsc")).isEqualTo(repository + 1);
+    }
+
+    @Test
+    void notFoundAndValidationFailuresAreCounted() throws Exception {
+        double notFound = errors("not_found");
+        double validation = errors("validation");
+
+        mvc.perform(get("/api/products/987654")).andExpect(status().isNotFound());
+        mvc.perform(post("/api/products").contentType(MediaType.APPLICATION_JSON).content("{\"name\":\"\"}"))
+                .andExpect(status().isBadRequest());
+
+        assertThat(errors("not_found")).isEqualTo(notFound + 1);
+        assertThat(errors("validation")).isEqualTo(validation + 1);
+    }
+
+    @Test
+    void prometheusEndpointExposesHistogramsAndPoolAndCacheGauges() throws Exception {
+        mvc.perform(get("/api/products")).andExpect(status().isOk());
+
+        mvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("products_service_seconds_bucket{class=\"ProductService\"")))
+                .andExpect(content().string(containsString("products_repository_seconds_bucket{")))
+                .andExpect(content().string(containsString("http_server_requests_seconds_bucket{")))
+                .andExpect(content().string(containsString("products_errors_total{type=\"not_found\"")))
+                .andExpect(content().string(containsString("hikaricp_connections_active")))
+                .andExpect(content().string(containsString("cache_gets_total{cache=\"products\"")));
+    }
+
+    private long count(String name, String type, String method) {
+        return registry.get(name).tags("class", type, "method", method).timer().count();
+    }
+
+    private double errors(String type) {
+        return registry.get("products.errors").tag("type", type).counter().count();
+    }
+}
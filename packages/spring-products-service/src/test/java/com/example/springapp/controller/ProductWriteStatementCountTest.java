@@ -0,0 +1,108 @@
+package com.example.springapp.controller;
+
+import com.example.springapp.dto.ProductDto;
+import com.example.springapp.model.Product;
+import com.example.springapp.repository.ProductRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.hamcrest.Matchers.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@AutoConfigureTestDatabase
+@AutoConfigureMockMvc
+@SpringBootTest(properties = {"spring.jpa.properties.hibernate.generate_statistics=true", "spring.jpa.show-sql=false",
+        "logging.level.org.hibernate.engine.internal.StatisticalLoggingSessionEventListener=WARN"})
+public class ProductWriteStatementCountTest {
+
+    @Autowired
+    private MockMvc mvc;
+
+    @Autowired
+    private ObjectMapper mapper;
+
+    @Autowired
+    private ProductRepository repository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+    private Product product;
+
+    @BeforeEach
+    void setUp() {
+        Product p = new Product();
+        p.setName("Counted");
+        p.setPrice(BigDecimal.ONE);
+        product = repository.save(p);
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void update_RunsOneUpdateAndOneReadBack() throws Exception {
+        mvc.perform(put("/api/products/" + product.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(mapper.writeValueAsString(dto("Renamed", product.getVersion()))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name", is("Renamed")))
+                .andExpect(jsonPath("$.version", is(product.getVersion().intValue() + 1)));
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+    }
+
+    @Test
+    void update_StaleVersion_Returns409AndKeepsRow() throws Exception {
+        mvc.perform(put("/api/products/" + product.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(mapper.writeValueAsString(dto("First", product.getVersion()))))
+                .andExpect(status().isOk());
+
+        mvc.perform(put("/api/products/" + product.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(mapper.writeValueAsString(dto("Second", product.getVersion()))))
+                .andExpect(status().isConflict());
+
+        assertThat(repository.findById(product.getId())).get().extracting(Product::getName).isEqualTo("First");
+    }
+
+    @Test
+    void delete_RunsOneStatement() throws Exception {
+        mvc.perform(delete("/api/products/" + product.getId()))
+                .andExpect(status().isNoContent());
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(repository.existsById(product.getId())).isFalse();
+    }
+
+    @Test
+    void delete_Missing_Returns404WithOneStatement() throws Exception {
+        mvc.perform(delete("/api/products/-1"))
+                .andExpect(status().isNotFound());
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    private ProductDto dto(String name, Long version) {
+        ProductDto dto = new ProductDto();
+        dto.setName(name);
+        dto.setPrice(BigDecimal.TEN);
+        dto.setVersion(version);
+        return dto;
+    }
+}
@@ -0,0 +1,166 @@
+package com.example.springapp.controller;
+
+import com.example.springapp.dto.ProductDto;
+import com.example.springapp.model.Product;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.hamcrest.Matchers.*;
+
+@ActiveProfiles("reactive")
+@AutoConfigureWebTestClient
+@SpringBootTest(properties = {"spring.datasource.url=jdbc:h2:mem:reactive;DB_CLOSE_DELAY=-1",
+        "products.reactive.r2dbc-url=r2dbc:h2:mem:///reactive?options=DB_CLOSE_DELAY=-1"})
+public class ReactiveProductControllerTest {
+
+    @Autowired
+    private WebTestClient client;
+
+    @Test
+    void list_StreamsSeededProductsAsNdjson() {
+        Flux<Product> body = client.get().uri("/api/products")
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .returnResult(Product.class)
+                .getResponseBody();
+
+        StepVerifier.create(body.filter(p -> p.getId() <= 2), 1)
+                .assertNext(p -> assertThat(p.getName()).isEqualTo("Widget"))
+                .thenRequest(1)
+                .assertNext(p -> assertThat(p.getName()).isEqualTo("Gadget"))
+                .verifyComplete();
+    }
+
+    @Test
+    void list_WithQuery_ReturnsMatches() {
+        client.get().uri("/api/products?q=widg")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$[0].name").isEqualTo("Widget")
+                .jsonPath("$.length()").isEqualTo(1);
+    }
+
+    @Test
+    void get_Missing_ReturnsSameErrorBodyAsServletStack() {
+        client.get().uri("/api/products/999999")
+                .exchange()
+                .expectStatus().isNotFound()
+                .expectBody()
+                .jsonPath("$.message").isEqualTo("Product not found");
+    }
+
+    @Test
+    void create_Invalid_ReturnsFieldErrors() {
+        client.post().uri("/api/products")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(dto("", new BigDecimal("-1")))
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.errors", hasSize(2));
+    }
+
+    @Test
+    void createUpdateDelete_RoundTrip() {
+        Product created = client.post().uri("/api/products")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(dto("Reactive", BigDecimal.TEN))
+                .exchange()
+                .expectStatus().isCreated()
+                .expectBody(Product.class)
+                .returnResult().getResponseBody();
+        assertThat(created.getId()).isNotNull();
+
+        ProductDto stale = dto("Renamed", BigDecimal.ONE);
+        stale.setVersion(created.getVersion() + 5);
+        client.put().uri("/api/products/" + created.getId())
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(stale)
+                .exchange()
+                .expectStatus().isEqualTo(409);
+
+        client.put().uri("/api/products/" + created.getId())
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(dto("Renamed", BigDecimal.ONE))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.name").isEqualTo("Renamed")
+                .jsonPath("$.version").isEqualTo(1);
+
+        client.delete().uri("/api/products/" + created.getId()).exchange().expectStatus().isNoContent();
+        client.get().uri("/api/products/" + created.getId()).exchange().expectStatus().isNotFound();
+    }
+
+    @Test
+    void update_IfMatch_WritesWhenCurrentAndReturns412WhenStale() {
+        Product created = client.post().uri("/api/products")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(dto("Guarded", BigDecimal.TEN))
+                .exchange()
+                .expectStatus().isCreated()
+                .expectBody(Product.class)
+                .returnResult().getResponseBody();
+
+        client.put().uri("/api/products/" + created.getId())
+                .header("If-Match", "\"v" + created.getVersion() + "\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(dto("First", BigDecimal.ONE))
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals("ETag", "\"v" + (created.getVersion() + 1) + "\"")
+                .expectBody()
+                .jsonPath("$.name").isEqualTo("First");
+
+        // the same If-Match again: the product has moved on since
+        client.put().uri("/api/products/" + created.getId())
+                .header("If-Match", "\"v" + created.getVersion() + "\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(dto("Lost update", BigDecimal.ONE))
+                .exchange()
+                .expectStatus().isEqualTo(412);
+
+        client.get().uri("/api/products/" + created.getId())
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.name").isEqualTo("First");
+
+        client.delete().uri("/api/products/" + created.getId()).exchange().expectStatus().isNoContent();
+    }
+
+    @Test
+    void update_ForeignIfMatch_Returns412WithoutWriting() {
+        client.put().uri("/api/products/1")
+                .header("If-Match", "\"abc\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(dto("Lost update", BigDecimal.ONE))
+                .exchange()
+                .expectStatus().isEqualTo(412);
+
+        client.get().uri("/api/products/1")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.name").isEqualTo("Widget");
+    }
+
+    private ProductDto dto(String name, BigDecimal price) {
+        ProductDto dto = new ProductDto();
+        dto.setName(name);
+        dto.setPrice(price);
+        return dto;
+    }
+}
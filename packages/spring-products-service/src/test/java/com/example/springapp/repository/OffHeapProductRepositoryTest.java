@@ -0,0 +1,86 @@
+package com.example.springapp.repository;
+
+import com.example.springapp.dto.ProductDto;
+import com.example.springapp.service.ProductService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.hamcrest.Matchers.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+// No @AutoConfigureTestDatabase: the point is that there is no database at all.
+@AutoConfigureMockMvc
+@ActiveProfiles("offheap")
+@SpringBootTest
+public class OffHeapProductRepositoryTest {
+
+    @Autowired
+    private MockMvc mvc;
+
+    @Autowired
+    private ObjectMapper mapper;
+
+    @Autowired
+    private ApplicationContext context;
+
+    @Autowired
+    private ProductService service;
+
+    @Test
+    void context_HasNoDataSourceOrJpa() {
+        assertThat(context.getBeansOfType(DataSource.class)).isEmpty();
+        assertThat(context.getBean(CatalogRepository.class)).isInstanceOf(OffHeapProductRepository.class);
+        assertThat(context.getBeansOfType(ProductRepository.class)).isEmpty();
+    }
+
+    @Test
+    void productApi_WorksAgainstTheStore() throws Exception {
+        String body = mvc.perform(post("/api/products")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(mapper.writeValueAsString(dto("Edge Laptop", "Ultralight", "999.99"))))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        long id = mapper.readTree(body).get("id").asLong();
+
+        mvc.perform(get("/api/products/" + id))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name", is("Edge Laptop")))
+                .andExpect(jsonPath("$.price", is(999.99)));
+        mvc.perform(get("/api/products").param("q", "edge lap"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[*].id", hasItem((int) id)));
+        mvc.perform(get("/api/products").param("limit", "10").param("q", "edge"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].id", is((int) id)));
+
+        mvc.perform(put("/api/products/" + id)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(mapper.writeValueAsString(dto("Edge Laptop 2", "Ultralight", "899.99"))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.version", is(1)));
+
+        mvc.perform(delete("/api/products/" + id)).andExpect(status().isNoContent());
+        mvc.perform(get("/api/products/" + id)).andExpect(status().isNotFound());
+        assertThat(service.listAll("edge")).extracting(p -> p.getId()).doesNotContain(id);
+    }
+
+    private ProductDto dto(String name, String description, String price) {
+        ProductDto dto = new ProductDto();
+        dto.setName(name);
+        dto.setDescription(description);
+        dto.setPrice(new BigDecimal(price));
+        return dto;
+    }
+}
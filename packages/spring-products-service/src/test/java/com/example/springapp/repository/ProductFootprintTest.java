@@ -0,0 +1,92 @@
+package com.example.springapp.repository;
+
+import com.example.springapp.model.Product;
+import com.example.springapp.store.ProductStore;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+import java.lang.management.BufferPoolMXBean;
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Memory per product of the same catalog held two ways: as H2 rows plus the managed entities a
+ * {@code findAll()} returns, and as a {@link ProductStore} (heap columns plus off-heap text).
+ * Measured as used heap (and direct memory) after a full GC, so the numbers are approximate.
+ * <p>
+ * Opt-in, since it forces several full GCs and its heap deltas depend on what else the JVM is doing:
+ * <pre>
+ * mvn test -Dtest=ProductFootprintTest -Dfootprint.test=true
+ * </pre>
+ */
+@EnabledIfSystemProperty(named = "footprint.test", matches = "true")
+@DataJpaTest
+public class ProductFootprintTest {
+    private static final int ROWS = 50_000;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Test
+    void offHeapStore_UsesFarLessMemoryPerProductThanJpa() {
+        // Given: the catalog in H2, loaded as entities
+        long heapBefore = usedHeap();
+        entityManager.getEntityManager().createNativeQuery(
+                "INSERT INTO products (id, name, description, price, created_at, updated_at, deleted, version) "
+                        + "SELECT X + 10000000, 'Product ' || X, 'Description of product ' || X, 19.99, CURRENT_TIMESTAMP(), CURRENT_TIMESTAMP(), FALSE, 0 "
+                        + "FROM SYSTEM_RANGE(1, " + ROWS + ")").executeUpdate();
+        List<Product> entities = productRepository.findAll();
+        long jpaBytes = usedHeap() - heapBefore;
+
+        // When: the same rows in a ProductStore
+        heapBefore = usedHeap();
+        long directBefore = directMemory();
+        ProductStore store = new ProductStore(1024);
+        for (int x = 1; x <= ROWS; x++) {
+            Product p = new Product();
+            p.setId(10_000_000L + x);
+            p.setName("Product " + x);
+            p.setDescription("Description of product " + x);
+            p.setPrice(new BigDecimal("19.99"));
+            store.save(p);
+        }
+        long storeBytes = usedHeap() - heapBefore + directMemory() - directBefore;
+
+        // Then
+        assertThat(entities).hasSizeGreaterThanOrEqualTo(ROWS);
+        assertThat(store.count()).isEqualTo(ROWS);
+        assertThat(storeBytes * 2)
+                .as("bytes per product: JPA/H2 %d, off-heap store %d (columns %d + text %d, as allocated)",
+                        jpaBytes / ROWS, storeBytes / ROWS, store.heapBytes() / ROWS, store.offHeapBytes() / ROWS)
+                .isLessThan(jpaBytes);
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private static long directMemory() {
+        return ManagementFactory.getPlatformMXBeans(BufferPoolMXBean.class).stream()
+                .filter(pool -> pool.getName().equals("direct"))
+                .mapToLong(BufferPoolMXBean::getMemoryUsed)
+                .sum();
+    }
+}
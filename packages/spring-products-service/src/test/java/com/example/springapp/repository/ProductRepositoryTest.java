@@ -1,15 +1,24 @@
 package com.example.springapp.repository;
 
+import com.example.springapp.dto.ProductFields;
 import com.example.springapp.model.Product;
+import org.hibernate.Session;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Limit;
 
 import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 import static org.assertj.core.api.Assertions.*;
 
@@ -234,4 +243,150 @@ public class ProductRepositoryTest {
         // Then
         assertThat(exists).isFalse();
     }
+
+    @Test
+    void findByIdGreaterThan_SeeksPastCursor() {
+        // When
+        List<Product> firstPage = productRepository.findByIdGreaterThanOrderByIdAsc(0L, Limit.of(2));
+        List<Product> secondPage = productRepository.findByIdGreaterThanOrderByIdAsc(firstPage.get(1).getId(), Limit.of(2));
+
+        // Then
+        assertThat(firstPage).extracting(Product::getName).containsExactly("Laptop", "Mouse");
+        assertThat(secondPage).extracting(Product::getName).containsExactly("Laptop Stand");
+    }
+
+    @Test
+    void findByNameContainingIgnoreCaseAfter_SeeksOnNameThenId() {
+        // Given
+        Product duplicate = new Product();
+        duplicate.setName("Laptop");
+        duplicate.setPrice(new BigDecimal("1.00"));
+        entityManager.persistAndFlush(duplicate);
+
+        // When
+        List<Product> firstPage = productRepository.findByNameContainingIgnoreCaseOrderByNameAscIdAsc("lap", Limit.of(1));
+        Product last = firstPage.get(0);
+        List<Product> rest = productRepository.findByNameContainingIgnoreCaseAfter("lap", last.getName(), last.getId(), Limit.of(10));
+
+        // Then
+        assertThat(last.getId()).isEqualTo(product1.getId());
+        assertThat(rest).extracting(Product::getId).containsExactly(duplicate.getId(), product3.getId());
+    }
+
+    @Test
+    void findByNameContainingIgnoreCaseAfter_TreatsWildcardsLiterally() {
+        // When
+        List<Product> results = productRepository.findByNameContainingIgnoreCaseAfter("%", "", 0L, Limit.of(10));
+
+        // Then
+        assertThat(results).isEmpty();
+    }
+
+    @Test
+    void findFields_SelectsOnlyRequestedColumnsPlusIdAndVersion() {
+        // Given
+        entityManager.clear();
+
+        // When
+        List<Map<String, Object>> rows = productRepository.findFields(ProductFields.parse("name,price"), null, null);
+
+        // Then
+        assertThat(rows).hasSize(3);
+        assertThat(rows.get(0)).containsOnlyKeys("id", "name", "price", "version")
+                .containsEntry("id", product1.getId())
+                .containsEntry("name", "Laptop");
+        assertThat(entityManager.getEntityManager().unwrap(Session.class).getStatistics().getEntityCount()).isZero();
+    }
+
+    @Test
+    void findFields_FiltersByIdsAndNameAndSkipsTombstones() {
+        // Given
+        productRepository.removeById(product3.getId(), OffsetDateTime.now());
+
+        // When
+        List<Map<String, Object>> byName = productRepository.findFields(ProductFields.parse("name"), null, "LAPTOP");
+        List<Map<String, Object>> byIds = productRepository.findFields(ProductFields.parse("name"),
+                List.of(product2.getId(), product3.getId()), null);
+
+        // Then
+        assertThat(byName).extracting(r -> r.get("id")).containsExactly(product1.getId());
+        assertThat(byIds).extracting(r -> r.get("name")).containsExactly("Mouse");
+    }
+
+    @Test
+    void keysetPages_SeekThroughTheIndex_WhateverTheDepth() {
+        // Given: 5000 more rows generated inside the database
+        int rows = 5_000;
+        entityManager.getEntityManager().createNativeQuery(
+                "INSERT INTO products (id, name, description, price, created_at, updated_at, deleted, version) "
+                        + "SELECT X + 10000000, 'Bulk ' || LPAD(CAST(X AS VARCHAR), 7, '0'), NULL, 1.00, CURRENT_TIMESTAMP(), CURRENT_TIMESTAMP(), FALSE, 0 "
+                        + "FROM SYSTEM_RANGE(1, " + rows + ")").executeUpdate();
+
+        // When: the statements the keyset queries run, planned and counted by H2
+        String byId = "SELECT p.id FROM products p WHERE p.id > %d AND p.deleted = FALSE ORDER BY p.id FETCH FIRST 50 ROWS ONLY";
+        String byName = "SELECT p.id FROM products p WHERE UPPER(p.name) LIKE UPPER('%%bulk%%') ESCAPE '\\' "
+                + "AND p.name >= '%s' AND (p.name > '%s' OR p.id > %d) AND p.deleted = FALSE "
+                + "ORDER BY p.name, p.id FETCH FIRST 50 ROWS ONLY";
+        String firstById = explainAnalyze(byId.formatted(0));
+        String deepById = explainAnalyze(byId.formatted(10_000_000 + rows - 100));
+        String firstByName = explainAnalyze(byName.formatted("", "", 0));
+        String deepByName = explainAnalyze(byName.formatted("Bulk 0004900", "Bulk 0004900", 10_004_900));
+
+        // Then: every page is read in index order and stops after its 50 rows, however deep it is
+        assertThat(List.of(firstById, deepById)).allSatisfy(plan -> assertThat(plan).contains("PRIMARY_KEY", "index sorted"));
+        assertThat(List.of(firstByName, deepByName)).allSatisfy(plan -> assertThat(plan).contains("IDX_PRODUCTS_NAME_ID", "index sorted"));
+        assertThat(List.of(firstById, deepById, firstByName, deepByName)).allSatisfy(plan -> assertThat(scanCount(plan)).isLessThanOrEqualTo(51));
+        assertThat(productRepository.findByNameContainingIgnoreCaseAfter("bulk", "Bulk 0004900", 10_004_900L, Limit.of(50)))
+                .hasSize(50).first().extracting(Product::getName).isEqualTo("Bulk 0004901");
+    }
+
+    /**
+     * Opt-in, since it fills the table with 1M rows and compares wall-clock times:
+     * <pre>
+     * mvn test -Dtest=ProductRepositoryTest -Dvolume.test=true
+     * </pre>
+     */
+    @EnabledIfSystemProperty(named = "volume.test", matches = "true")
+    @Test
+    void keysetPageLatency_DoesNotGrowWithDepth() {
+        // Given: a 1M-row catalog generated inside the database
+        int rows = 1_000_000;
+        entityManager.getEntityManager().createNativeQuery(
+                "INSERT INTO products (id, name, description, price, created_at, updated_at, deleted, version) "
+                        + "SELECT X + 10000000, 'Bulk ' || LPAD(CAST(X AS VARCHAR), 7, '0'), NULL, 1.00, CURRENT_TIMESTAMP(), CURRENT_TIMESTAMP(), FALSE, 0 "
+                        + "FROM SYSTEM_RANGE(1, " + rows + ")").executeUpdate();
+        entityManager.clear();
+
+        // When
+        long firstById = medianNanos(() -> productRepository.findByIdGreaterThanOrderByIdAsc(0L, Limit.of(50)));
+        long deepById = medianNanos(() -> productRepository.findByIdGreaterThanOrderByIdAsc(10_000_000L + rows - 100, Limit.of(50)));
+        long firstByName = medianNanos(() -> productRepository.findByNameContainingIgnoreCaseOrderByNameAscIdAsc("bulk", Limit.of(50)));
+        long deepByName = medianNanos(() -> productRepository.findByNameContainingIgnoreCaseAfter("bulk", "Bulk 0999900", 10_999_900L, Limit.of(50)));
+
+        // Then: the last pages cost about the same as the first ones
+        assertThat(deepById).isLessThan(firstById * 5 + 2_000_000);
+        assertThat(deepByName).isLessThan(firstByName * 5 + 2_000_000);
+    }
+
+    private String explainAnalyze(String sql) {
+        return (String) entityManager.getEntityManager().createNativeQuery("EXPLAIN ANALYZE " + sql).getSingleResult();
+    }
+
+    private static long scanCount(String plan) {
+        Matcher m = Pattern.compile("scanCount: (\\d+)").matcher(plan);
+        assertThat(m.find()).as("scan count in %s", plan).isTrue();
+        return Long.parseLong(m.group(1));
+    }
+
+    private long medianNanos(Runnable query) {
+        long[] samples = new long[21];
+        for (int i = 0; i < samples.length; i++) {
+            long start = System.nanoTime();
+            query.run();
+            samples[i] = System.nanoTime() - start;
+            entityManager.clear();
+        }
+        Arrays.sort(samples);
+        return samples[samples.length / 2];
+    }
 }
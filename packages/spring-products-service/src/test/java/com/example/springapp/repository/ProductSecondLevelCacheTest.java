@@ -0,0 +1,149 @@
+package com.example.springapp.repository;
+
+import com.example.springapp.model.Product;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.*;
+
+// No test transaction: every repository call runs in its own session, so only the
+// second-level cache (not the persistence context) can spare a statement.
+@AutoConfigureTestDatabase
+@SpringBootTest
+public class ProductSecondLevelCacheTest {
+
+    @Autowired
+    private ProductRepository repository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private Statistics statistics;
+    private String token;
+    private List<Product> products;
+
+    @BeforeEach
+    void setUp() {
+        token = UUID.randomUUID().toString().substring(0, 8);
+        products = repository.saveAll(List.of(product(token + " Laptop"), product(token + " Mouse"), product(token + " Keyboard")));
+        entityManagerFactory.getCache().evictAll();
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void findById_RepeatedReads_QueryOncePerProduct() {
+        for (int round = 0; round < 10; round++) {
+            for (Product p : products) {
+                assertThat(repository.findById(p.getId())).get().extracting(Product::getName).isEqualTo(p.getName());
+            }
+        }
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(3);
+        assertThat(statistics.getDomainDataRegionStatistics(Product.CACHE_REGION).getMissCount()).isEqualTo(3);
+        assertThat(statistics.getDomainDataRegionStatistics(Product.CACHE_REGION).getHitCount()).isEqualTo(27);
+    }
+
+    @Test
+    void findByName_RepeatedSearch_QueriesOnce() {
+        for (int round = 0; round < 10; round++) {
+            assertThat(repository.findByNameContainingIgnoreCase(token)).hasSize(3);
+        }
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(statistics.getQueryCacheMissCount()).isEqualTo(1);
+        assertThat(statistics.getQueryCacheHitCount()).isEqualTo(9);
+    }
+
+    @Test
+    void update_InvalidatesEntityAndSearch() {
+        Product laptop = products.get(0);
+        repository.findById(laptop.getId());
+        repository.findByNameContainingIgnoreCase(token);
+
+        repository.updateById(laptop.getId(), null, "Renamed", null, BigDecimal.TEN, OffsetDateTime.now());
+
+        assertThat(repository.findById(laptop.getId())).get().extracting(Product::getName).isEqualTo("Renamed");
+        assertThat(repository.findByNameContainingIgnoreCase(token)).hasSize(2);
+    }
+
+    @Test
+    void write_KeepsOtherProductsCached() {
+        Product mouse = products.get(1);
+        repository.findById(mouse.getId());
+
+        repository.updateById(products.get(0).getId(), null, "Renamed", null, BigDecimal.TEN, OffsetDateTime.now());
+        repository.removeById(products.get(2).getId(), OffsetDateTime.now());
+        statistics.clear();
+
+        assertThat(repository.findById(mouse.getId())).isPresent();
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+        assertThat(statistics.getDomainDataRegionStatistics(Product.CACHE_REGION).getHitCount()).isEqualTo(1);
+    }
+
+    @Test
+    void insert_InvalidatesSearch() {
+        repository.findByNameContainingIgnoreCase(token);
+
+        repository.save(product(token + " Monitor"));
+
+        assertThat(repository.findByNameContainingIgnoreCase(token)).hasSize(4);
+    }
+
+    @Test
+    void softDelete_IsNotServedFromCache() {
+        Product mouse = products.get(1);
+        repository.findById(mouse.getId());
+        repository.findByNameContainingIgnoreCase(token);
+
+        repository.removeById(mouse.getId(), OffsetDateTime.now());
+
+        assertThat(repository.findById(mouse.getId())).isEmpty();
+        assertThat(repository.findByNameContainingIgnoreCase(token)).extracting(Product::getId).doesNotContain(mouse.getId());
+    }
+
+    @Test
+    void tombstoneReadBySync_StaysOutOfCache() {
+        Product keyboard = products.get(2);
+        repository.removeById(keyboard.getId(), OffsetDateTime.now());
+
+        List<Product> changed = repository.findChangedAfter(OffsetDateTime.now().minusYears(1), 0L,
+                OffsetDateTime.now().plusMinutes(1), 100_000);
+
+        assertThat(changed).filteredOn(p -> p.getId().equals(keyboard.getId())).singleElement().extracting(Product::isDeleted).isEqualTo(true);
+        assertThat(repository.findById(keyboard.getId())).isEmpty();
+    }
+
+    @Test
+    void regionStatistics_ArePublishedAsMeters() {
+        repository.findById(products.get(0).getId());
+        repository.findById(products.get(0).getId());
+
+        assertThat(meterRegistry.get("hibernate.second.level.cache.requests")
+                .tag("region", Product.CACHE_REGION).tag("result", "hit").functionCounter().count()).isGreaterThanOrEqualTo(1);
+        assertThat(meterRegistry.get("hibernate.second.level.cache.requests")
+                .tag("region", Product.CACHE_REGION).tag("result", "miss").functionCounter().count()).isGreaterThanOrEqualTo(1);
+    }
+
+    private Product product(String name) {
+        Product p = new Product();
+        p.setName(name);
+        p.setPrice(new BigDecimal("10.00"));
+        return p;
+    }
+}
@@ -0,0 +1,107 @@
+package com.example.springapp.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.*;
+
+@DataJpaTest
+public class CatalogDumpServiceTest {
+    private static final String ALL_ROWS = "SELECT * FROM products ORDER BY id";
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private JdbcTemplate jdbc;
+    private CatalogDumpService dumps;
+
+    @BeforeEach
+    void setUp() {
+        jdbc = new JdbcTemplate(dataSource);
+        jdbc.update("DELETE FROM products");
+        dumps = new CatalogDumpService(jdbc, new TransactionTemplate(transactionManager), 2);
+    }
+
+    @Test
+    void load_OfAnExport_RestoresEveryRowAndColumn() throws Exception {
+        // Given: live rows, a tombstone, nulls, and more rows than one batch
+        insertRows(5);
+        jdbc.update("UPDATE products SET description = NULL, version = 3 WHERE id = 2");
+        jdbc.update("UPDATE products SET deleted = TRUE, updated_at = TIMESTAMP WITH TIME ZONE '2024-01-02 03:04:05.123456+02:00' WHERE id = 4");
+        jdbc.update("UPDATE products SET name = 'Café ☕', price = 1234567.89 WHERE id = 5");
+        List<Map<String, Object>> before = jdbc.queryForList(ALL_ROWS);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // When
+        long exported = dumps.export(out);
+        jdbc.update("DELETE FROM products");
+        insertRows(7);
+        long loaded = dumps.load(new ByteArrayInputStream(out.toByteArray()));
+
+        // Then
+        assertThat(exported).isEqualTo(5);
+        assertThat(loaded).isEqualTo(5);
+        assertThat(jdbc.queryForList(ALL_ROWS)).isEqualTo(before);
+    }
+
+    @Test
+    void load_RestartsTheSequenceAboveTheLoadedIds() throws Exception {
+        jdbc.update("INSERT INTO products (id, name, price, created_at, updated_at, deleted, version) "
+                + "VALUES (5000, 'Top', 1.00, CURRENT_TIMESTAMP(), CURRENT_TIMESTAMP(), FALSE, 0)");
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        dumps.export(out);
+
+        dumps.load(new ByteArrayInputStream(out.toByteArray()));
+
+        // Hibernate hands out the 50 ids up to and including the value it reads
+        assertThat(jdbc.queryForObject("SELECT NEXT VALUE FOR products_seq", Long.class) - 49).isGreaterThan(5000);
+    }
+
+    // not in the test's transaction, so that the load's own rollback is what is checked
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void load_DamagedDump_FailsAndLeavesTheTableAsItWas() throws Exception {
+        try {
+            // Given: a flipped bit in the first row's name
+            insertRows(3);
+            List<Map<String, Object>> before = jdbc.queryForList(ALL_ROWS);
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            dumps.export(out);
+            byte[] bytes = out.toByteArray();
+            bytes[22] ^= 1;
+
+            // When / Then
+            assertThatThrownBy(() -> dumps.load(new ByteArrayInputStream(bytes)))
+                    .isInstanceOf(IOException.class).hasMessageContaining("checksum");
+            assertThat(jdbc.queryForList(ALL_ROWS)).isEqualTo(before);
+            assertThatThrownBy(() -> dumps.load(new ByteArrayInputStream(out.toByteArray(), 0, bytes.length - 6)))
+                    .isInstanceOf(IOException.class);
+            assertThat(jdbc.queryForList(ALL_ROWS)).isEqualTo(before);
+        } finally {
+            jdbc.update("DELETE FROM products");
+        }
+    }
+
+    private void insertRows(int rows) {
+        jdbc.update("INSERT INTO products (id, name, description, price, created_at, updated_at, deleted, version) "
+                + "SELECT X, 'Bulk ' || X, 'Row ' || X, 1.00, CURRENT_TIMESTAMP(), CURRENT_TIMESTAMP(), FALSE, 0 "
+                + "FROM SYSTEM_RANGE(1, " + rows + ")");
+    }
+}
@@ -0,0 +1,139 @@
+package com.example.springapp.service;
+
+import com.example.springapp.model.Product;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.ByteArrayInputStream;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class CatalogSnapshotsTest {
+
+    @Mock
+    private ProductService service;
+
+    private final ObjectMapper mapper = new ObjectMapper().findAndRegisterModules();
+
+    private CatalogSnapshots snapshots;
+
+    @BeforeEach
+    void setUp() {
+        snapshots = new CatalogSnapshots(service, mapper, true, true, 4);
+    }
+
+    @Test
+    void get_SameVersion_BuildsOnce() throws Exception {
+        when(service.catalogVersion()).thenReturn("a-1");
+        when(service.listAll(null)).thenReturn(List.of(product(1L, "Laptop")));
+
+        CatalogSnapshots.Snapshot first = snapshots.get(null);
+        CatalogSnapshots.Snapshot second = snapshots.get("  ");
+
+        assertThat(second).isSameAs(first);
+        assertThat(first.version()).isEqualTo("a-1");
+        assertThat(mapper.readTree(first.json()).get(0).get("name").asText()).isEqualTo("Laptop");
+        verify(service, times(1)).listAll(null);
+    }
+
+    @Test
+    void get_AfterWrite_RebuildsForNewVersion() {
+        // the first get reads the version once, to stamp what it builds; every read after that sees the write
+        when(service.catalogVersion()).thenReturn("a-1", "a-2");
+        when(service.listAll(null)).thenReturn(List.of(product(1L, "Laptop")), List.of(product(1L, "Laptop"), product(2L, "Mouse")));
+
+        CatalogSnapshots.Snapshot before = snapshots.get(null);
+        CatalogSnapshots.Snapshot after = snapshots.get(null);
+
+        assertThat(before.version()).isEqualTo("a-1");
+        assertThat(after.version()).isEqualTo("a-2");
+        assertThat(after.json().length).isGreaterThan(before.json().length);
+        verify(service, times(2)).listAll(null);
+    }
+
+    @Test
+    void get_WhileRebuilding_ServesPreviousSnapshot() throws Exception {
+        when(service.catalogVersion()).thenReturn("a-1");
+        when(service.listAll(null)).thenReturn(List.of(product(1L, "Laptop")));
+        CatalogSnapshots.Snapshot stale = snapshots.get(null);
+
+        CountDownLatch building = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(service.catalogVersion()).thenReturn("a-2");
+        when(service.listAll(null)).thenAnswer(inv -> {
+            building.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return List.of(product(1L, "Laptop"), product(2L, "Mouse"));
+        });
+        CompletableFuture<CatalogSnapshots.Snapshot> rebuild = CompletableFuture.supplyAsync(() -> snapshots.get(null));
+        assertThat(building.await(5, TimeUnit.SECONDS)).isTrue();
+
+        assertThat(snapshots.get(null)).isSameAs(stale);
+
+        release.countDown();
+        assertThat(rebuild.get(5, TimeUnit.SECONDS).version()).isEqualTo("a-2");
+        assertThat(snapshots.get(null).version()).isEqualTo("a-2");
+        verify(service, times(2)).listAll(null);
+    }
+
+    @Test
+    void get_Gzip_DecompressesToJson() throws Exception {
+        when(service.catalogVersion()).thenReturn("a-1");
+        when(service.listAll(null)).thenReturn(List.of(product(1L, "Laptop"), product(2L, "Mouse")));
+
+        CatalogSnapshots.Snapshot snapshot = snapshots.get(null);
+
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(snapshot.gzip()))) {
+            assertThat(in.readAllBytes()).isEqualTo(snapshot.json());
+        }
+    }
+
+    @Test
+    void get_Searches_AreKeptApart() throws Exception {
+        when(service.catalogVersion()).thenReturn("a-1");
+        when(service.listAll("lap")).thenReturn(List.of(product(1L, "Laptop")));
+        when(service.listAll("mou")).thenReturn(List.of(product(2L, "Mouse")));
+
+        assertThat(mapper.readTree(snapshots.get("lap").json()).get(0).get("id").asLong()).isEqualTo(1L);
+        assertThat(mapper.readTree(snapshots.get("mou").json()).get(0).get("id").asLong()).isEqualTo(2L);
+        snapshots.get("lap");
+
+        verify(service, times(1)).listAll("lap");
+        verify(service, times(1)).listAll("mou");
+        verify(service, never()).listAll(null);
+    }
+
+    @Test
+    void get_Disabled_BuildsEveryTimeWithoutGzip() {
+        snapshots = new CatalogSnapshots(service, mapper, false, true, 4);
+        when(service.catalogVersion()).thenReturn("a-1");
+        when(service.listAll(null)).thenReturn(List.of(product(1L, "Laptop")));
+
+        snapshots.get(null);
+        CatalogSnapshots.Snapshot snapshot = snapshots.get(null);
+
+        assertThat(snapshot.gzip()).isNull();
+        verify(service, times(2)).listAll(null);
+    }
+
+    private Product product(Long id, String name) {
+        Product p = new Product();
+        p.setId(id);
+        p.setName(name);
+        p.setPrice(new BigDecimal("10.00"));
+        p.setVersion(0L);
+        return p;
+    }
+}
@@ -0,0 +1,169 @@
+package com.example.springapp.service;
+
+import com.example.springapp.event.CatalogReloadedEvent;
+import com.example.springapp.event.ProductChangedEvent;
+import com.example.springapp.model.Product;
+import com.example.springapp.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.*;
+
+@DataJpaTest
+public class NameSearchIndexTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private NameSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        productRepository.deleteAll();
+        entityManager.flush();
+        index = new NameSearchIndex(productRepository);
+    }
+
+    @Test
+    void candidateIds_BeforeLoad_IsEmpty() {
+        assertThat(index.candidateIds("laptop")).isEmpty();
+    }
+
+    @Test
+    void candidateIds_MatchesSubstringIgnoringCase() {
+        Product laptop = persist("Laptop");
+        Product stand = persist("Laptop Stand");
+        persist("Mouse");
+        index.load();
+
+        assertThat(index.candidateIds("APTO")).contains(List.of(laptop.getId(), stand.getId()));
+        assertThat(index.candidateIds("p st")).contains(List.of(stand.getId()));
+        assertThat(index.candidateIds("keyboard")).contains(List.of());
+        assertThat(index.candidateIds("la")).isEmpty();
+    }
+
+    @Test
+    void candidateIds_TreatsWildcardsLiterally() {
+        Product percent = persist("100% cotton");
+        persist("100 cotton");
+        index.load();
+
+        assertThat(index.candidateIds("0% c")).contains(List.of(percent.getId()));
+        assertThat(index.candidateIds("1_0")).contains(List.of());
+    }
+
+    @Test
+    void onProductChanged_FollowsRenamesAndDeletes() {
+        Product p = persist("Laptop");
+        index.load();
+
+        p.setName("Notebook");
+        index.onProductChanged(ProductChangedEvent.updated(p));
+        assertThat(index.candidateIds("laptop")).contains(List.of());
+        assertThat(index.candidateIds("book")).contains(List.of(p.getId()));
+
+        index.onProductChanged(ProductChangedEvent.deleted(p.getId()));
+        assertThat(index.candidateIds("book")).contains(List.of());
+    }
+
+    @Test
+    void onProductChanged_DuringLoad_WinsOverLoadedRow() {
+        Product p = persist("Laptop");
+        var rows = productRepository.findAllNames();
+        p.setName("Notebook");
+        index.onProductChanged(ProductChangedEvent.updated(p));
+
+        index.load(rows);
+
+        assertThat(index.candidateIds("laptop")).contains(List.of());
+        assertThat(index.candidateIds("note")).contains(List.of(p.getId()));
+    }
+
+    @Test
+    void onCatalogReloaded_SearchesTheLoadedCatalog() throws Exception {
+        // Given: a dump of Laptop and Mouse, and a running index over a catalog that has moved on
+        Product laptop = persist("Laptop");
+        persist("Mouse");
+        CatalogDumpService dumps = new CatalogDumpService(new JdbcTemplate(dataSource), new TransactionTemplate(transactionManager), 100);
+        ByteArrayOutputStream dump = new ByteArrayOutputStream();
+        dumps.export(dump);
+        productRepository.deleteAll();
+        Product keyboard = persist("Keyboard");
+        index.load();
+        assertThat(index.candidateIds("keyb")).contains(List.of(keyboard.getId()));
+
+        // When
+        long loaded = dumps.load(new ByteArrayInputStream(dump.toByteArray()));
+        index.onCatalogReloaded(new CatalogReloadedEvent(loaded));
+
+        // Then
+        assertThat(index.candidateIds("keyb")).contains(List.of());
+        assertThat(index.candidateIds("lapt")).contains(List.of(laptop.getId()));
+    }
+
+    @Test
+    void candidateIds_AgreeWithLikeScan_OnGeneratedCatalog() {
+        int rows = Integer.getInteger("search.rows", 100_000);
+        entityManager.getEntityManager().createNativeQuery(
+                "INSERT INTO products (id, name, price, created_at, updated_at, deleted, version) "
+                        + "SELECT X, 'Item ' || RAWTOHEX(HASH('SHA-256', CAST(X AS VARCHAR))), 1.00, CURRENT_TIMESTAMP(), CURRENT_TIMESTAMP(), FALSE, 0 "
+                        + "FROM SYSTEM_RANGE(1, " + rows + ")").executeUpdate();
+        entityManager.clear();
+        index.load();
+
+        Random random = new Random(42);
+        long likeNanos = 0;
+        long indexNanos = 0;
+        for (int i = 0; i < 50; i++) {
+            String q = Long.toHexString(random.nextLong()).substring(0, 3 + random.nextInt(3)).toUpperCase();
+            long start = System.nanoTime();
+            List<Long> expected = productRepository.findByNameContainingIgnoreCase(q).stream()
+                    .map(Product::getId).sorted(Comparator.naturalOrder()).toList();
+            likeNanos += System.nanoTime() - start;
+            start = System.nanoTime();
+            Optional<List<Long>> actual = index.candidateIds(q);
+            indexNanos += System.nanoTime() - start;
+            entityManager.clear();
+
+            if (actual.isPresent()) {
+                assertThat(actual).as("q=%s", q).contains(expected);
+            } else {
+                assertThat(expected).as("q=%s declined by the index", q).hasSizeGreaterThan(NameSearchIndex.MAX_CANDIDATES);
+            }
+        }
+        System.out.printf("name search over %d rows: LIKE scan %d us/query, trigram index %d us/query%n",
+                rows, likeNanos / 50_000, indexNanos / 50_000);
+        assertThat(indexNanos).isLessThan(likeNanos);
+    }
+
+    private Product persist(String name) {
+        Product p = new Product();
+        p.setName(name);
+        p.setPrice(BigDecimal.ONE);
+        return entityManager.persistAndFlush(p);
+    }
+}
@@ -0,0 +1,106 @@
+package com.example.springapp.service;
+
+import com.example.springapp.event.ProductChangedEvent;
+import com.example.springapp.exception.BadRequestException;
+import com.example.springapp.model.Product;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+public class ProductChangeFeedTest {
+
+    // sender tasks are captured and never run, so every subscriber behaves like a stalled client
+    private final List<Runnable> pendingSends = new ArrayList<>();
+    private final ExecutorService sender = mock(ExecutorService.class);
+
+    private ProductChangeFeed feed;
+
+    @BeforeEach
+    void setUp() {
+        doAnswer(inv -> pendingSends.add(inv.getArgument(0))).when(sender).execute(any());
+        feed = new ProductChangeFeed(4, 2, sender);
+    }
+
+    @Test
+    void onProductChanged_StalledSubscriber_IsDroppedInsteadOfBlockingWriter() {
+        feed.subscribe(null);
+
+        publish(3);
+
+        assertThat(feed.subscriberCount()).isZero();
+        assertThat(pendingSends).hasSize(1);
+    }
+
+    @Test
+    void subscribe_LastEventIdWithinBuffer_ReplaysAndStaysSubscribed() {
+        publish(5);
+
+        feed.subscribe(feed.eventId(3));
+
+        assertThat(feed.subscriberCount()).isEqualTo(1);
+        assertThat(pendingSends).hasSize(1);
+    }
+
+    @Test
+    void subscribe_LastEventIdOlderThanBuffer_IsToldToResync() {
+        publish(10);
+
+        feed.subscribe(feed.eventId(5));
+        assertThat(feed.subscriberCount()).isZero();
+
+        feed.subscribe(feed.eventId(9));
+        assertThat(feed.subscriberCount()).isEqualTo(1);
+    }
+
+    @Test
+    void subscribe_LastEventIdAheadOfThisRun_IsToldToResync() {
+        publish(2);
+
+        feed.subscribe(feed.eventId(40));
+
+        assertThat(feed.subscriberCount()).isZero();
+    }
+
+    @Test
+    void subscribe_LastEventIdFromAnotherEpoch_IsToldToResync() {
+        // the previous run's sequence numbers overlap this one's
+        publish(5);
+
+        feed.subscribe("0-3");
+        feed.subscribe("3");
+
+        assertThat(feed.subscriberCount()).isZero();
+    }
+
+    @Test
+    void subscribe_MalformedLastEventId_IsRejected() {
+        String id = feed.eventId(1);
+
+        assertThatThrownBy(() -> feed.subscribe(id.substring(0, id.indexOf('-') + 1) + "x")).isInstanceOf(BadRequestException.class);
+    }
+
+    @Test
+    void subscribe_ReplayLargerThanQueue_IsToldToResync() {
+        publish(4);
+
+        feed.subscribe(feed.eventId(0));
+
+        assertThat(feed.subscriberCount()).isZero();
+    }
+
+    private void publish(int count) {
+        for (int i = 0; i < count; i++) {
+            Product p = new Product();
+            p.setId((long) i + 1);
+            p.setName("Feed " + i);
+            feed.onProductChanged(ProductChangedEvent.created(p));
+        }
+    }
+}
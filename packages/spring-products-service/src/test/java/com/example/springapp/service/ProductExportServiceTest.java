@@ -0,0 +1,121 @@
+package com.example.springapp.service;
+
+import com.example.springapp.repository.ProductRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.hibernate.Session;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.*;
+
+@DataJpaTest
+public class ProductExportServiceTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    private ProductExportService exportService;
+
+    private final ObjectMapper mapper = Jackson2ObjectMapperBuilder.json().build();
+
+    @BeforeEach
+    void setUp() {
+        productRepository.deleteAll();
+        entityManager.flush();
+        exportService = new ProductExportService(productRepository, entityManager.getEntityManager(), mapper);
+    }
+
+    @Test
+    void exportNdjson_WritesOneDocumentPerLineInIdOrder() throws Exception {
+        insertRows(3);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long count = exportService.exportNdjson(out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertThat(count).isEqualTo(3);
+        assertThat(lines).hasSize(3).allMatch(line -> line.startsWith("{"));
+        JsonNode first = mapper.readTree(lines[0]);
+        assertThat(first.get("id").asLong()).isEqualTo(1);
+        assertThat(first.get("name").asText()).isEqualTo("Bulk 1");
+        assertThat(mapper.readTree(lines[2]).get("id").asLong()).isEqualTo(3);
+    }
+
+    @Test
+    void exportNdjson_ManyRows_FlushesInBatchesAndKeepsPersistenceContextEmpty() throws Exception {
+        // not a multiple of FLUSH_ROWS, so the closing flush has rows of its own to write
+        assertStreamed(5_500);
+    }
+
+    /**
+     * Opt-in, since a million rows add tens of seconds to the build:
+     * <pre>
+     * mvn test -Dtest=ProductExportServiceTest -Dvolume.test=true
+     * </pre>
+     */
+    @EnabledIfSystemProperty(named = "volume.test", matches = "true")
+    @Test
+    void exportNdjson_MillionRows_KeepsPersistenceContextEmpty() throws Exception {
+        assertStreamed(1_000_000);
+    }
+
+    private void assertStreamed(int rows) throws Exception {
+        insertRows(rows);
+        Session session = entityManager.getEntityManager().unwrap(Session.class);
+        CountingOutputStream out = new CountingOutputStream(() -> assertThat(session.getStatistics().getEntityCount()).isLessThanOrEqualTo(1));
+
+        long count = exportService.exportNdjson(out);
+
+        assertThat(count).isEqualTo(rows);
+        assertThat(out.lines).isEqualTo(rows);
+        assertThat(out.flushes).isEqualTo(rows / ProductExportService.FLUSH_ROWS + 1);
+        assertThat(session.getStatistics().getEntityCount()).isZero();
+    }
+
+    private void insertRows(int rows) {
+        entityManager.getEntityManager().createNativeQuery(
+                "INSERT INTO products (id, name, description, price, created_at, updated_at, deleted, version) "
+                        + "SELECT X, 'Bulk ' || X, 'Row ' || X, 1.00, CURRENT_TIMESTAMP(), CURRENT_TIMESTAMP(), FALSE, 0 FROM SYSTEM_RANGE(1, " + rows + ")")
+                .executeUpdate();
+        entityManager.clear();
+    }
+
+    private static class CountingOutputStream extends OutputStream {
+        private final Runnable onLine;
+        private long lines;
+        private long flushes;
+
+        CountingOutputStream(Runnable onLine) { this.onLine = onLine; }
+
+        @Override
+        public void write(int b) {
+            if (b == '\n') {
+                lines++;
+                if (lines % 10_000 == 0) onLine.run();
+            }
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            for (int i = off; i < off + len; i++) write(b[i]);
+        }
+
+        @Override
+        public void flush() {
+            flushes++;
+        }
+    }
+}
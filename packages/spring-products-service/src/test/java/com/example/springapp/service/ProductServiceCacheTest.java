@@ -0,0 +1,120 @@
+package com.example.springapp.service;
+
+import com.example.springapp.dto.ProductDto;
+import com.example.springapp.exception.NotFoundException;
+import com.example.springapp.model.Product;
+import com.example.springapp.repository.ProductRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.cache.CacheManager;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@AutoConfigureTestDatabase
+@SpringBootTest
+public class ProductServiceCacheTest {
+
+    @MockBean
+    private ProductRepository repository;
+
+    @Autowired
+    private ProductService service;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        cacheManager.getCache("products").clear();
+    }
+
+    @Test
+    void get_RepeatedReads_LoadOnce() {
+        when(repository.findById(1L)).thenReturn(Optional.of(createProduct(1L, "Laptop")));
+
+        service.get(1L);
+        service.get(1L);
+        Product result = service.get(1L);
+
+        assertThat(result.getName()).isEqualTo("Laptop");
+        verify(repository, times(1)).findById(1L);
+        assertThat(meterRegistry.get("cache.gets").tag("cache", "products").tag("result", "hit").functionCounter().count())
+                .isGreaterThanOrEqualTo(2);
+    }
+
+    @Test
+    void get_AfterUpdate_ReturnsNewStateWithoutReload() {
+        when(repository.findById(1L)).thenReturn(Optional.of(createProduct(1L, "Laptop")), Optional.of(createProduct(1L, "Notebook")));
+        when(repository.updateById(eq(1L), any(), any(), any(), any(), any())).thenReturn(1);
+        service.get(1L);
+
+        ProductDto dto = new ProductDto();
+        dto.setName("Notebook");
+        dto.setPrice(new BigDecimal("10.00"));
+        service.update(1L, dto);
+
+        assertThat(service.get(1L).getName()).isEqualTo("Notebook");
+        verify(repository, times(2)).findById(1L);
+    }
+
+    @Test
+    void get_AfterDelete_MissesCache() {
+        Product p = createProduct(1L, "Laptop");
+        when(repository.findById(1L)).thenReturn(Optional.of(p));
+        service.get(1L);
+        when(repository.removeById(eq(1L), any())).thenReturn(1);
+
+        service.delete(1L);
+        when(repository.findById(1L)).thenReturn(Optional.empty());
+
+        assertThatThrownBy(() -> service.get(1L)).isInstanceOf(NotFoundException.class);
+    }
+
+    @Test
+    void get_ConcurrentMisses_ShareOneLoad() throws Exception {
+        CountDownLatch loading = new CountDownLatch(1);
+        when(repository.findById(7L)).thenAnswer(inv -> {
+            loading.await();
+            return Optional.of(createProduct(7L, "Hot"));
+        });
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Product>> results = new ArrayList<>();
+            for (int i = 0; i < 8; i++) results.add(pool.submit(() -> service.get(7L)));
+            Thread.sleep(200);
+            loading.countDown();
+            for (Future<Product> result : results) assertThat(result.get().getName()).isEqualTo("Hot");
+        } finally {
+            pool.shutdownNow();
+        }
+
+        verify(repository, times(1)).findById(7L);
+    }
+
+    private Product createProduct(Long id, String name) {
+        Product p = new Product();
+        p.setId(id);
+        p.setName(name);
+        p.setPrice(new BigDecimal("100.00"));
+        return p;
+    }
+}
@@ -1,6 +1,11 @@
 package com.example.springapp.service;
 
 import com.example.springapp.dto.ProductDto;
+import com.example.springapp.dto.ProductLookup;
+import com.example.springapp.dto.ProductPage;
+import com.example.springapp.event.ProductChangedEvent;
+import com.example.springapp.exception.BadRequestException;
+import com.example.springapp.exception.ConflictException;
 import com.example.springapp.exception.NotFoundException;
 import com.example.springapp.model.Product;
 import com.example.springapp.repository.ProductRepository;
@@ -10,11 +15,14 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 
 import java.math.BigDecimal;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.LongStream;
 
 import static org.assertj.core.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -26,6 +34,12 @@ public class ProductServiceTest {
     @Mock
     private ProductRepository repository;
 
+    @Mock
+    private NameSearchIndex nameIndex;
+
+    @Mock
+    private ApplicationEventPublisher events;
+
     @InjectMocks
     private ProductService service;
 
@@ -84,6 +98,103 @@ public class ProductServiceTest {
         verify(repository, never()).findAll();
     }
 
+    @Test
+    void listAll_WithIndexedQuery_FetchesCandidatesInOneBatch() {
+        Product p1 = createProduct(1L, "Laptop");
+        Product p3 = createProduct(3L, "Laptop Stand");
+        when(nameIndex.candidateIds("lapt")).thenReturn(Optional.of(List.of(1L, 3L)));
+        when(repository.findAllById(List.of(1L, 3L))).thenReturn(Arrays.asList(p3, p1));
+
+        List<Product> result = service.listAll("lapt");
+
+        assertThat(result).containsExactly(p1, p3);
+        verify(repository, never()).findByNameContainingIgnoreCase(anyString());
+    }
+
+    @Test
+    void listAll_WithIndexedQuery_DropsRowsRenamedSinceIndexing() {
+        Product renamed = createProduct(1L, "Mouse");
+        when(nameIndex.candidateIds("lapt")).thenReturn(Optional.of(List.of(1L)));
+        when(repository.findAllById(List.of(1L))).thenReturn(List.of(renamed));
+
+        assertThat(service.listAll("lapt")).isEmpty();
+    }
+
+    @Test
+    void listPage_WithMoreRows_ReturnsNextCursor() {
+        Product p1 = createProduct(1L, "Product 1");
+        Product p2 = createProduct(2L, "Product 2");
+        Product p3 = createProduct(3L, "Product 3");
+        when(repository.findByIdGreaterThanOrderByIdAsc(0L, Limit.of(3))).thenReturn(Arrays.asList(p1, p2, p3));
+        when(repository.findByIdGreaterThanOrderByIdAsc(2L, Limit.of(3))).thenReturn(Arrays.asList(p3));
+
+        ProductPage first = service.listPage(null, 2, null);
+        ProductPage second = service.listPage(null, 2, first.getNextCursor());
+
+        assertThat(first.getItems()).containsExactly(p1, p2);
+        assertThat(first.getNextCursor()).isNotNull();
+        assertThat(second.getItems()).containsExactly(p3);
+        assertThat(second.getNextCursor()).isNull();
+    }
+
+    @Test
+    void listPage_WithQuery_SeeksOnNameAndId() {
+        Product p1 = createProduct(7L, "Laptop");
+        Product p2 = createProduct(3L, "Laptop Stand");
+        when(repository.findByNameContainingIgnoreCaseOrderByNameAscIdAsc("lap", Limit.of(2))).thenReturn(Arrays.asList(p1, p2));
+        when(repository.findByNameContainingIgnoreCaseAfter("lap", "Laptop", 7L, Limit.of(2))).thenReturn(Arrays.asList(p2));
+
+        ProductPage first = service.listPage("lap", 1, null);
+        ProductPage second = service.listPage("lap", 1, first.getNextCursor());
+
+        assertThat(first.getItems()).containsExactly(p1);
+        assertThat(second.getItems()).containsExactly(p2);
+        assertThat(second.getNextCursor()).isNull();
+        verify(repository, never()).findAll();
+    }
+
+    @Test
+    void listPage_InvalidCursorOrLimit_ThrowsBadRequest() {
+        when(repository.findByIdGreaterThanOrderByIdAsc(0L, Limit.of(2)))
+                .thenReturn(Arrays.asList(createProduct(1L, "Product 1"), createProduct(2L, "Product 2")));
+        String idCursor = service.listPage(null, 1, null).getNextCursor();
+
+        assertThatThrownBy(() -> service.listPage(null, 0, null)).isInstanceOf(BadRequestException.class);
+        assertThatThrownBy(() -> service.listPage(null, 10, "not-a-cursor")).isInstanceOf(BadRequestException.class);
+        assertThatThrownBy(() -> service.listPage("lap", 10, idCursor)).isInstanceOf(BadRequestException.class);
+    }
+
+    @Test
+    void getAll_PreservesInputOrderAndReportsMissing() {
+        Product p1 = createProduct(1L, "Product 1");
+        Product p3 = createProduct(3L, "Product 3");
+        when(repository.findAllById(any())).thenReturn(Arrays.asList(p1, p3));
+
+        ProductLookup result = service.getAll(List.of(3L, 2L, 1L, 3L));
+
+        assertThat(result.getItems()).containsExactly(p3, p1);
+        assertThat(result.getMissing()).containsExactly(2L);
+        verify(repository, times(1)).findAllById(any());
+        verify(repository, never()).findById(any());
+    }
+
+    @Test
+    void getAll_TooManyIds_ThrowsBadRequest() {
+        List<Long> ids = LongStream.rangeClosed(1, ProductService.MAX_LOOKUP_IDS + 1).boxed().toList();
+
+        assertThatThrownBy(() -> service.getAll(ids)).isInstanceOf(BadRequestException.class);
+        assertThatThrownBy(() -> service.getAll(List.of())).isInstanceOf(BadRequestException.class);
+        verifyNoInteractions(repository);
+    }
+
+    @Test
+    void getAll_EmptyElement_ThrowsBadRequest() {
+        assertThatThrownBy(() -> service.getAll(Arrays.asList(1L, null, 2L)))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessageContaining("empty");
+        verifyNoInteractions(repository);
+    }
+
     @Test
     void get_ExistingId_ReturnsProduct() {
         when(repository.findById(1L)).thenReturn(Optional.of(testProduct));
@@ -125,56 +236,63 @@ public class ProductServiceTest {
         assertThat(result.getDescription()).isEqualTo("New Description");
         assertThat(result.getPrice()).isEqualByComparingTo(new BigDecimal("49.99"));
         verify(repository, times(1)).save(any(Product.class));
+        verify(events).publishEvent(argThat((ProductChangedEvent e) -> e.getType() == ProductChangedEvent.Type.CREATED && e.getProduct() == savedProduct));
     }
 
     @Test
-    void update_ExistingProduct_ReturnsUpdatedProduct() {
+    void update_ExistingProduct_AppliesSingleUpdateAndReturnsStoredRow() {
+        when(repository.updateById(eq(1L), isNull(), eq("New Product"), eq("New Description"), eq(new BigDecimal("49.99")), any())).thenReturn(1);
         when(repository.findById(1L)).thenReturn(Optional.of(testProduct));
-        when(repository.save(any(Product.class))).thenReturn(testProduct);
 
         Product result = service.update(1L, testDto);
 
-        assertThat(result).isNotNull();
-        assertThat(result.getName()).isEqualTo("New Product");
-        assertThat(result.getDescription()).isEqualTo("New Description");
-        assertThat(result.getPrice()).isEqualByComparingTo(new BigDecimal("49.99"));
-        verify(repository, times(1)).findById(1L);
-        verify(repository, times(1)).save(testProduct);
+        assertThat(result).isSameAs(testProduct);
+        verify(repository, never()).save(any());
+        verify(events).publishEvent(argThat((ProductChangedEvent e) -> e.getType() == ProductChangedEvent.Type.UPDATED && e.getProduct() == testProduct));
     }
 
     @Test
     void update_NonExistingProduct_ThrowsNotFoundException() {
-        when(repository.findById(999L)).thenReturn(Optional.empty());
+        when(repository.updateById(eq(999L), any(), any(), any(), any(), any())).thenReturn(0);
 
         assertThatThrownBy(() -> service.update(999L, testDto))
                 .isInstanceOf(NotFoundException.class)
                 .hasMessage("Product not found");
 
-        verify(repository, times(1)).findById(999L);
-        verify(repository, never()).save(any());
+        verify(repository, never()).findById(any());
+        verify(events, never()).publishEvent(any());
+    }
+
+    @Test
+    void update_StaleVersion_ThrowsConflictException() {
+        testDto.setVersion(3L);
+        when(repository.updateById(eq(1L), eq(3L), any(), any(), any(), any())).thenReturn(0);
+        when(repository.existsById(1L)).thenReturn(true);
+
+        assertThatThrownBy(() -> service.update(1L, testDto)).isInstanceOf(ConflictException.class);
+
+        verify(events, never()).publishEvent(any());
     }
 
     @Test
     void delete_ExistingProduct_DeletesProduct() {
-        when(repository.findById(1L)).thenReturn(Optional.of(testProduct));
-        doNothing().when(repository).delete(testProduct);
+        when(repository.removeById(eq(1L), any())).thenReturn(1);
 
         service.delete(1L);
 
-        verify(repository, times(1)).findById(1L);
-        verify(repository, times(1)).delete(testProduct);
+        verify(repository, never()).findById(any());
+        verify(events).publishEvent(argThat((ProductChangedEvent e) -> e.getType() == ProductChangedEvent.Type.DELETED && e.getId() == 1L));
     }
 
     @Test
     void delete_NonExistingProduct_ThrowsNotFoundException() {
-        when(repository.findById(999L)).thenReturn(Optional.empty());
+        when(repository.removeById(eq(999L), any())).thenReturn(0);
 
         assertThatThrownBy(() -> service.delete(999L))
                 .isInstanceOf(NotFoundException.class)
                 .hasMessage("Product not found");
 
-        verify(repository, times(1)).findById(999L);
-        verify(repository, never()).delete(any());
+        verify(events, never()).publishEvent(any());
     }
 
     private Product createProduct(Long id, String name) {
@@ -0,0 +1,100 @@
+package com.example.springapp.service;
+
+import com.example.springapp.dto.ProductChanges;
+import com.example.springapp.exception.BadRequestException;
+import com.example.springapp.model.Product;
+import com.example.springapp.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+
+import static org.assertj.core.api.Assertions.*;
+
+@DataJpaTest
+public class ProductSyncServiceTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    private ProductSyncService syncService;
+
+    @BeforeEach
+    void setUp() {
+        productRepository.deleteAll();
+        entityManager.flush();
+        // a negative settle time lets rows stamped a moment ago through
+        syncService = new ProductSyncService(productRepository, Duration.ofSeconds(-1));
+    }
+
+    @Test
+    void changesSince_PagesThroughCatalogThenReturnsOnlyLaterChanges() {
+        Product a = save("A");
+        Product b = save("B");
+        Product c = save("C");
+
+        ProductChanges first = syncService.changesSince(null, 2);
+        ProductChanges second = syncService.changesSince(first.getWatermark(), 2);
+
+        assertThat(first.getItems()).extracting(Product::getName).containsExactly("A", "B");
+        assertThat(first.isHasMore()).isTrue();
+        assertThat(second.getItems()).extracting(Product::getName).containsExactly("C");
+        assertThat(second.isHasMore()).isFalse();
+
+        productRepository.updateById(b.getId(), null, "B2", null, BigDecimal.ONE, OffsetDateTime.now());
+        productRepository.removeById(c.getId(), OffsetDateTime.now());
+
+        ProductChanges delta = syncService.changesSince(second.getWatermark(), 10);
+
+        assertThat(delta.getItems()).extracting(Product::getId).containsExactly(b.getId(), c.getId());
+        assertThat(delta.getItems()).extracting(Product::isDeleted).containsExactly(false, true);
+        assertThat(delta.getItems().get(0).getName()).isEqualTo("B2");
+        // the delta query put the tombstone in this test's persistence context; a request would not share it
+        entityManager.clear();
+        assertThat(productRepository.findById(c.getId())).isEmpty();
+        assertThat(productRepository.existsById(a.getId())).isTrue();
+    }
+
+    @Test
+    void changesSince_NothingNew_EchoesWatermark() {
+        save("A");
+        String watermark = syncService.changesSince(null, 10).getWatermark();
+
+        ProductChanges again = syncService.changesSince(watermark, 10);
+
+        assertThat(again.getItems()).isEmpty();
+        assertThat(again.getWatermark()).isEqualTo(watermark);
+    }
+
+    @Test
+    void changesSince_HoldsBackRowsYoungerThanSettleTime() {
+        save("A");
+
+        ProductChanges changes = new ProductSyncService(productRepository, Duration.ofHours(1)).changesSince(null, 10);
+
+        assertThat(changes.getItems()).isEmpty();
+    }
+
+    @Test
+    void changesSince_InvalidWatermarkOrLimit_ThrowsBadRequest() {
+        assertThatThrownBy(() -> syncService.changesSince("not-a-watermark", 10)).isInstanceOf(BadRequestException.class);
+        assertThatThrownBy(() -> syncService.changesSince(null, 0)).isInstanceOf(BadRequestException.class);
+    }
+
+    private Product save(String name) {
+        Product p = new Product();
+        p.setName(name);
+        p.setPrice(BigDecimal.TEN);
+        Product saved = productRepository.save(p);
+        entityManager.flush();
+        return saved;
+    }
+}
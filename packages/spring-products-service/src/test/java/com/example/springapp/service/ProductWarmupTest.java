@@ -0,0 +1,69 @@
+package com.example.springapp.service;
+
+import com.example.springapp.config.CacheConfig;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.info.Info;
+import org.springframework.boot.availability.ApplicationAvailability;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.*;
+
+// The warm-up runs while the context starts; these check what it left behind.
+@AutoConfigureTestDatabase
+@SpringBootTest(properties = {"products.warmup.enabled=true", "products.warmup.iterations=200"})
+public class ProductWarmupTest {
+
+    @Autowired
+    private ProductWarmup warmup;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private ApplicationAvailability availability;
+
+    @Autowired
+    private NameSearchIndex nameIndex;
+
+    @Test
+    void startup_WarmsTheCatalogAndReportsIt() {
+        // data.sql's two products
+        Cache products = cacheManager.getCache(CacheConfig.PRODUCTS);
+        assertThat(products.get(1L)).isNotNull();
+        assertThat(products.get(2L)).isNotNull();
+
+        Info.Builder info = new Info.Builder();
+        warmup.contribute(info);
+        @SuppressWarnings("unchecked")
+        Map<String, Object> report = (Map<String, Object>) info.build().getDetails().get("warmup");
+        assertThat(report).containsEntry("state", "done").containsEntry("preloaded", 2).containsEntry("rounds", 200)
+                .containsKeys("connections", "poolMs", "indexMs", "preloadMs", "callsMs", "firstRoundMicros", "lastRoundsMicros");
+        assertThat((Integer) report.get("connections")).isPositive();
+        assertThat(meterRegistry.get("products.warmup.duration").timeGauge().value(TimeUnit.MILLISECONDS))
+                .isEqualTo(((Long) report.get("durationMs")).doubleValue());
+        assertThat(availability.getReadinessState()).isEqualTo(ReadinessState.ACCEPTING_TRAFFIC);
+    }
+
+    @Test
+    void startup_WarmsTheIndexedSearchWithoutTimingIt() {
+        // "Wid" of data.sql's "Widget": answered by the index, which the warm-up loaded before its searches;
+        // the warm-up calls themselves were made before the timers were bound
+        assertThat(nameIndex.candidateIds("Wid")).isPresent();
+        assertThat(meterRegistry.get("products.service").tag("class", "ProductService").tag("method", "get").timer().count())
+                .isZero();
+        assertThat(meterRegistry.get("products.service").tag("class", "ProductService").tag("method", "listPage").timer().count())
+                .isZero();
+    }
+}
@@ -0,0 +1,242 @@
+package com.example.springapp.store;
+
+import com.example.springapp.model.Product;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.*;
+
+public class DurableProductStoreTest {
+
+    @TempDir
+    Path root;
+
+    private final List<DurableProductStore> opened = new ArrayList<>();
+    private Path dir;
+
+    @BeforeEach
+    void setUp() {
+        dir = root.resolve("products");
+    }
+
+    @AfterEach
+    void closeAll() throws IOException {
+        for (DurableProductStore d : opened) d.close();
+    }
+
+    @Test
+    void reopen_AfterCrash_ReplaysTheLog() throws Exception {
+        // Given
+        ProductStore store = open(dir).store();
+        Product laptop = save(store, "Laptop", "Gaming laptop", "1200.00");
+        Product mouse = save(store, "Mouse", null, "25.50");
+        Product cable = save(store, "Cable", "USB-C", "9.99");
+        store.update(laptop.getId(), 0L, "Laptop Pro", "Ultralight", new BigDecimal("1500.00"), OffsetDateTime.now());
+        store.softDelete(mouse.getId(), OffsetDateTime.now());
+        store.remove(cable.getId());
+        store.awaitDurable();
+
+        // When
+        DurableProductStore recovered = open(crashCopy(dir));
+
+        // Then
+        ProductStore copy = recovered.store();
+        assertThat(recovered.recoveredRecords()).isEqualTo(6);
+        assertThat(copy.count()).isEqualTo(1);
+        Product read = copy.get(laptop.getId());
+        assertThat(read.getName()).isEqualTo("Laptop Pro");
+        assertThat(read.getDescription()).isEqualTo("Ultralight");
+        assertThat(read.getPrice()).isEqualByComparingTo("1500.00");
+        assertThat(read.getVersion()).isEqualTo(1L);
+        assertThat(read.getUpdatedAt()).isEqualTo(store.get(laptop.getId()).getUpdatedAt());
+        assertThat(copy.get(mouse.getId())).isNull();
+        assertThat(copy.scanByName(null, 0, null, 10)).extracting(Product::getName).containsExactly("Laptop Pro");
+        assertThat(copy.changedAfter(OffsetDateTime.now().minusDays(1), 0L, OffsetDateTime.now().plusDays(1), 10))
+                .extracting(Product::getId).contains(mouse.getId()).doesNotContain(cable.getId());
+        assertThat(save(copy, "Next", null, "1.00").getId()).isEqualTo(cable.getId() + 1);
+    }
+
+    @Test
+    void checkpoint_WritesSnapshotAndDropsTheLogBeforeIt() throws Exception {
+        // Given
+        DurableProductStore durable = open(dir);
+        ProductStore store = durable.store();
+        for (int i = 0; i < 1000; i++) save(store, "Item " + i, "Row " + i, "1.00");
+
+        // When
+        durable.checkpoint();
+        Product late = save(store, "Late", null, "2.00");
+        store.awaitDurable();
+
+        // Then: the snapshot covers the first 1000 rows, the log only what came after
+        assertThat(files(dir)).containsExactly("log-0000000000000001.log", "snapshot-0000000000000001.dat");
+        DurableProductStore recovered = open(crashCopy(dir));
+        assertThat(recovered.recoveredRecords()).isEqualTo(1);
+        assertThat(recovered.store().count()).isEqualTo(1001);
+        assertThat(recovered.store().get(late.getId()).getName()).isEqualTo("Late");
+        assertThat(recovered.store().scan(0, "item 99", 100)).extracting(Product::getName)
+                .containsExactly("Item 99", "Item 990", "Item 991", "Item 992", "Item 993", "Item 994", "Item 995", "Item 996", "Item 997", "Item 998", "Item 999");
+        assertThat(recovered.store().scanByName("Item 997", late.getId(), null, 3)).extracting(Product::getName)
+                .containsExactly("Item 998", "Item 999", "Late");
+    }
+
+    @Test
+    void close_CheckpointsSoTheNextOpenReplaysNothing() throws Exception {
+        DurableProductStore durable = new DurableProductStore(dir, 16, Duration.ZERO, Long.MAX_VALUE);
+        Product p = save(durable.store(), "Laptop", null, "10.00");
+        durable.close();
+
+        DurableProductStore reopened = open(dir);
+
+        assertThat(reopened.recoveredRecords()).isZero();
+        assertThat(reopened.store().get(p.getId()).getName()).isEqualTo("Laptop");
+    }
+
+    @Test
+    void reopen_TornLastRecord_IsDropped() throws Exception {
+        // Given: a crash in the middle of writing a record
+        ProductStore store = open(dir).store();
+        Product p = save(store, "Laptop", null, "10.00");
+        store.awaitDurable();
+        Path copy = crashCopy(dir);
+        Path log = copy.resolve("log-0000000000000000.log");
+        long intact = Files.size(log);
+        try (FileChannel ch = FileChannel.open(log, StandardOpenOption.APPEND)) {
+            ch.write(ByteBuffer.allocate(12).putInt(100).putInt(42).putInt(7).flip());
+        }
+
+        // When
+        DurableProductStore recovered = open(copy);
+
+        // Then
+        assertThat(Files.size(log)).isEqualTo(intact);
+        assertThat(recovered.store().get(p.getId()).getName()).isEqualTo("Laptop");
+        Product next = save(recovered.store(), "Mouse", null, "5.00");
+        recovered.store().awaitDurable();
+        assertThat(open(crashCopy(copy)).store().get(next.getId()).getName()).isEqualTo("Mouse");
+    }
+
+    @Test
+    void reopen_ZeroedTail_IsDropped() throws Exception {
+        // Given: the file system extended the segment before the record's data reached it
+        ProductStore store = open(dir).store();
+        Product p = save(store, "Laptop", null, "10.00");
+        store.awaitDurable();
+        Path copy = crashCopy(dir);
+        Path log = copy.resolve("log-0000000000000000.log");
+        long intact = Files.size(log);
+        try (FileChannel ch = FileChannel.open(log, StandardOpenOption.APPEND)) {
+            ch.write(ByteBuffer.allocate(4096));
+        }
+
+        // When
+        DurableProductStore recovered = open(copy);
+
+        // Then
+        assertThat(Files.size(log)).isEqualTo(intact);
+        assertThat(recovered.store().get(p.getId()).getName()).isEqualTo("Laptop");
+    }
+
+    @Test
+    void reopen_DamagedRecordBeforeOthers_Fails() throws Exception {
+        // Given: the first record of the newest segment damaged in place, with intact records after it
+        ProductStore store = open(dir).store();
+        save(store, "Laptop", null, "10.00");
+        save(store, "Mouse", null, "5.00");
+        store.awaitDurable();
+        Path copy = crashCopy(dir);
+        Path log = copy.resolve("log-0000000000000000.log");
+        byte[] bytes = Files.readAllBytes(log);
+        bytes[ProductLog.HEADER + 3] ^= 1;
+        Files.write(log, bytes);
+
+        // When / Then: nothing is truncated
+        assertThatThrownBy(() -> open(copy)).isInstanceOf(IOException.class).hasMessageContaining("corrupt product log");
+        assertThat(Files.readAllBytes(log)).isEqualTo(bytes);
+    }
+
+    @Test
+    void reopen_DamagedSnapshot_Fails() throws Exception {
+        DurableProductStore durable = open(dir);
+        save(durable.store(), "Laptop", "Gaming laptop", "10.00");
+        durable.checkpoint();
+        Path copy = crashCopy(dir);
+        Path snapshot = copy.resolve("snapshot-0000000000000001.dat");
+        byte[] bytes = Files.readAllBytes(snapshot);
+        bytes[bytes.length - 10] ^= 1;
+        Files.write(snapshot, bytes);
+
+        assertThatThrownBy(() -> open(copy)).isInstanceOf(IOException.class).hasMessageContaining("checksum");
+    }
+
+    @Test
+    void concurrentWriters_ShareCommitsAndLoseNothing() throws Exception {
+        // Given
+        ProductStore store = open(dir).store();
+
+        // When: each save returns only once its record is forced
+        try (ExecutorService pool = Executors.newFixedThreadPool(8)) {
+            List<Future<?>> writers = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                writers.add(pool.submit(() -> {
+                    for (int i = 0; i < 200; i++) {
+                        save(store, "P" + i, null, "1.00");
+                        store.awaitDurable();
+                    }
+                }));
+            }
+            for (Future<?> writer : writers) writer.get();
+        }
+
+        // Then
+        assertThat(open(crashCopy(dir)).store().count()).isEqualTo(1600);
+    }
+
+    private DurableProductStore open(Path at) throws IOException {
+        DurableProductStore d = new DurableProductStore(at, 16, Duration.ZERO, Long.MAX_VALUE);
+        opened.add(d);
+        return d;
+    }
+
+    // What a crash would leave behind: the files as they are, with no checkpoint on the way out.
+    private Path crashCopy(Path from) throws IOException {
+        Path to = Files.createTempDirectory(root, "crashed");
+        try (Stream<Path> files = Files.list(from)) {
+            for (Path f : files.toList()) Files.copy(f, to.resolve(f.getFileName()));
+        }
+        return to;
+    }
+
+    private static List<String> files(Path at) throws IOException {
+        try (Stream<Path> files = Files.list(at)) {
+            return files.map(f -> f.getFileName().toString()).sorted().toList();
+        }
+    }
+
+    private static Product save(ProductStore store, String name, String description, String price) {
+        Product p = new Product();
+        p.setName(name);
+        p.setDescription(description);
+        p.setPrice(new BigDecimal(price));
+        assertThat(store.save(p)).isTrue();
+        return p;
+    }
+}
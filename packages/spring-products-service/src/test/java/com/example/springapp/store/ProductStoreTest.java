@@ -0,0 +1,303 @@
+package com.example.springapp.store;
+
+import com.example.springapp.model.Product;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.*;
+
+public class ProductStoreTest {
+
+    private final ProductStore store = new ProductStore(16);
+
+    @Test
+    void save_New_AssignsIdAndVersion() {
+        // When
+        Product first = save("Laptop", "Gaming laptop", "1200.00");
+        Product second = save("Mouse", null, "25.50");
+
+        // Then
+        assertThat(first.getId()).isEqualTo(1000L);
+        assertThat(second.getId()).isEqualTo(1001L);
+        assertThat(first.getVersion()).isZero();
+        Product read = store.get(second.getId());
+        assertThat(read).isNotSameAs(second);
+        assertThat(read.getName()).isEqualTo("Mouse");
+        assertThat(read.getDescription()).isNull();
+        assertThat(read.getPrice()).isEqualByComparingTo("25.50");
+        assertThat(read.getCreatedAt().toInstant()).isEqualTo(second.getCreatedAt().toInstant().truncatedTo(ChronoUnit.MICROS));
+    }
+
+    @Test
+    void save_PriceKeepsTwoDecimals() {
+        Product p = save("Cable", null, "3.555");
+
+        assertThat(store.get(p.getId()).getPrice()).isEqualTo(new BigDecimal("3.56"));
+    }
+
+    @Test
+    void save_StaleVersion_ChangesNothing() {
+        Product p = save("Laptop", null, "10.00");
+        store.update(p.getId(), 0L, "Notebook", null, BigDecimal.ONE, OffsetDateTime.now());
+
+        Product stale = store.get(p.getId());
+        stale.setVersion(0L);
+        stale.setName("Stale");
+
+        assertThat(store.save(stale)).isFalse();
+        assertThat(store.get(p.getId()).getName()).isEqualTo("Notebook");
+    }
+
+    @Test
+    void update_ChecksVersionAndBumpsIt() {
+        Product p = save("Laptop", "short", "10.00");
+
+        assertThat(store.update(p.getId(), 5L, "Wrong", null, BigDecimal.ONE, OffsetDateTime.now())).isZero();
+        assertThat(store.update(p.getId(), 0L, "Laptop Pro", "a much longer description", new BigDecimal("11.00"), OffsetDateTime.now())).isEqualTo(1);
+        assertThat(store.update(p.getId(), null, "L", "s", new BigDecimal("12.00"), OffsetDateTime.now())).isEqualTo(1);
+
+        Product read = store.get(p.getId());
+        assertThat(read.getName()).isEqualTo("L");
+        assertThat(read.getDescription()).isEqualTo("s");
+        assertThat(read.getVersion()).isEqualTo(2L);
+        assertThat(store.update(-1L, null, "Missing", null, BigDecimal.ONE, OffsetDateTime.now())).isZero();
+    }
+
+    @Test
+    void softDelete_LeavesTombstoneForSync() {
+        OffsetDateTime start = OffsetDateTime.now().minusSeconds(1);
+        Product kept = save("Laptop", null, "10.00");
+        Product deleted = save("Mouse", null, "5.00");
+
+        assertThat(store.softDelete(deleted.getId(), OffsetDateTime.now())).isEqualTo(1);
+        assertThat(store.softDelete(deleted.getId(), OffsetDateTime.now())).isZero();
+
+        assertThat(store.get(deleted.getId())).isNull();
+        assertThat(store.exists(deleted.getId())).isFalse();
+        assertThat(store.count()).isEqualTo(1);
+        assertThat(store.scan(0, null, 10)).extracting(Product::getId).containsExactly(kept.getId());
+        List<Product> changed = store.changedAfter(start, 0L, OffsetDateTime.now().plusSeconds(1), 10);
+        assertThat(changed).extracting(Product::getId).containsExactly(kept.getId(), deleted.getId());
+        assertThat(changed.get(1).isDeleted()).isTrue();
+        assertThat(changed.get(1).getVersion()).isEqualTo(1L);
+    }
+
+    @Test
+    void save_ExplicitIds_KeepsIdOrder() {
+        for (long id : new long[] {50, 10, 30, 20, 40}) {
+            Product p = product("P" + id, null, "1.00");
+            p.setId(id);
+            store.save(p);
+        }
+
+        assertThat(store.scan(0, null, 10)).extracting(Product::getId).containsExactly(10L, 20L, 30L, 40L, 50L);
+        assertThat(store.scan(20, null, 2)).extracting(Product::getId).containsExactly(30L, 40L);
+        assertThat(store.get(30L).getName()).isEqualTo("P30");
+        assertThat(save("Next", null, "1.00").getId()).isEqualTo(1000L);
+    }
+
+    @Test
+    void remove_DropsRowAndKeepsOthersReachable() {
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 5; i++) ids.add(save("P" + i, null, "1.00").getId());
+
+        assertThat(store.remove(ids.get(1))).isTrue();
+        assertThat(store.remove(ids.get(1))).isFalse();
+
+        assertThat(store.get(ids.get(1))).isNull();
+        assertThat(store.get(ids.get(4)).getName()).isEqualTo("P4");
+        assertThat(store.scan(0, null, 10)).extracting(Product::getName).containsExactly("P0", "P2", "P3", "P4");
+    }
+
+    @Test
+    void scan_NameContains_IgnoresCase() {
+        save("Gaming Laptop", null, "1.00");
+        save("Mouse", null, "1.00");
+        save("laptop stand", null, "1.00");
+        save("Crème brûlée torch", null, "1.00");
+        save("ıstanbul laptop bag", null, "1.00");
+
+        assertThat(store.scan(0, "LAPTOP", 10)).extracting(Product::getName)
+                .containsExactly("Gaming Laptop", "laptop stand", "ıstanbul laptop bag");
+        assertThat(store.scan(0, "CRÈME", 10)).extracting(Product::getName).containsExactly("Crème brûlée torch");
+        // non-ASCII names are compared after upper-casing, like the database does: dotless i becomes I
+        assertThat(store.scan(0, "ist", 10)).extracting(Product::getName).containsExactly("ıstanbul laptop bag");
+        assertThat(store.scan(0, "tablet", 10)).isEmpty();
+    }
+
+    @Test
+    void scan_ManyRows_PagesAcrossChunks() {
+        for (int i = 0; i < 1000; i++) save("Item " + i, null, "1.00");
+
+        List<Product> all = store.scan(0, null, Integer.MAX_VALUE);
+        List<Product> page = store.scan(all.get(599).getId(), "item", 300);
+
+        assertThat(all).hasSize(1000);
+        assertThat(page).hasSize(300);
+        assertThat(page.get(0).getName()).isEqualTo("Item 600");
+        assertThat(page.get(299).getName()).isEqualTo("Item 899");
+    }
+
+    @Test
+    void scanByName_SeeksFromKeyInNameOrder() {
+        Product mouse = save("Mouse", null, "1.00");
+        Product laptop = save("Laptop", null, "1.00");
+        Product secondLaptop = save("Laptop stand", null, "1.00");
+        Product cable = save("Cable", null, "1.00");
+        Product keyboard = save("Keyboard", null, "1.00");
+
+        // renamed rows move in the index, deleted ones leave it
+        store.update(mouse.getId(), null, "Adapter", null, BigDecimal.ONE, OffsetDateTime.now());
+        store.softDelete(cable.getId(), OffsetDateTime.now());
+        store.update(secondLaptop.getId(), null, "Laptop", null, BigDecimal.ONE, OffsetDateTime.now());
+
+        assertThat(store.scanByName(null, 0, null, 10)).extracting(Product::getId)
+                .containsExactly(mouse.getId(), keyboard.getId(), laptop.getId(), secondLaptop.getId());
+        // ties on the name are broken by id
+        assertThat(store.scanByName("Laptop", laptop.getId(), null, 10)).extracting(Product::getId)
+                .containsExactly(secondLaptop.getId());
+        assertThat(store.scanByName("Keyboard", keyboard.getId(), "LAP", 1)).extracting(Product::getId)
+                .containsExactly(laptop.getId());
+    }
+
+    @Test
+    void scanByName_ManyRows_PagesAcrossChunks() {
+        for (int i = 999; i >= 0; i--) save(String.format("Item %03d", i), null, "1.00");
+
+        List<Product> page = store.scanByName("Item 599", 0, "item", 300);
+
+        assertThat(page).hasSize(300);
+        assertThat(page.get(0).getName()).isEqualTo("Item 599");
+        assertThat(page.get(299).getName()).isEqualTo("Item 898");
+        assertThat(store.scanByName(null, 0, "7", Integer.MAX_VALUE)).hasSize(271);
+    }
+
+    @Test
+    void update_ManyTimes_CompactsText() {
+        Product p = save("Name", null, "1.00");
+
+        // each longer description is appended, leaving the previous one behind as garbage
+        for (int i = 0; i < 5000; i++) {
+            store.update(p.getId(), null, "Name " + i, "x".repeat(1000 + i % 500), BigDecimal.ONE, OffsetDateTime.now());
+        }
+
+        assertThat(store.get(p.getId()).getDescription()).hasSize(1499);
+        assertThat(store.get(p.getId()).getName()).isEqualTo("Name 4999");
+        assertThat(store.offHeapBytes()).isLessThan(4L << 20);
+    }
+
+    @Test
+    void timestamps_RoundTripAsUtcMicros() {
+        OffsetDateTime created = OffsetDateTime.of(2024, 3, 1, 12, 30, 15, 123_456_789, ZoneOffset.ofHours(2));
+        Product p = product("Clock", null, "1.00");
+        p.setCreatedAt(created);
+        p.setUpdatedAt(created);
+        store.save(p);
+
+        Product read = store.get(p.getId());
+        assertThat(read.getCreatedAt().toInstant()).isEqualTo(created.toInstant().minusNanos(789));
+        assertThat(read.getCreatedAt().getOffset()).isEqualTo(ZoneOffset.UTC);
+    }
+
+    @Test
+    void reads_DuringWrites_NeverSeeTornRows() throws Exception {
+        // Given: rows whose name, description and price always agree
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 200; i++) ids.add(save("v0", "v0", "0.00").getId());
+        AtomicBoolean done = new AtomicBoolean();
+
+        try (ExecutorService pool = Executors.newFixedThreadPool(4)) {
+            // When: one writer keeps rewriting them with longer and shorter values, and adds rows
+            Future<?> writer = pool.submit(() -> {
+                for (int n = 1; n <= 20_000; n++) {
+                    String v = "v" + n + (n % 3 == 0 ? "-".repeat(n % 50) : "");
+                    store.update(ids.get(n % ids.size()), null, v, v, BigDecimal.valueOf(n), OffsetDateTime.now());
+                    if (n % 100 == 0) save("v0", "v0", "0.00");
+                }
+                done.set(true);
+            });
+            List<Future<Integer>> readers = new ArrayList<>();
+            for (int t = 0; t < 3; t++) {
+                readers.add(pool.submit(() -> {
+                    int checked = 0;
+                    while (!done.get()) {
+                        for (Product p : store.scan(0, null, Integer.MAX_VALUE)) {
+                            assertConsistent(p);
+                            checked++;
+                        }
+                        assertConsistent(store.get(ids.get(checked % ids.size())));
+                    }
+                    return checked;
+                }));
+            }
+
+            // Then
+            writer.get();
+            for (Future<Integer> reader : readers) assertThat(reader.get()).isPositive();
+        }
+    }
+
+    @Test
+    void writes_JournalFailed_ChangeNothing() {
+        // Given
+        Product p = save("Laptop", null, "10.00");
+        store.attach(new Journal() {
+            @Override
+            public void checkWritable() {
+                throw new IllegalStateException("journal failed");
+            }
+
+            @Override
+            public void append(ByteBuffer record) {
+                throw new AssertionError("append after a failed check");
+            }
+
+            @Override
+            public void sync() {
+            }
+        });
+
+        // When / Then
+        assertThatThrownBy(() -> store.save(product("Mouse", null, "5.00"))).hasMessage("journal failed");
+        assertThatThrownBy(() -> store.update(p.getId(), null, "Notebook", null, BigDecimal.ONE, OffsetDateTime.now()))
+                .hasMessage("journal failed");
+        assertThatThrownBy(() -> store.softDelete(p.getId(), OffsetDateTime.now())).hasMessage("journal failed");
+        assertThatThrownBy(() -> store.remove(p.getId())).hasMessage("journal failed");
+        assertThatThrownBy(store::clear).hasMessage("journal failed");
+        assertThat(store.count()).isEqualTo(1);
+        Product read = store.get(p.getId());
+        assertThat(read.getName()).isEqualTo("Laptop");
+        assertThat(read.getVersion()).isZero();
+    }
+
+    private static void assertConsistent(Product p) {
+        assertThat(p.getDescription()).isEqualTo(p.getName());
+        String n = p.getName().substring(1).replace("-", "");
+        assertThat(p.getPrice()).isEqualByComparingTo(n);
+    }
+
+    private Product save(String name, String description, String price) {
+        Product p = product(name, description, price);
+        assertThat(store.save(p)).isTrue();
+        return p;
+    }
+
+    private static Product product(String name, String description, String price) {
+        Product p = new Product();
+        p.setName(name);
+        p.setDescription(description);
+        p.setPrice(new BigDecimal(price));
+        return p;
+    }
+}